@@ -0,0 +1,53 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs all DenManager benchmarks once per thread count, writing one JSON result file per count.
+ * Thread counts double from 1 up to the number of cores, unless given as arguments.
+ * Population sizes can be overridden with -Dpopulation=10,1000,... .
+ * Run with: mvn -P benchmarks compile exec:exec
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        List<Integer> threadCounts = new ArrayList<>();
+        if (args.length > 0) {
+            for (String arg : args) {
+                threadCounts.add(Integer.parseInt(arg));
+            }
+        } else {
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int threads = 1; threads < cores; threads *= 2) {
+                threadCounts.add(threads);
+            }
+            threadCounts.add(cores);
+        }
+
+        File resultDir = new File("target/jmh");
+        resultDir.mkdirs();
+        String populations = System.getProperty("population");
+
+        for (int threads : threadCounts) {
+            OptionsBuilder builder = new OptionsBuilder();
+            builder.include(DenOperationsBenchmark.class.getSimpleName())
+                    .include(MixedWorkloadBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir, "den-benchmark-t" + threads + ".json").getPath());
+            if (populations != null) {
+                builder.param("populationSize", populations.split(","));
+            }
+            Options options = builder.build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package benchmark;
+
+import manager.DenManager;
+import manager.Reservation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single DenManager operations, each wrapped in the reservation it needs.
+ * Blocking reserves are only used where a release always follows, so no thread can park for good.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DenOperationsBenchmark {
+    private static final int BATCH_SIZE = 8;
+
+    @Benchmark
+    public void reserveAndRelease(DenState den) throws InterruptedException {
+        DenManager manager = den.manager;
+        int ticket = manager.reserveAnyHedgehog();
+        manager.releaseHedgehog(ticket);
+    }
+
+    @Benchmark
+    public void addTick(DenState den) throws InterruptedException {
+        DenManager manager = den.manager;
+        int ticket = manager.reserveAnyHedgehog();
+        manager.addTickToReservedHedgehog(ticket);
+        manager.releaseHedgehog(ticket);
+    }
+
+    /**
+     * Batched counterpart of {@link #addTick}, scored per hedgehog so the two compare directly.
+     * A batch only fills up when the den has enough free hedgehogs for every benchmark thread.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void addTickBatch(DenState den) throws InterruptedException {
+        DenManager manager = den.manager;
+        int[] tickets = manager.reserveHedgehogs(BATCH_SIZE);
+        manager.addTickToReservedHedgehogs(tickets);
+        manager.releaseHedgehogs(tickets);
+    }
+
+    /**
+     * Reproduces and, only if a hedgehog was born, kills one of the more numerous sex, so neither the
+     * population nor the sex ratio drifts: killing whoever came free used to shrink the den to a handful
+     * of hedgehogs, or one sex, within an iteration.
+     */
+    @Benchmark
+    public void reproduceAndKill(DenState den) {
+        DenManager manager = den.manager;
+        Reservation femaleReservation = manager.tryReserveFemaleHedgehog();
+        if (!femaleReservation.isReserved()) {
+            return;
+        }
+        Reservation maleReservation = manager.tryReserveMaleHedgehog();
+        if (!maleReservation.isReserved()) {
+            manager.releaseHedgehog(femaleReservation.ticket());
+            return;
+        }
+        manager.reproduce(femaleReservation.ticket(), maleReservation.ticket());
+        manager.releaseHedgehog(maleReservation.ticket());
+        manager.releaseHedgehog(femaleReservation.ticket());
+
+        Reservation victimReservation = manager.getFemaleHedgehogCount() > manager.getMaleHedgehogCount()
+                ? manager.tryReserveFemaleHedgehog()
+                : manager.tryReserveMaleHedgehog();
+        if (victimReservation.isReserved()) {
+            manager.killThatHog(victimReservation.ticket(), "in a benchmark");
+        }
+    }
+
+    @Benchmark
+    public long getTotalTicksOnHedgehogs(DenState den) {
+        return den.manager.getTotalTicksOnHedgehogs();
+    }
+
+    @Benchmark
+    public int getHedgehogCount(DenState den) {
+        return den.manager.getHedgehogCount();
+    }
+}
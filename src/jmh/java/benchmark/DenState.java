@@ -0,0 +1,36 @@
+package benchmark;
+
+import config.ColonyParameters;
+import manager.DenManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A freshly populated den per trial, shared by all benchmark threads.
+ * Uses an isolated, unnarrated manager, so trials never see each other's hedgehogs or counters
+ * and measure the den rather than log file throughput.
+ */
+@State(Scope.Benchmark)
+public class DenState {
+    @Param({"10", "1000", "1000000"})
+    public int populationSize;
+
+    public DenManager manager;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        manager = DenManager.newIsolatedInstance(ColonyParameters.defaults(), false);
+        for (int i = 0; i < populationSize; i++) {
+            manager.createHedgehog();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeNarrativeLog() throws InterruptedException {
+        manager.getNarrativeLog().close();
+    }
+}
@@ -0,0 +1,94 @@
+package benchmark;
+
+import manager.DenManager;
+import manager.Reservation;
+import manager.WarOutcome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The simulation's actor mix hitting one den at once, without the sleeps.
+ * Thread ratios follow the average delays in ConfigParameters: ticks come most often, bums least,
+ * and births roughly match bum and war deaths. JMH rounds the thread count up to whole groups of 14.
+ * Every actor uses the non-blocking reserves, so an emptied den cannot hang the trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MixedWorkloadBenchmark {
+
+    @Benchmark
+    @Group("colony")
+    @GroupThreads(8)
+    public void casualTick(DenState den) {
+        DenManager manager = den.manager;
+        Reservation reservation = manager.tryReserveAnyHedgehog();
+        if (reservation.isReserved()) {
+            manager.addTickToReservedHedgehog(reservation.ticket());
+            manager.releaseHedgehog(reservation.ticket());
+        }
+    }
+
+    @Benchmark
+    @Group("colony")
+    @GroupThreads(3)
+    public void epidemiologist(DenState den) {
+        DenManager manager = den.manager;
+        Reservation reservation = manager.tryReserveHedgehogAboveTickThreshold();
+        if (reservation.isReserved()) {
+            manager.removeAllTicksFromReservedHedgehog(reservation.ticket());
+            manager.releaseHedgehog(reservation.ticket());
+        }
+    }
+
+    @Benchmark
+    @Group("colony")
+    @GroupThreads(1)
+    public void mating(DenState den) {
+        DenManager manager = den.manager;
+        Reservation femaleReservation = manager.tryReserveFemaleHedgehog();
+        if (!femaleReservation.isReserved()) {
+            return;
+        }
+        int femaleTicket = femaleReservation.ticket();
+        Reservation maleReservation = manager.tryReserveMaleHedgehog();
+        if (maleReservation.isReserved()) {
+            manager.reproduce(femaleTicket, maleReservation.ticket());
+            manager.releaseHedgehog(maleReservation.ticket());
+        }
+        manager.releaseHedgehog(femaleTicket);
+    }
+
+    @Benchmark
+    @Group("colony")
+    @GroupThreads(1)
+    public void hungryBum(DenState den) {
+        DenManager manager = den.manager;
+        Reservation reservation = manager.tryReserveAnyHedgehog();
+        if (reservation.isReserved()) {
+            manager.killThatHog(reservation.ticket(), "devoured by a bum");
+        }
+    }
+
+    @Benchmark
+    @Group("colony")
+    @GroupThreads(1)
+    public void fairy(DenState den) {
+        DenManager manager = den.manager;
+        Reservation reservation = manager.tryReserveHedgehogForFairy();
+        if (reservation.isReserved() && manager.sendReservedHedgehogToWar(reservation.ticket()) != WarOutcome.DIED) {
+            manager.releaseHedgehog(reservation.ticket());
+        }
+    }
+}
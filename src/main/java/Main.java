@@ -1,12 +1,16 @@
 import simulation.SimulationManager;
 
+import java.io.IOException;
+
 public class Main {
     public static void main(String[] args) {
         try {
-            SimulationManager.runSimulation();
+            SimulationManager.runSimulation(args);
         } catch (InterruptedException e) {
             System.out.println("Simulation interrupted externally. Exiting...");
             Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("Configuration file could not be read: " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,22 @@
+package config;
+
+/**
+ * The kinds of long-running event actors, each with its own average delay between visits.
+ */
+public enum ActorType {
+    CASUAL_TICK,
+    EPIDEMIOLOGIST,
+    HUNGRY_BUM,
+    MATING,
+    FAIRY;
+
+    public boolean isEnabled() {
+        return switch (this) {
+            case CASUAL_TICK -> ConfigParameters.ENABLE_CASUAL_TICK_THREADS;
+            case EPIDEMIOLOGIST -> ConfigParameters.ENABLE_EPIDEMIOLOGIST_THREADS;
+            case HUNGRY_BUM -> ConfigParameters.ENABLE_HUNGRY_BUM_THREADS;
+            case MATING -> ConfigParameters.ENABLE_MATING_THREADS;
+            case FAIRY -> ConfigParameters.ENABLE_FAIRY_THREADS;
+        };
+    }
+}
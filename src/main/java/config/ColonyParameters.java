@@ -0,0 +1,96 @@
+package config;
+
+/**
+ * The parameters that shape one colony's life, held per {@link manager.DenManager} instead of read from
+ * {@link ConfigParameters}, so several colonies with different settings can live in one JVM.
+ * {@link #defaults()} mirrors ConfigParameters, a parameter sweep derives its grid points with {@link #with}.
+ */
+public record ColonyParameters(int initialHedgehogCount,
+                               int eventThreadsPerTypePer10Hedgehogs,
+                               int maxSimulationDurationSec,
+                               double femaleBornProbability,
+                               double probabilityDieAtWar,
+                               double probabilitySeasonedWarriorLevelUp,
+                               double seasonedWarriorDeathReductionPerLevel) {
+
+    public ColonyParameters {
+        if (maxSimulationDurationSec < 0) {
+            throw new IllegalArgumentException("MAX_SIMULATION_DURATION cannot be negative.");
+        }
+        if (initialHedgehogCount < 0) {
+            throw new IllegalArgumentException("INITIAL_HEDGEHOG_COUNT cannot be negative.");
+        }
+        if (eventThreadsPerTypePer10Hedgehogs < 0) {
+            throw new IllegalArgumentException("NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS cannot be negative.");
+        }
+        if (femaleBornProbability < 0 || femaleBornProbability > 1) {
+            throw new IllegalArgumentException("FEMALE_BORN_PROBABILITY must be between 0 and 1.");
+        }
+        if (probabilityDieAtWar < 0 || probabilitySeasonedWarriorLevelUp < 0) {
+            throw new IllegalArgumentException("PROBABILITY_DIE_AT_WAR and PROBABILITY_SEASONED_WARRIOR_LEVEL_UP cannot be negative.");
+        }
+        if (probabilityDieAtWar + probabilitySeasonedWarriorLevelUp > 1) {
+            throw new IllegalArgumentException("PROBABILITY_DIE_AT_WAR + PROBABILITY_SEASONED_WARRIOR_LEVEL_UP must not exceed 1.");
+        }
+        if (seasonedWarriorDeathReductionPerLevel < 0 || seasonedWarriorDeathReductionPerLevel >= 1) {
+            throw new IllegalArgumentException("SEASONED_WARRIOR_DEATH_REDUCTION_PER_LEVEL must be in [0, 1).");
+        }
+    }
+
+    public static ColonyParameters defaults() {
+        return new ColonyParameters(
+                ConfigParameters.INITIAL_HEDGEHOG_COUNT,
+                ConfigParameters.NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS,
+                ConfigParameters.MAX_SIMULATION_DURATION_SEC,
+                ConfigParameters.FEMALE_BORN_PROBABILITY,
+                ConfigParameters.PROBABILITY_DIE_AT_WAR,
+                ConfigParameters.PROBABILITY_SEASONED_WARRIOR_LEVEL_UP,
+                ConfigParameters.SEASONED_WARRIOR_DEATH_REDUCTION_PER_LEVEL);
+    }
+
+    /**
+     * Copy with one parameter replaced, named as in {@link ConfigParameters}.
+     * Integer parameters must be given whole values.
+     */
+    public ColonyParameters with(String name, double value) {
+        return switch (name) {
+            case "INITIAL_HEDGEHOG_COUNT" -> new ColonyParameters(wholeValue(name, value),
+                    eventThreadsPerTypePer10Hedgehogs, maxSimulationDurationSec, femaleBornProbability,
+                    probabilityDieAtWar, probabilitySeasonedWarriorLevelUp, seasonedWarriorDeathReductionPerLevel);
+            case "NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS" -> new ColonyParameters(initialHedgehogCount,
+                    wholeValue(name, value), maxSimulationDurationSec, femaleBornProbability,
+                    probabilityDieAtWar, probabilitySeasonedWarriorLevelUp, seasonedWarriorDeathReductionPerLevel);
+            case "MAX_SIMULATION_DURATION_SEC" -> new ColonyParameters(initialHedgehogCount,
+                    eventThreadsPerTypePer10Hedgehogs, wholeValue(name, value), femaleBornProbability,
+                    probabilityDieAtWar, probabilitySeasonedWarriorLevelUp, seasonedWarriorDeathReductionPerLevel);
+            case "FEMALE_BORN_PROBABILITY" -> new ColonyParameters(initialHedgehogCount,
+                    eventThreadsPerTypePer10Hedgehogs, maxSimulationDurationSec, value,
+                    probabilityDieAtWar, probabilitySeasonedWarriorLevelUp, seasonedWarriorDeathReductionPerLevel);
+            case "PROBABILITY_DIE_AT_WAR" -> new ColonyParameters(initialHedgehogCount,
+                    eventThreadsPerTypePer10Hedgehogs, maxSimulationDurationSec, femaleBornProbability,
+                    value, probabilitySeasonedWarriorLevelUp, seasonedWarriorDeathReductionPerLevel);
+            case "PROBABILITY_SEASONED_WARRIOR_LEVEL_UP" -> new ColonyParameters(initialHedgehogCount,
+                    eventThreadsPerTypePer10Hedgehogs, maxSimulationDurationSec, femaleBornProbability,
+                    probabilityDieAtWar, value, seasonedWarriorDeathReductionPerLevel);
+            case "SEASONED_WARRIOR_DEATH_REDUCTION_PER_LEVEL" -> new ColonyParameters(initialHedgehogCount,
+                    eventThreadsPerTypePer10Hedgehogs, maxSimulationDurationSec, femaleBornProbability,
+                    probabilityDieAtWar, probabilitySeasonedWarriorLevelUp, value);
+            default -> throw new IllegalArgumentException("Unknown colony parameter: " + name);
+        };
+    }
+
+    /**
+     * Event actors per type, scaled by the initial population rounded to tens.
+     */
+    public int eventActorsPerType() {
+        int roundedHogCount = (int) (10 * Math.round(initialHedgehogCount / 10.0));
+        return (roundedHogCount / 10) * eventThreadsPerTypePer10Hedgehogs;
+    }
+
+    private static int wholeValue(String name, double value) {
+        if (value != Math.rint(value)) {
+            throw new IllegalArgumentException(name + " must be a whole number, got " + value + ".");
+        }
+        return (int) value;
+    }
+}
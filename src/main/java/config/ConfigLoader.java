@@ -0,0 +1,142 @@
+package config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Overrides {@link ConfigParameters} defaults at startup, from a properties file given as
+ * {@code --config=<path>} and from {@code NAME=value} arguments, which take precedence.
+ * Keys are the field names in ConfigParameters. Must run before the simulation reads any parameter.
+ */
+public class ConfigLoader {
+    public static final String CONFIG_FILE_ARGUMENT = "--config=";
+    private static Set<String> commandLineNames = Set.of();
+    private static final Logger logger = LogManager.getLogger(ConfigLoader.class);
+
+    private ConfigLoader() {
+    }
+
+    /**
+     * @return the configuration file, or null if none was given
+     */
+    public static Path load(String[] args) throws IOException {
+        Path configFile = null;
+        Map<String, String> overrides = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith(CONFIG_FILE_ARGUMENT)) {
+                configFile = Path.of(arg.substring(CONFIG_FILE_ARGUMENT.length()));
+                continue;
+            }
+            String[] nameAndValue = arg.split("=", 2);
+            if (nameAndValue.length != 2) {
+                throw new IllegalArgumentException("Arguments must look like NAME=value or " + CONFIG_FILE_ARGUMENT + "<path>: " + arg);
+            }
+            overrides.put(nameAndValue[0].trim(), nameAndValue[1].trim());
+        }
+
+        if (configFile != null) {
+            Map<String, String> fromFile = readFile(configFile);
+            fromFile.forEach(ConfigLoader::set);
+            logger.info("Loaded " + fromFile.size() + " parameters from " + configFile + ".");
+        }
+        overrides.forEach(ConfigLoader::set);
+        commandLineNames = Set.copyOf(overrides.keySet());
+        if (!overrides.isEmpty()) {
+            logger.info("Parameters overridden on the command line: " + overrides);
+        }
+        return configFile;
+    }
+
+    /**
+     * @return true if the parameter was given as a {@code NAME=value} argument, which the file never overrides
+     */
+    public static boolean isSetOnCommandLine(String name) {
+        return commandLineNames.contains(name);
+    }
+
+    public static Map<String, String> readFile(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            values.put(name, properties.getProperty(name).trim());
+        }
+        return values;
+    }
+
+    /**
+     * The current value of a parameter, formatted as it would be written in a configuration file.
+     */
+    public static String get(String name) {
+        try {
+            return String.valueOf(field(name).get(null));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Parameter " + name + " is not accessible.", e);
+        }
+    }
+
+    private static void set(String name, String value) {
+        Field field = field(name);
+        Class<?> type = field.getType();
+        try {
+            Object parsed;
+            if (type == int.class) {
+                parsed = Integer.parseInt(value);
+            } else if (type == long.class) {
+                parsed = Long.parseLong(value);
+            } else if (type == double.class) {
+                parsed = Double.parseDouble(value);
+            } else if (type == boolean.class) {
+                if (!value.equals("true") && !value.equals("false")) {
+                    throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+                }
+                parsed = Boolean.parseBoolean(value);
+            } else if (type == String.class) {
+                parsed = value;
+            } else if (type.isEnum()) {
+                parsed = enumValue(type, value);
+            } else {
+                throw new IllegalStateException("Parameter " + name + " has an unsupported type " + type.getSimpleName() + ".");
+            }
+            field.set(null, parsed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Parameter " + name + " is not writable.", e);
+        }
+    }
+
+    private static Field field(String name) {
+        try {
+            Field field = ConfigParameters.class.getField(name);
+            if (!Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                throw new IllegalArgumentException("Unknown parameter: " + name);
+            }
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException("Unknown parameter: " + name);
+        }
+    }
+
+    private static Object enumValue(Class<?> type, String value) {
+        for (Object constant : type.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equals(value)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Invalid value for " + type.getSimpleName() + ": " + value);
+    }
+}
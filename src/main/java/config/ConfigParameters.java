@@ -2,47 +2,120 @@ package config;
 
 /**
  * Central configuration for simulation settings, probabilities, and timing.
- * All parameters are static and should be adjusted before simulation start.
+ * The values below are defaults, {@link ConfigLoader} may override them from a file or the command line
+ * before the simulation starts; they must not be changed after that. Timing and actor counts can still
+ * be adjusted while the simulation runs, see {@link LiveWorkload}.
  */
 public class ConfigParameters {
     // ===== Simulation Scope =====
-    public static final int MAX_SIMULATION_DURATION_SEC = 30;
-    // There are 100 unique male and 100 unique female hedgehog names available with the current lists.
-    // The actual maximum total hedgehog count is not strictly 200 due to randomized sex assignment.
-    public static final int INITIAL_HEDGEHOG_COUNT = 10;
-    public static final int NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS = 1;
+    // Wall-clock seconds, or simulated seconds in DISCRETE_EVENT execution mode.
+    public static int MAX_SIMULATION_DURATION_SEC = 30;
+    // Names are generated without limit, see HedgehogNameManager.
+    public static int INITIAL_HEDGEHOG_COUNT = 10;
+    public static int NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS = 1;
+
+    // ===== Reproducibility =====
+    // Gives every actor its own random stream split from RANDOM_SEED, so its decisions repeat from run to run.
+    // Fully repeatable workloads need DISCRETE_EVENT mode, threads still interleave differently.
+    public static boolean ENABLE_SEEDED_RANDOMNESS = false;
+    public static long RANDOM_SEED = 20240601L;
 
     // ===== Feature Toggles =====
-    public static final boolean ENABLE_TICK_OUTBREAK = true;
-    public static final boolean ENABLE_CASUAL_TICK_THREADS = true;
-    public static final boolean ENABLE_EPIDEMIOLOGIST_THREADS = true;
-    public static final boolean ENABLE_HUNGRY_BUM_THREADS = true;
-    public static final boolean ENABLE_MATING_THREADS = true;
-    public static final boolean ENABLE_FAIRY_THREADS = true;
+    public static boolean ENABLE_TICK_OUTBREAK = true;
+    public static boolean ENABLE_CASUAL_TICK_THREADS = true;
+    public static boolean ENABLE_EPIDEMIOLOGIST_THREADS = true;
+    public static boolean ENABLE_HUNGRY_BUM_THREADS = true;
+    public static boolean ENABLE_MATING_THREADS = true;
+    public static boolean ENABLE_FAIRY_THREADS = true;
 
     // ===== Behavioral Probability Settings =====
-    public static final double FEMALE_BORN_PROBABILITY = 0.4;
-    public static final double PROBABILITY_DIE_AT_WAR = 0.3;
-    public static final double PROBABILITY_SEASONED_WARRIOR_LEVEL_UP = 0.3;
-    public static final double SEASONED_WARRIOR_DEATH_REDUCTION_PER_LEVEL = 0.15;
+    public static double FEMALE_BORN_PROBABILITY = 0.4;
+    public static double PROBABILITY_DIE_AT_WAR = 0.3;
+    public static double PROBABILITY_SEASONED_WARRIOR_LEVEL_UP = 0.3;
+    public static double SEASONED_WARRIOR_DEATH_REDUCTION_PER_LEVEL = 0.15;
 
     // ===== Thread Scaling & Triggers =====
-    public static final double OUTBREAK_THREADS_PER_HEDGEHOG_FACTOR = 4.0;
-    public static final int MIN_TICKS_FOR_EPIDEMIOLOGIST = 5;
+    public static double OUTBREAK_THREADS_PER_HEDGEHOG_FACTOR = 4.0;
+    public static int MIN_TICKS_FOR_EPIDEMIOLOGIST = 5;
+
+    // ===== Den Concurrency =====
+    // VIRTUAL_THREADS lifts the OS thread limit for large colonies and outbreaks,
+    // DISCRETE_EVENT runs the colony on a simulated clock instead of real sleeps.
+    public static ExecutionMode EXECUTION_MODE = ExecutionMode.PLATFORM_THREADS;
+    public static DenBackendType DEN_BACKEND = DenBackendType.LOCKED;
+    // Number of independently locked sub-dens (LOCKED backend only). 1 keeps the classic single-monitor den.
+    public static int DEN_SHARD_COUNT = 1;
+    // Casual tick, epidemiologist and hungry bum threads handle up to DEN_BATCH_SIZE hedgehogs per reservation,
+    // waiting proportionally longer between visits.
+    public static boolean ENABLE_BATCHED_OPERATIONS = false;
+    public static int DEN_BATCH_SIZE = 8;
+    // Actors give up a reservation after RESERVATION_TIMEOUT_MS and carry on with their next visit instead of
+    // parking until a hedgehog comes free; a mating pair no longer waits on a male that is never coming.
+    public static boolean ENABLE_BOUNDED_RESERVATIONS = false;
+    public static int RESERVATION_TIMEOUT_MS = 50;
 
     // ===== Thread Timing (Delays & Jitter) =====
-    public static final double THREAD_DELAY_JITTER_PERCENT = 0.5;
+    public static double THREAD_DELAY_JITTER_PERCENT = 0.5;
+
+    public static int CASUAL_TICK_AVG_DELAY_MS = 200;
+    public static int EPIDEMIOLOGIST_AVG_DELAY_MS = 600;
+    public static int HUNGRY_BUM_AVG_DELAY_MS = 2000;
+    public static int MATING_AVG_DELAY_MS = 1500;
+    public static int FAIRY_AVG_DELAY_MS = 1400;
+
+    public static int MIN_SLEEP_INSIDE_TASK_MS = 10;
+    public static int MAX_SLEEP_INSIDE_TASK_MS = 50;
+
+    // ===== Checkpoints =====
+    // When set, the colony is restored from this checkpoint instead of being created and hit by the outbreak.
+    public static String RESTORE_CHECKPOINT_FILE = "";
+    // When set, the colony is checkpointed here when the run ends, and every CHECKPOINT_INTERVAL_SEC while it runs (0 = only at the end).
+    public static String CHECKPOINT_FILE = "";
+    public static int CHECKPOINT_INTERVAL_SEC = 0;
+    // Checkpoint files of at least this size are written and read through memory mapping.
+    public static long CHECKPOINT_MMAP_THRESHOLD_BYTES = 1 << 20;
 
-    public static final int CASUAL_TICK_AVG_DELAY_MS = 200;
-    public static final int EPIDEMIOLOGIST_AVG_DELAY_MS = 600;
-    public static final int HUNGRY_BUM_AVG_DELAY_MS = 2000;
-    public static final int MATING_AVG_DELAY_MS = 1500;
-    public static final int FAIRY_AVG_DELAY_MS = 1400;
+    // ===== Event Journal =====
+    // When set, every change to the colony is recorded in this binary journal, see manager.JournalReplay.
+    public static String EVENT_JOURNAL_FILE = "";
+    // The journal grows by memory-mapped regions of this size, one being filled per stripe of writer threads.
+    public static int EVENT_JOURNAL_REGION_BYTES = 1 << 20;
 
-    public static final int MIN_SLEEP_INSIDE_TASK_MS = 10;
-    public static final int MAX_SLEEP_INSIDE_TASK_MS = 50;
+    // ===== Parameter Sweep =====
+    // Grid run by simulation.sweep.ParameterSweep when given no arguments: axes "NAME=v1,v2,..." separated by ';',
+    // named as the colony parameters above. Every combination is run SWEEP_REPETITIONS times.
+    public static String SWEEP_GRID = "PROBABILITY_DIE_AT_WAR=0.1,0.3,0.5;FEMALE_BORN_PROBABILITY=0.3,0.5;INITIAL_HEDGEHOG_COUNT=10,100";
+    public static int SWEEP_REPETITIONS = 2;
+    public static String SWEEP_REPORT_DIR = "logs/sweep";
 
     // ===== Monitoring & Display =====
-    public static final int POPULATION_MONITOR_CHECK_FREQUENCY_MS = 500;
-    public static final int LIVE_STATS_REFRESH_FREQUENCY_MS = 500;
+    // When positive, a warning is logged each time the population falls below this many hedgehogs (0 = off).
+    public static int POPULATION_ALERT_THRESHOLD = 0;
+    public static int LIVE_STATS_REFRESH_FREQUENCY_MS = 500;
+    // Counters and their per-second rates are sampled this often and streamed to METRICS_FILE as CSV (empty = off),
+    // e.g. logs/metrics.csv.
+    public static String METRICS_FILE = "";
+    public static int METRICS_SAMPLE_INTERVAL_MS = 100;
+    // Samples waiting for the writer; when it falls behind, the oldest are overwritten.
+    public static int METRICS_RING_CAPACITY = 1024;
+    // How often a configuration file given with --config is checked for live workload changes.
+    public static int CONFIG_RELOAD_CHECK_FREQUENCY_MS = 1000;
+    // Times lock waits, holds and condition waits per DenManager operation, reported as percentiles.
+    public static boolean ENABLE_LOCK_PROFILING = true;
+    // Births, deaths and war stories are logged by a background writer fed through a bounded queue.
+    public static boolean ENABLE_ASYNC_NARRATIVE_LOG = true;
+    public static int NARRATIVE_LOG_QUEUE_CAPACITY = 8192;
+    public static LogQueueFullPolicy NARRATIVE_LOG_FULL_POLICY = LogQueueFullPolicy.BLOCK;
+    // With SAMPLE, one in this many events that find the queue full is still logged.
+    public static int NARRATIVE_LOG_SAMPLE_RATE = 10;
+    // Debug aid: after the run, rebuilds the colony aggregates from a full scan and compares them with the running ones.
+    public static boolean ENABLE_AGGREGATE_CROSS_CHECK = false;
+    // The final report lists this many founders with the most living descendants (0 = no genealogy report).
+    public static int GENEALOGY_REPORT_LINEAGES = 3;
+    // Checks the population and tick balance and the reservation bookkeeping while the colony runs, spending at most
+    // this percentage of wall-clock time on it (0 = off). Each check covers up to INVARIANT_CHECK_SLICE hedgehogs,
+    // so the whole den is gone through over several checks, at most one every INVARIANT_CHECK_MIN_INTERVAL_MS.
+    public static double INVARIANT_CHECK_BUDGET_PERCENT = 1.0;
+    public static int INVARIANT_CHECK_SLICE = 1024;
+    public static int INVARIANT_CHECK_MIN_INTERVAL_MS = 50;
 }
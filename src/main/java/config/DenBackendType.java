@@ -0,0 +1,11 @@
+package config;
+
+/**
+ * Available storage and reservation engines for the den.
+ * LOCKED uses ReentrantLock-guarded shards (see DEN_SHARD_COUNT),
+ * LOCK_FREE flips per-hedgehog atomic state words and only locks to park waiters.
+ */
+public enum DenBackendType {
+    LOCKED,
+    LOCK_FREE
+}
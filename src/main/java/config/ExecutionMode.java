@@ -0,0 +1,13 @@
+package config;
+
+/**
+ * How simulation actors (event threads and tick outbreak runners) are executed.
+ * PLATFORM_THREADS gives every actor its own OS thread, VIRTUAL_THREADS runs them on Java 21 virtual threads.
+ * DISCRETE_EVENT replaces threads with a single-threaded event scheduler on a simulated clock,
+ * running faster than real time.
+ */
+public enum ExecutionMode {
+    PLATFORM_THREADS,
+    VIRTUAL_THREADS,
+    DISCRETE_EVENT
+}
@@ -2,98 +2,210 @@ package config;
 
 import model.Sex;
 
-import java.util.*;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
 
 /**
- * Provides unique, pre-generated names for hedgehogs based on sex.
- * Names are shuffled at initialization and consumed sequentially.
- * Throws an exception if names run out.
+ * Hands out unique hedgehog names per sex, without limit.
+ * Names are composed from the given names and epithets of the classic Irish name lists below:
+ * a given name alone or with any epithet, then the same again as numbered lineages ("II", "III", ...).
+ * A name is kept as a compact code and only spelled out by {@link #nameOf(Sex, long)} when needed.
+ * Handing out a code is a counter bump plus a multiplication, with no lock and no allocation.
+ * The order of combinations is shuffled at initialization (with a stream of its own in seeded mode).
  */
 public class HedgehogNameManager {
 
-    private final Queue<String> maleNames;
-    private final Queue<String> femaleNames;
+    private static final List<String> MALE_NAMES = List.of(
+            "Branburr", "Fionnprick", "Thornwyn", "Cairnach", "Eogan Quillsharp",
+            "Briarnach", "Aedán of the Den", "Cormac Spiketail", "Donnach MacSpine", "Fergus Briarfoot",
+            "Lorcan Hedgebane", "Ronan the Bristled", "Seanan O’Quill", "Daithi Thorncloak", "Colman Spineshade",
+            "Padraig Quickspike", "Faelan Burrclaw", "Malachy Hedgeborn", "Conall Fairysworn", "Breccan Sharpburrow",
+            "Oisin Thornfang", "Finbar Denwatcher", "Niall Quillkin", "Cathal Briarpaw", "Ruairi Hedgewarden",
+            "Turlough of the Hollow", "Ciaran Sharpnose", "Tiernan of the Brambles", "Dara Spikewarden", "Artan Quickthorn",
+            "Eoin Fairyleaf", "Donnchadh Burrback", "Diarmaid Quillmarch", "Fearghas of the Underbrush", "Gearoid Spineshield",
+            "Lorcan Thorncloak", "Muiris Denborn", "Odhran Hedgefang", "Riordan of the Glen", "Tadhg Quickburrow",
+            "Breandán Sharpfoot", "Caolan O’Spine", "Piaras Bristleback", "Ultan the Watchful", "Eochaidh of the Hollow",
+            "Iarlaith Thorncloak", "Fintan Hedgebriar", "Colm of the Thistledown", "Séamus Quillwarden", "Torcan Briarborn",
+            "Aonghus Thornfang", "Barrin Bristleback", "Caedmon Hedgewarden", "Conrí Burrclaw", "Dara O'Quill",
+            "Eirnin Spiketail", "Faolán Sharpburrow", "Gearalt of the Den", "Iollan Thorncloak", "Keelan Briarfoot",
+            "Lugh Quickspike", "Murchadh Spineshield", "Naoise Hedgebriar", "Orin Quillkin", "Pádraic Fairysworn",
+            "Rioghan Bristledown", "Setanta of the Glen", "Tighearnán Denborn", "Ultán Hedgefang", "Caoimhín Burrback",
+            "Branán Thornshade", "Eochaidh Spikewarden", "Feargan Briarpaw", "Guaire of the Hollow", "Iarlaith Sharpnose",
+            "Cathán Hedgeborn", "Lorcán Fairycloak", "Odhrán Quickthorn", "Rónán the Bristled", "Séadhna Thornfang",
+            "Torin Spiketail", "Uilliam Brambleback", "Énna Hedgewarden", "Béccán Quillmarch", "Connla Briarborn",
+            "Eóghan Denwatcher", "Finnian Thornshade", "Cormán Fairypaw", "Darragh Spineshield", "Fachtna of the Thistledown",
+            "Muiris Quickburrow", "Tuathal Quillbright", "Tadhg Briarback", "Fionnbharr Hedgefang", "Macdara Sharpfoot",
+            "Eimhin Thorncloak", "Cuan Burrclaw", "Breasal the Watchful", "Dáire Bristleborn", "Cianán of the Glen"
+    );
+
+    private static final List<String> FEMALE_NAMES = List.of(
+            "Ainepike", "Brianna Quilltail", "Thornwyn", "Nuala Spineshade", "Maeve Briarfoot",
+            "Siobhan the Sharp", "Eithne Hedgeleaf", "Sorcha Quillcloak", "Roisin Thornborn", "Ailis of the Den",
+            "Orla Burrtail", "Clíodhna Hedgefang", "Deirdre of the Hollow", "Branna Sharpburrow", "Sadhbh Fairysworn",
+            "Liadan Thornshade", "Aisling Quillbright", "Fionnuala Hedgewarden", "Muireann Briarback", "Grainne of the Thistledown",
+            "Caoimhe Spineshield", "Eabha Burrclaw", "Riona Quickspike", "Bláthnaid of the Glen", "Etain Fairycloak",
+            "Aoibhe Thornfang", "Dervla Hedgeborn", "Maebh Briarpaw", "Sinead of the Underbrush", "Bríd Quickthorn",
+            "Ailbhe Denwatcher", "Niamh Sharpnose", "Lasairíona Quillmarch", "Róisín Fairyleaf", "Dearbháil Hedgebriar",
+            "Fíona Thorncloak", "Treasa of the Hollow", "Áine Quillwarden", "Eirinn Burrback", "Saorla Briarborn",
+            "Cadhla Spiketail", "Emer of the Brambles", "Muireall Quickburrow", "Iseult Fairypaw", "Macha Hedgefang",
+            "Bláithín of the Glen", "Siofra Thorncloak", "Oona Spineshade", "Eilis Denborn", "Aibreann Quillkin",
+            "Ailionóra Briarfoot", "Bláth Spineshade", "Caoilfhionn Quickspike", "Daireann Hedgewarden", "Eireann Briarborn",
+            "Fiadh Fairysworn", "Gráinne of the Hollow", "Íde Quilltail", "Lasair Hedgefang", "Mairéad Denborn",
+            "Nóirín Sharpburrow", "Orfhlaith Brambleback", "Pádraigín of the Glen", "Róisín Spineshield", "Saoirse Quickthorn",
+            "Treasa Briarpaw", "Úna Fairycloak", "Aoibhinn Thornfang", "Brídín Hedgeborn", "Ciara Thornshade",
+            "Dearbhla Quillmarch", "Éabha Burrback", "Fionnuala Denwatcher", "Gobnait Fairysworn", "Iseult Spiketail",
+            "Líadan Hedgewarden", "Doireann Briarback", "Nessa of the Thistledown", "Oighrig Quickburrow", "Peig Bristleborn",
+            "Róise Thorncloak", "Sadhbh Fairypaw", "Síle Hedgefang", "Tlachtga Briarfoot", "Ula Quillbright",
+            "Áine of the Hollow", "Béibhinn Spineshield", "Clíodhna Thornborn", "Deirbhile Hedgewarden", "Eithne Burrclaw",
+            "Fíona Denborn", "Gormlaith Fairysworn", "Íona Sharpnose", "Labhaoise Briarback", "Maebh the Watchful",
+            "Nuala Quillwarden", "Orlaith Bristledown", "Ríona Quickspike", "Saorla of the Brambles", "Treasa Thornshade"
+    );
+
+    private static final NameFragments MALE_FRAGMENTS = new NameFragments(MALE_NAMES);
+    private static final NameFragments FEMALE_FRAGMENTS = new NameFragments(FEMALE_NAMES);
+
+    private final NameSequence maleSequence;
+    private final NameSequence femaleSequence;
 
     public HedgehogNameManager() {
-        maleNames = new LinkedList<>();
-        femaleNames = new LinkedList<>();
+        RandomGenerator random = Objects.requireNonNullElseGet(SimRandom.newStream(), SimRandom::current);
+        maleSequence = new NameSequence(MALE_FRAGMENTS.combinationCount(), random);
+        femaleSequence = new NameSequence(FEMALE_FRAGMENTS.combinationCount(), random);
+    }
+
+    /**
+     * @return the code of a name no other hedgehog of this sex has received from this manager
+     */
+    public long getNextNameCode(Sex sex) {
+        return switch (sex) {
+            case MALE -> maleSequence.next();
+            case FEMALE -> femaleSequence.next();
+        };
+    }
+
+    /**
+     * Position and shuffle of both sequences, enough to continue handing out names after a restore.
+     */
+    public record State(long maleIssued, long maleStep, long maleOffset,
+                        long femaleIssued, long femaleStep, long femaleOffset) {
+    }
 
-        initializeMaleNames();
-        initializeFemaleNames();
+    public State getState() {
+        return new State(maleSequence.issued.get(), maleSequence.step, maleSequence.offset,
+                femaleSequence.issued.get(), femaleSequence.step, femaleSequence.offset);
     }
 
-    private void initializeMaleNames() {
-        List<String> names = Arrays.asList(
-                "Branburr", "Fionnprick", "Thornwyn", "Cairnach", "Eogan Quillsharp",
-                "Briarnach", "Aedán of the Den", "Cormac Spiketail", "Donnach MacSpine", "Fergus Briarfoot",
-                "Lorcan Hedgebane", "Ronan the Bristled", "Seanan O’Quill", "Daithi Thorncloak", "Colman Spineshade",
-                "Padraig Quickspike", "Faelan Burrclaw", "Malachy Hedgeborn", "Conall Fairysworn", "Breccan Sharpburrow",
-                "Oisin Thornfang", "Finbar Denwatcher", "Niall Quillkin", "Cathal Briarpaw", "Ruairi Hedgewarden",
-                "Turlough of the Hollow", "Ciaran Sharpnose", "Tiernan of the Brambles", "Dara Spikewarden", "Artan Quickthorn",
-                "Eoin Fairyleaf", "Donnchadh Burrback", "Diarmaid Quillmarch", "Fearghas of the Underbrush", "Gearoid Spineshield",
-                "Lorcan Thorncloak", "Muiris Denborn", "Odhran Hedgefang", "Riordan of the Glen", "Tadhg Quickburrow",
-                "Breandán Sharpfoot", "Caolan O’Spine", "Piaras Bristleback", "Ultan the Watchful", "Eochaidh of the Hollow",
-                "Iarlaith Thorncloak", "Fintan Hedgebriar", "Colm of the Thistledown", "Séamus Quillwarden", "Torcan Briarborn",
-                "Aonghus Thornfang", "Barrin Bristleback", "Caedmon Hedgewarden", "Conrí Burrclaw", "Dara O'Quill",
-                "Eirnin Spiketail", "Faolán Sharpburrow", "Gearalt of the Den", "Iollan Thorncloak", "Keelan Briarfoot",
-                "Lugh Quickspike", "Murchadh Spineshield", "Naoise Hedgebriar", "Orin Quillkin", "Pádraic Fairysworn",
-                "Rioghan Bristledown", "Setanta of the Glen", "Tighearnán Denborn", "Ultán Hedgefang", "Caoimhín Burrback",
-                "Branán Thornshade", "Eochaidh Spikewarden", "Feargan Briarpaw", "Guaire of the Hollow", "Iarlaith Sharpnose",
-                "Cathán Hedgeborn", "Lorcán Fairycloak", "Odhrán Quickthorn", "Rónán the Bristled", "Séadhna Thornfang",
-                "Torin Spiketail", "Uilliam Brambleback", "Énna Hedgewarden", "Béccán Quillmarch", "Connla Briarborn",
-                "Eóghan Denwatcher", "Finnian Thornshade", "Cormán Fairypaw", "Darragh Spineshield", "Fachtna of the Thistledown",
-                "Muiris Quickburrow", "Tuathal Quillbright", "Tadhg Briarback", "Fionnbharr Hedgefang", "Macdara Sharpfoot",
-                "Eimhin Thorncloak", "Cuan Burrclaw", "Breasal the Watchful", "Dáire Bristleborn", "Cianán of the Glen"
-        );
-
-        Collections.shuffle(names);
-        maleNames.addAll(names);
+    /**
+     * Continues where the saved sequences left off. Only valid before this manager hands out any name.
+     */
+    public void restore(State state) {
+        maleSequence.restore(state.maleIssued(), state.maleStep(), state.maleOffset());
+        femaleSequence.restore(state.femaleIssued(), state.femaleStep(), state.femaleOffset());
     }
 
-    private void initializeFemaleNames() {
-        List<String> names = Arrays.asList(
-                "Ainepike", "Brianna Quilltail", "Thornwyn", "Nuala Spineshade", "Maeve Briarfoot",
-                "Siobhan the Sharp", "Eithne Hedgeleaf", "Sorcha Quillcloak", "Roisin Thornborn", "Ailis of the Den",
-                "Orla Burrtail", "Clíodhna Hedgefang", "Deirdre of the Hollow", "Branna Sharpburrow", "Sadhbh Fairysworn",
-                "Liadan Thornshade", "Aisling Quillbright", "Fionnuala Hedgewarden", "Muireann Briarback", "Grainne of the Thistledown",
-                "Caoimhe Spineshield", "Eabha Burrclaw", "Riona Quickspike", "Bláthnaid of the Glen", "Etain Fairycloak",
-                "Aoibhe Thornfang", "Dervla Hedgeborn", "Maebh Briarpaw", "Sinead of the Underbrush", "Bríd Quickthorn",
-                "Ailbhe Denwatcher", "Niamh Sharpnose", "Lasairíona Quillmarch", "Róisín Fairyleaf", "Dearbháil Hedgebriar",
-                "Fíona Thorncloak", "Treasa of the Hollow", "Áine Quillwarden", "Eirinn Burrback", "Saorla Briarborn",
-                "Cadhla Spiketail", "Emer of the Brambles", "Muireall Quickburrow", "Iseult Fairypaw", "Macha Hedgefang",
-                "Bláithín of the Glen", "Siofra Thorncloak", "Oona Spineshade", "Eilis Denborn", "Aibreann Quillkin",
-                "Ailionóra Briarfoot", "Bláth Spineshade", "Caoilfhionn Quickspike", "Daireann Hedgewarden", "Eireann Briarborn",
-                "Fiadh Fairysworn", "Gráinne of the Hollow", "Íde Quilltail", "Lasair Hedgefang", "Mairéad Denborn",
-                "Nóirín Sharpburrow", "Orfhlaith Brambleback", "Pádraigín of the Glen", "Róisín Spineshield", "Saoirse Quickthorn",
-                "Treasa Briarpaw", "Úna Fairycloak", "Aoibhinn Thornfang", "Brídín Hedgeborn", "Ciara Thornshade",
-                "Dearbhla Quillmarch", "Éabha Burrback", "Fionnuala Denwatcher", "Gobnait Fairysworn", "Iseult Spiketail",
-                "Líadan Hedgewarden", "Doireann Briarback", "Nessa of the Thistledown", "Oighrig Quickburrow", "Peig Bristleborn",
-                "Róise Thorncloak", "Sadhbh Fairypaw", "Síle Hedgefang", "Tlachtga Briarfoot", "Ula Quillbright",
-                "Áine of the Hollow", "Béibhinn Spineshield", "Clíodhna Thornborn", "Deirbhile Hedgewarden", "Eithne Burrclaw",
-                "Fíona Denborn", "Gormlaith Fairysworn", "Íona Sharpnose", "Labhaoise Briarback", "Maebh the Watchful",
-                "Nuala Quillwarden", "Orlaith Bristledown", "Ríona Quickspike", "Saorla of the Brambles", "Treasa Thornshade"
-        );
-
-        Collections.shuffle(names);
-        femaleNames.addAll(names);
+    public static String nameOf(Sex sex, long nameCode) {
+        return (sex == Sex.FEMALE ? FEMALE_FRAGMENTS : MALE_FRAGMENTS).spell(nameCode);
     }
 
-    public String getNextName(Sex sex) {
-        switch (sex) {
-            case MALE -> {
-                if (maleNames.isEmpty()) {
-                    throw new IllegalStateException("No more male names available!");
+    /**
+     * Distinct given names and epithets split out of a name list, e.g. "Cormac" and "Spiketail".
+     * Combination c is given name c / (epithets + 1) with epithet c % (epithets + 1), where 0 means none.
+     */
+    private static class NameFragments {
+        private final String[] givenNames;
+        private final String[] epithets;
+
+        NameFragments(List<String> names) {
+            Set<String> givenNameSet = new LinkedHashSet<>();
+            Set<String> epithetSet = new LinkedHashSet<>();
+            for (String name : names) {
+                String[] parts = name.split(" ", 2);
+                givenNameSet.add(parts[0]);
+                if (parts.length > 1) {
+                    epithetSet.add(parts[1]);
                 }
-                return maleNames.poll();
             }
-            case FEMALE -> {
-                if (femaleNames.isEmpty()) {
-                    throw new IllegalStateException("No more female names available!");
-                }
-                return femaleNames.poll();
+            givenNames = givenNameSet.toArray(String[]::new);
+            epithets = epithetSet.toArray(String[]::new);
+        }
+
+        long combinationCount() {
+            return (long) givenNames.length * (epithets.length + 1);
+        }
+
+        String spell(long nameCode) {
+            long combination = nameCode % combinationCount();
+            long lineage = nameCode / combinationCount();
+            int epithet = (int) (combination % (epithets.length + 1));
+            StringBuilder name = new StringBuilder(givenNames[(int) (combination / (epithets.length + 1))]);
+            if (epithet > 0) {
+                name.append(' ').append(epithets[epithet - 1]);
+            }
+            if (lineage > 0) {
+                name.append(' ').append(toRoman(lineage + 1));
             }
-            default -> throw new IllegalArgumentException("Unknown sex: " + sex);
+            return name.toString();
         }
     }
 
+    /**
+     * Walks all combinations in a shuffled order, then starts over one lineage higher.
+     * The shuffle is n * step + offset modulo the combination count, with step coprime to it, so it never repeats.
+     */
+    private static class NameSequence {
+        private final AtomicLong issued = new AtomicLong(0);
+        private final long combinations;
+        // Only replaced by restore, before any name is handed out.
+        private long step;
+        private long offset;
+
+        NameSequence(long combinations, RandomGenerator random) {
+            this.combinations = combinations;
+            long candidate = 1 + random.nextLong(combinations);
+            while (gcd(candidate, combinations) != 1) {
+                candidate = candidate % combinations + 1;
+            }
+            this.step = candidate;
+            this.offset = random.nextLong(combinations);
+        }
+
+        void restore(long issuedCount, long savedStep, long savedOffset) {
+            if (savedStep < 1 || savedStep > combinations || gcd(savedStep, combinations) != 1
+                    || savedOffset < 0 || savedOffset >= combinations || issuedCount < 0) {
+                throw new IllegalArgumentException("Saved name sequence does not fit this name list.");
+            }
+            step = savedStep;
+            offset = savedOffset;
+            issued.set(issuedCount);
+        }
+
+        long next() {
+            long n = issued.getAndIncrement();
+            long lineage = n / combinations;
+            long combination = Math.floorMod(n % combinations * step + offset, combinations);
+            return lineage * combinations + combination;
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static String toRoman(long number) {
+        long[] values = {1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1};
+        String[] numerals = {"M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I"};
+        StringBuilder roman = new StringBuilder();
+        long remaining = number;
+        for (int i = 0; i < values.length; i++) {
+            while (remaining >= values[i]) {
+                roman.append(numerals[i]);
+                remaining -= values[i];
+            }
+        }
+        return roman.toString();
+    }
 }
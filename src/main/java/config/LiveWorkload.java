@@ -0,0 +1,55 @@
+package config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Holds the {@link WorkloadSettings} actors use right now. Actors read {@link #current()} on every visit,
+ * so an update takes effect from their next delay or task on, without restarting them.
+ * Listeners react to updates that need more than that, e.g. starting or retiring actors.
+ */
+public class LiveWorkload {
+    private static volatile WorkloadSettings current;
+    private static final List<Consumer<WorkloadSettings>> listeners = new CopyOnWriteArrayList<>();
+    private static final Logger logger = LogManager.getLogger(LiveWorkload.class);
+
+    private LiveWorkload() {
+    }
+
+    public static WorkloadSettings current() {
+        WorkloadSettings settings = current;
+        if (settings == null) {
+            settings = WorkloadSettings.fromConfig();
+            current = settings;
+        }
+        return settings;
+    }
+
+    /**
+     * Starts over from the startup values in {@link ConfigParameters}, once they are loaded.
+     */
+    public static void reset() {
+        current = WorkloadSettings.fromConfig();
+        listeners.clear();
+    }
+
+    public static void update(WorkloadSettings settings) {
+        current = settings;
+        logger.info("Workload updated: " + settings);
+        for (Consumer<WorkloadSettings> listener : listeners) {
+            listener.accept(settings);
+        }
+    }
+
+    public static void addListener(Consumer<WorkloadSettings> listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Consumer<WorkloadSettings> listener) {
+        listeners.remove(listener);
+    }
+}
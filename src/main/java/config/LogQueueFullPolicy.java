@@ -0,0 +1,13 @@
+package config;
+
+/**
+ * What a simulation actor does with a narrative log event when the asynchronous log queue is full.
+ * BLOCK waits for space and loses nothing, stalling only the actor, as events are published after its den operation;
+ * DROP discards the event,
+ * SAMPLE waits for one in NARRATIVE_LOG_SAMPLE_RATE such events and discards the rest.
+ */
+public enum LogQueueFullPolicy {
+    BLOCK,
+    DROP,
+    SAMPLE
+}
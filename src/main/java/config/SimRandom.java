@@ -0,0 +1,75 @@
+package config;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+
+/**
+ * Single source of randomness for the simulation.
+ * When seeded mode is enabled, every actor gets its own stream split from a master generator seeded with
+ * {@link ConfigParameters#RANDOM_SEED}, so the decisions it makes are reproducible from run to run.
+ * Streams must be split in a fixed order, i.e. when actors are constructed, not when they start running.
+ * A thread running a whole colony on its own (a parameter sweep) binds a colony seed, so its streams come
+ * from a master of its own and do not depend on how concurrent colonies interleave.
+ * Unseeded, everything falls back to {@link ThreadLocalRandom}.
+ */
+public class SimRandom {
+    private static final SplittableRandom master = new SplittableRandom(ConfigParameters.RANDOM_SEED);
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final ThreadLocal<RandomGenerator> boundStream = new ThreadLocal<>();
+    private static final ThreadLocal<SplittableRandom> colonyMaster = new ThreadLocal<>();
+
+    private SimRandom() {
+    }
+
+    /**
+     * Splits a new stream off the master generator, or returns null when seeded mode is off.
+     */
+    public static RandomGenerator newStream() {
+        if (!ConfigParameters.ENABLE_SEEDED_RANDOMNESS) {
+            return null;
+        }
+        SplittableRandom colony = colonyMaster.get();
+        if (colony != null) {
+            return colony.split();
+        }
+        lock.lock();
+        try {
+            return master.split();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes the current thread split its streams from a master seeded with the given seed. Null unbinds it.
+     */
+    public static void bindColonySeed(Long seed) {
+        if (seed == null) {
+            colonyMaster.remove();
+        } else {
+            colonyMaster.set(new SplittableRandom(seed));
+        }
+    }
+
+    /**
+     * Makes the given stream the current thread's source of randomness. Null unbinds it.
+     */
+    public static void bind(RandomGenerator stream) {
+        if (stream == null) {
+            boundStream.remove();
+        } else {
+            boundStream.set(stream);
+        }
+    }
+
+    /**
+     * The stream bound to the current thread (or the actor it is running in discrete-event mode),
+     * falling back to {@link ThreadLocalRandom}.
+     */
+    public static RandomGenerator current() {
+        RandomGenerator stream = boundStream.get();
+        return stream != null ? stream : ThreadLocalRandom.current();
+    }
+}
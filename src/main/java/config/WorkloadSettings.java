@@ -0,0 +1,131 @@
+package config;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The timing and actor-count parameters that may change while the simulation runs.
+ * Immutable, so an actor reading {@link LiveWorkload#current()} once per visit never sees half an update
+ * (e.g. a new minimum sleep with the old maximum).
+ */
+public record WorkloadSettings(int casualTickAvgDelayMs,
+                               int epidemiologistAvgDelayMs,
+                               int hungryBumAvgDelayMs,
+                               int matingAvgDelayMs,
+                               int fairyAvgDelayMs,
+                               int minSleepInsideTaskMs,
+                               int maxSleepInsideTaskMs,
+                               double threadDelayJitterPercent,
+                               int eventThreadsPerTypePer10Hedgehogs) {
+
+    /**
+     * Names, as in {@link ConfigParameters}, of the parameters that can be changed live.
+     */
+    public static final Set<String> NAMES = Set.of(
+            "CASUAL_TICK_AVG_DELAY_MS", "EPIDEMIOLOGIST_AVG_DELAY_MS", "HUNGRY_BUM_AVG_DELAY_MS",
+            "MATING_AVG_DELAY_MS", "FAIRY_AVG_DELAY_MS", "MIN_SLEEP_INSIDE_TASK_MS", "MAX_SLEEP_INSIDE_TASK_MS",
+            "THREAD_DELAY_JITTER_PERCENT", "NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS");
+
+    public WorkloadSettings {
+        if (threadDelayJitterPercent < 0 || threadDelayJitterPercent > 1) {
+            throw new IllegalArgumentException("THREAD_DELAY_JITTER_PERCENT must be between 0 and 1.");
+        }
+        if (minSleepInsideTaskMs < 0 || maxSleepInsideTaskMs < 0) {
+            throw new IllegalArgumentException("Sleep durations cannot be negative.");
+        }
+        if (minSleepInsideTaskMs > maxSleepInsideTaskMs) {
+            throw new IllegalArgumentException("MIN_SLEEP_INSIDE_TASK_MS cannot exceed MAX_SLEEP_INSIDE_TASK_MS.");
+        }
+        if (casualTickAvgDelayMs < 0) {
+            throw new IllegalArgumentException("CASUAL_TICK_AVG_DELAY_MS cannot be negative.");
+        }
+        if (epidemiologistAvgDelayMs < 0) {
+            throw new IllegalArgumentException("EPIDEMIOLOGIST_AVG_DELAY_MS cannot be negative.");
+        }
+        if (hungryBumAvgDelayMs < 0) {
+            throw new IllegalArgumentException("HUNGRY_BUM_AVG_DELAY_MS cannot be negative.");
+        }
+        if (matingAvgDelayMs < 0) {
+            throw new IllegalArgumentException("MATING_AVG_DELAY_MS cannot be negative.");
+        }
+        if (fairyAvgDelayMs < 0) {
+            throw new IllegalArgumentException("FAIRY_AVG_DELAY_MS cannot be negative.");
+        }
+        if (eventThreadsPerTypePer10Hedgehogs < 0) {
+            throw new IllegalArgumentException("NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS cannot be negative.");
+        }
+    }
+
+    public static WorkloadSettings fromConfig() {
+        return new WorkloadSettings(
+                ConfigParameters.CASUAL_TICK_AVG_DELAY_MS,
+                ConfigParameters.EPIDEMIOLOGIST_AVG_DELAY_MS,
+                ConfigParameters.HUNGRY_BUM_AVG_DELAY_MS,
+                ConfigParameters.MATING_AVG_DELAY_MS,
+                ConfigParameters.FAIRY_AVG_DELAY_MS,
+                ConfigParameters.MIN_SLEEP_INSIDE_TASK_MS,
+                ConfigParameters.MAX_SLEEP_INSIDE_TASK_MS,
+                ConfigParameters.THREAD_DELAY_JITTER_PERCENT,
+                ConfigParameters.NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS);
+    }
+
+    /**
+     * Copy with the given parameters replaced, all or nothing.
+     * @param values new values by {@link ConfigParameters} name, all of them in {@link #NAMES}
+     */
+    public WorkloadSettings with(Map<String, String> values) {
+        int casualTick = casualTickAvgDelayMs;
+        int epidemiologist = epidemiologistAvgDelayMs;
+        int hungryBum = hungryBumAvgDelayMs;
+        int mating = matingAvgDelayMs;
+        int fairy = fairyAvgDelayMs;
+        int minSleep = minSleepInsideTaskMs;
+        int maxSleep = maxSleepInsideTaskMs;
+        double jitter = threadDelayJitterPercent;
+        int threadsPer10 = eventThreadsPerTypePer10Hedgehogs;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String value = entry.getValue().trim();
+            try {
+                switch (entry.getKey()) {
+                    case "CASUAL_TICK_AVG_DELAY_MS" -> casualTick = Integer.parseInt(value);
+                    case "EPIDEMIOLOGIST_AVG_DELAY_MS" -> epidemiologist = Integer.parseInt(value);
+                    case "HUNGRY_BUM_AVG_DELAY_MS" -> hungryBum = Integer.parseInt(value);
+                    case "MATING_AVG_DELAY_MS" -> mating = Integer.parseInt(value);
+                    case "FAIRY_AVG_DELAY_MS" -> fairy = Integer.parseInt(value);
+                    case "MIN_SLEEP_INSIDE_TASK_MS" -> minSleep = Integer.parseInt(value);
+                    case "MAX_SLEEP_INSIDE_TASK_MS" -> maxSleep = Integer.parseInt(value);
+                    case "THREAD_DELAY_JITTER_PERCENT" -> jitter = Double.parseDouble(value);
+                    case "NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS" -> threadsPer10 = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException(entry.getKey() + " cannot be changed while the simulation runs.");
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + entry.getKey() + ": " + value);
+            }
+        }
+        return new WorkloadSettings(casualTick, epidemiologist, hungryBum, mating, fairy,
+                minSleep, maxSleep, jitter, threadsPer10);
+    }
+
+    public int avgDelayMs(ActorType type) {
+        return switch (type) {
+            case CASUAL_TICK -> casualTickAvgDelayMs;
+            case EPIDEMIOLOGIST -> epidemiologistAvgDelayMs;
+            case HUNGRY_BUM -> hungryBumAvgDelayMs;
+            case MATING -> matingAvgDelayMs;
+            case FAIRY -> fairyAvgDelayMs;
+        };
+    }
+
+    /**
+     * The actor's average delay with random jitter applied, drawn from {@link SimRandom#current()}.
+     */
+    public int nextDelayMs(ActorType type) {
+        int avgDelayMs = avgDelayMs(type);
+        int jitterRange = (int) (avgDelayMs * threadDelayJitterPercent);
+        return avgDelayMs + SimRandom.current().nextInt(-jitterRange, jitterRange + 1);
+    }
+
+    public int nextSleepInsideTaskMs() {
+        return SimRandom.current().nextInt(minSleepInsideTaskMs, maxSleepInsideTaskMs + 1);
+    }
+}
@@ -0,0 +1,140 @@
+package manager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Lets a checkpoint briefly hold off every operation that changes the colony, so hedgehogs and counters
+ * are captured between operations, never halfway through one. Operations enter the read side of a lock
+ * striped by thread, so they only share it with the few threads on the same stripe; a pause takes the
+ * write side of every stripe, in order. Reservations and releases are not gated, they change no counted state.
+ * Each stripe also keeps a sequence word, a seqlock shared by the stripe's operations: the low bits count
+ * operations in progress and the rest go up by one as each finishes. Readers of a few counters use it to
+ * read between operations, normally without holding anybody off. The read needs every stripe quiet at once,
+ * so when operations never leave such a gap, e.g. while a thread is descheduled halfway through one,
+ * it pauses the operations after all, see {@link #readConsistent(Supplier)}.
+ */
+class CheckpointGate {
+    private static final int IN_PROGRESS_BITS = 24;
+    private static final long IN_PROGRESS_MASK = (1L << IN_PROGRESS_BITS) - 1;
+    private static final long FINISHED = 1L << IN_PROGRESS_BITS;
+    private static final int OPTIMISTIC_READ_ATTEMPTS = 64;
+    private static final int QUIET_SPINS = 100;
+    private static final long OPTIMISTIC_READ_BACKOFF_NANOS = 10_000;
+    private static final long MAX_OPTIMISTIC_READ_BACKOFF_NANOS = 500_000;
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final AtomicLong pausedReadCount = new AtomicLong(0);
+
+    /**
+     * One stripe of the gate, entered by an operation until it calls {@link #unlock()}.
+     */
+    static class Stripe {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final AtomicLong sequence = new AtomicLong(0);
+
+        void unlock() {
+            sequence.addAndGet(FINISHED - 1);
+            lock.readLock().unlock();
+        }
+    }
+
+    CheckpointGate() {
+        // The smallest power of two giving every core at least two stripes.
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        mask = stripeCount - 1;
+    }
+
+    /**
+     * Enters the gate, waiting while a checkpoint pause is in progress. Reentrant.
+     * @return the stripe to unlock when the operation is done
+     */
+    Stripe enter() {
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & mask];
+        stripe.lock.readLock().lock();
+        stripe.sequence.incrementAndGet();
+        return stripe;
+    }
+
+    /**
+     * Waits for every operation in progress to finish and keeps new ones out until {@link #resume()}.
+     */
+    void pause() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+        }
+    }
+
+    void resume() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the read between operations: optimistically, retrying until no stripe had an operation in progress
+     * or finished one while it ran. Each stripe is checked on its own, waiting a moment for a busy one to go quiet,
+     * and failed attempts back off before retrying. Only if operations never leave a gap does it fall back
+     * to a pause, counted in {@link #getPausedReadCount()}.
+     * The read must only see state that changes inside gated operations, through volatile reads,
+     * and it must not be called from within a gated operation.
+     */
+    <T> T readConsistent(Supplier<T> read) {
+        long[] before = new long[stripes.length];
+        for (int attempt = 0; attempt < OPTIMISTIC_READ_ATTEMPTS; attempt++) {
+            if (awaitQuietSequences(before)) {
+                T value = read.get();
+                if (sequencesUnchanged(before)) {
+                    return value;
+                }
+            }
+            // Backs off ever longer, a reader is in no hurry while the operations it keeps meeting are.
+            LockSupport.parkNanos(Math.min((attempt + 1) * OPTIMISTIC_READ_BACKOFF_NANOS, MAX_OPTIMISTIC_READ_BACKOFF_NANOS));
+        }
+        pausedReadCount.incrementAndGet();
+        pause();
+        try {
+            return read.get();
+        } finally {
+            resume();
+        }
+    }
+
+    /**
+     * @return how many consistent reads had to fall back to a pause
+     */
+    long getPausedReadCount() {
+        return pausedReadCount.get();
+    }
+
+    // Records each stripe's sequence once no operation is in progress on it, spinning a moment on a busy stripe,
+    // as operations are short. False if one stayed busy.
+    private boolean awaitQuietSequences(long[] sequences) {
+        for (int i = 0; i < stripes.length; i++) {
+            int spins = 0;
+            while (((sequences[i] = stripes[i].sequence.get()) & IN_PROGRESS_MASK) != 0) {
+                if (++spins > QUIET_SPINS) {
+                    return false;
+                }
+                Thread.onSpinWait();
+            }
+        }
+        return true;
+    }
+
+    private boolean sequencesUnchanged(long[] sequences) {
+        for (int i = 0; i < stripes.length; i++) {
+            if (stripes[i].sequence.get() != sequences[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
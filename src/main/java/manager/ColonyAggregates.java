@@ -0,0 +1,142 @@
+package manager;
+
+import config.ConfigParameters;
+import model.Hedgehog;
+import model.Sex;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Colony-wide totals kept up to date on every mutation, so they can be read in O(1) without a scan.
+ * Updated by {@link DenManager} right after the backend applies a change, so a live reader may briefly
+ * see one change applied to the den but not yet here. Warrior levels above the last bucket share it.
+ */
+public class ColonyAggregates {
+    public static final int MAX_TRACKED_WARRIOR_LEVEL = 15;
+
+    private final AtomicLong totalTicks = new AtomicLong(0);
+    // Hedgehogs carrying at least MIN_TICKS_FOR_EPIDEMIOLOGIST ticks.
+    private final AtomicInteger infestedHedgehogCount = new AtomicInteger(0);
+    private final AtomicInteger maleCount = new AtomicInteger(0);
+    private final AtomicInteger femaleCount = new AtomicInteger(0);
+    // Index 0 is unused, as level 0 means not a seasoned warrior.
+    private final AtomicIntegerArray seasonedWarriorsByLevel = new AtomicIntegerArray(MAX_TRACKED_WARRIOR_LEVEL + 1);
+
+    void onBorn(Sex sex) {
+        (sex == Sex.FEMALE ? femaleCount : maleCount).incrementAndGet();
+        if (isInfested(0)) {
+            infestedHedgehogCount.incrementAndGet();
+        }
+    }
+
+    void onTickAdded(int newTickCount) {
+        totalTicks.incrementAndGet();
+        if (isInfested(newTickCount) && !isInfested(newTickCount - 1)) {
+            infestedHedgehogCount.incrementAndGet();
+        }
+    }
+
+    void onTicksRemoved(int ticksBefore) {
+        totalTicks.addAndGet(-ticksBefore);
+        if (isInfested(ticksBefore) && !isInfested(0)) {
+            infestedHedgehogCount.decrementAndGet();
+        }
+    }
+
+    void onWarriorLevelUp(int newLevel) {
+        if (newLevel > 1) {
+            seasonedWarriorsByLevel.decrementAndGet(bucket(newLevel - 1));
+        }
+        seasonedWarriorsByLevel.incrementAndGet(bucket(newLevel));
+    }
+
+    void onDied(Hedgehog hedgehog) {
+        totalTicks.addAndGet(-hedgehog.getTickCount());
+        if (isInfested(hedgehog.getTickCount())) {
+            infestedHedgehogCount.decrementAndGet();
+        }
+        (hedgehog.getSex() == Sex.FEMALE ? femaleCount : maleCount).decrementAndGet();
+        if (hedgehog.isSeasonedWarrior()) {
+            seasonedWarriorsByLevel.decrementAndGet(bucket(hedgehog.getSeasonedWarriorLevel()));
+        }
+    }
+
+    public long getTotalTicks() {
+        return totalTicks.get();
+    }
+
+    public int getInfestedHedgehogCount() {
+        return infestedHedgehogCount.get();
+    }
+
+    public int getMaleCount() {
+        return maleCount.get();
+    }
+
+    public int getFemaleCount() {
+        return femaleCount.get();
+    }
+
+    /**
+     * @return the number of living hedgehogs at this seasoned warrior level (the last level includes all above)
+     */
+    public int getSeasonedWarriorCount(int level) {
+        return seasonedWarriorsByLevel.get(bucket(level));
+    }
+
+    public int getSeasonedWarriorCount() {
+        int count = 0;
+        for (int level = 1; level <= MAX_TRACKED_WARRIOR_LEVEL; level++) {
+            count += seasonedWarriorsByLevel.get(level);
+        }
+        return count;
+    }
+
+    /**
+     * Compares against aggregates rebuilt from a full scan.
+     * @return a description of the first mismatch, or null if they agree
+     */
+    String findMismatch(ColonyAggregates scanned) {
+        if (getTotalTicks() != scanned.getTotalTicks()) {
+            return "total ticks " + getTotalTicks() + " vs scanned " + scanned.getTotalTicks();
+        }
+        if (getInfestedHedgehogCount() != scanned.getInfestedHedgehogCount()) {
+            return "infested hedgehogs " + getInfestedHedgehogCount() + " vs scanned " + scanned.getInfestedHedgehogCount();
+        }
+        if (getMaleCount() != scanned.getMaleCount() || getFemaleCount() != scanned.getFemaleCount()) {
+            return "sex counts " + getMaleCount() + "/" + getFemaleCount()
+                    + " vs scanned " + scanned.getMaleCount() + "/" + scanned.getFemaleCount();
+        }
+        for (int level = 1; level <= MAX_TRACKED_WARRIOR_LEVEL; level++) {
+            if (getSeasonedWarriorCount(level) != scanned.getSeasonedWarriorCount(level)) {
+                return "seasoned warriors at level " + level + ": " + getSeasonedWarriorCount(level)
+                        + " vs scanned " + scanned.getSeasonedWarriorCount(level);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds one hedgehog's full state, used to rebuild aggregates from a scan.
+     */
+    void include(Hedgehog hedgehog) {
+        (hedgehog.getSex() == Sex.FEMALE ? femaleCount : maleCount).incrementAndGet();
+        totalTicks.addAndGet(hedgehog.getTickCount());
+        if (isInfested(hedgehog.getTickCount())) {
+            infestedHedgehogCount.incrementAndGet();
+        }
+        if (hedgehog.isSeasonedWarrior()) {
+            seasonedWarriorsByLevel.incrementAndGet(bucket(hedgehog.getSeasonedWarriorLevel()));
+        }
+    }
+
+    private static boolean isInfested(int tickCount) {
+        return tickCount >= ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST;
+    }
+
+    private static int bucket(int level) {
+        return Math.min(level, MAX_TRACKED_WARRIOR_LEVEL);
+    }
+}
@@ -0,0 +1,232 @@
+package manager;
+
+import config.HedgehogNameManager;
+import model.Hedgehog;
+import model.Sex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Everything needed to bring a colony back: every hedgehog, the counters, the id sequence and the
+ * name generator state, captured while {@link CheckpointGate} holds off changes.
+ * Stored as a header followed by one primitive column per hedgehog attribute and a CRC32 trailer.
+ * Files of at least a given size are written and read through memory mapping, smaller ones with plain
+ * buffered I/O. A checkpoint is written to a temporary file first, so a failed write never destroys the previous one.
+ * Reservations are not saved, every hedgehog comes back free.
+ */
+class ColonyCheckpoint {
+    private static final long MAGIC = 0x4847434B50543031L; // "HGCKPT01"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = Long.BYTES + 3 * Integer.BYTES + 6 * Long.BYTES + 12 * Long.BYTES;
+    private static final int BYTES_PER_HEDGEHOG = Integer.BYTES + Long.BYTES + 1 + 3 * Integer.BYTES;
+    private static final Sex[] SEXES = Sex.values();
+
+    private final int nextHedgehogId;
+    private final HedgehogNameManager.State nameState;
+    private final StatsSnapshot stats;
+    private int size = 0;
+    private int[] ids;
+    private long[] nameCodes;
+    private byte[] sexes;
+    private int[] tickCounts;
+    private int[] offspringCounts;
+    private int[] warriorLevels;
+
+    ColonyCheckpoint(int expectedSize, int nextHedgehogId, HedgehogNameManager.State nameState, StatsSnapshot stats) {
+        this.nextHedgehogId = nextHedgehogId;
+        this.nameState = nameState;
+        this.stats = stats;
+        int capacity = Math.max(expectedSize, 1);
+        ids = new int[capacity];
+        nameCodes = new long[capacity];
+        sexes = new byte[capacity];
+        tickCounts = new int[capacity];
+        offspringCounts = new int[capacity];
+        warriorLevels = new int[capacity];
+    }
+
+    void add(Hedgehog hedgehog) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = hedgehog.getId();
+        nameCodes[size] = hedgehog.getNameCode();
+        sexes[size] = (byte) hedgehog.getSex().ordinal();
+        tickCounts[size] = hedgehog.getTickCount();
+        offspringCounts[size] = hedgehog.getOffspringCount();
+        warriorLevels[size] = hedgehog.getSeasonedWarriorLevel();
+        size++;
+    }
+
+    void forEachHedgehog(Consumer<Hedgehog> visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.accept(new Hedgehog(ids[i], nameCodes[i], SEXES[sexes[i]],
+                    tickCounts[i], offspringCounts[i], warriorLevels[i]));
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getNextHedgehogId() {
+        return nextHedgehogId;
+    }
+
+    HedgehogNameManager.State getNameState() {
+        return nameState;
+    }
+
+    StatsSnapshot getStats() {
+        return stats;
+    }
+
+    long byteSize() {
+        return HEADER_BYTES + (long) size * BYTES_PER_HEDGEHOG + Long.BYTES;
+    }
+
+    /**
+     * @return true if the file was written through memory mapping
+     */
+    boolean write(Path file, long memoryMappingThresholdBytes) throws IOException {
+        long byteSize = byteSize();
+        if (byteSize > Integer.MAX_VALUE) {
+            throw new IOException("Checkpoint of " + size + " hedgehogs exceeds the supported file size.");
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = parent.resolve(file.getFileName() + ".tmp");
+        boolean memoryMapped = byteSize >= memoryMappingThresholdBytes;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (memoryMapped) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, byteSize);
+                writeTo(buffer);
+                buffer.force();
+            } else {
+                ByteBuffer buffer = ByteBuffer.allocate((int) byteSize);
+                writeTo(buffer);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return memoryMapped;
+    }
+
+    static ColonyCheckpoint read(Path file, long memoryMappingThresholdBytes) throws IOException {
+        long byteSize = Files.size(file);
+        if (byteSize < HEADER_BYTES + Long.BYTES || byteSize > Integer.MAX_VALUE) {
+            throw new IOException("Not a colony checkpoint: " + file);
+        }
+        ByteBuffer buffer;
+        if (byteSize >= memoryMappingThresholdBytes) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, byteSize);
+            }
+        } else {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        }
+        return readFrom(buffer, file);
+    }
+
+    private void writeTo(ByteBuffer buffer) {
+        buffer.putLong(MAGIC).putInt(FORMAT_VERSION).putInt(size).putInt(nextHedgehogId);
+        buffer.putLong(nameState.maleIssued()).putLong(nameState.maleStep()).putLong(nameState.maleOffset())
+                .putLong(nameState.femaleIssued()).putLong(nameState.femaleStep()).putLong(nameState.femaleOffset());
+        buffer.putLong(stats.lockContentionCount()).putLong(stats.conditionWaitCount())
+                .putLong(stats.ticksAddedCount()).putLong(stats.ticksRemovedCount())
+                .putLong(stats.hedgehogsBorn()).putLong(stats.hedgehogsDied())
+                .putLong(stats.maleBornCount()).putLong(stats.femaleBornCount())
+                .putLong(stats.hedgehogsWentToWar()).putLong(stats.hedgehogsDiedInWar())
+                .putLong(stats.hedgehogsWarriorLevelUps()).putLong(stats.reservationTimeoutCount());
+
+        buffer.asIntBuffer().put(ids, 0, size);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asLongBuffer().put(nameCodes, 0, size);
+        buffer.position(buffer.position() + size * Long.BYTES);
+        buffer.put(sexes, 0, size);
+        for (int[] column : new int[][]{tickCounts, offspringCounts, warriorLevels}) {
+            buffer.asIntBuffer().put(column, 0, size);
+            buffer.position(buffer.position() + size * Integer.BYTES);
+        }
+        buffer.putLong(checksum(buffer, buffer.position()));
+    }
+
+    private static ColonyCheckpoint readFrom(ByteBuffer buffer, Path file) throws IOException {
+        if (buffer.getLong() != MAGIC) {
+            throw new IOException("Not a colony checkpoint: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported checkpoint format version " + version + " in " + file);
+        }
+        int size = buffer.getInt();
+        if (size < 0 || HEADER_BYTES + (long) size * BYTES_PER_HEDGEHOG + Long.BYTES != buffer.capacity()) {
+            throw new IOException("Checkpoint " + file + " is truncated or corrupt.");
+        }
+        long storedChecksum = buffer.getLong(buffer.capacity() - Long.BYTES);
+        if (checksum(buffer, buffer.capacity() - Long.BYTES) != storedChecksum) {
+            throw new IOException("Checkpoint " + file + " fails its checksum.");
+        }
+
+        int nextHedgehogId = buffer.getInt();
+        HedgehogNameManager.State nameState = new HedgehogNameManager.State(
+                buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                buffer.getLong(), buffer.getLong(), buffer.getLong());
+        StatsSnapshot stats = new StatsSnapshot(buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+
+        ColonyCheckpoint checkpoint = new ColonyCheckpoint(size, nextHedgehogId, nameState, stats);
+        buffer.asIntBuffer().get(checkpoint.ids, 0, size);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asLongBuffer().get(checkpoint.nameCodes, 0, size);
+        buffer.position(buffer.position() + size * Long.BYTES);
+        buffer.get(checkpoint.sexes, 0, size);
+        for (int[] column : new int[][]{checkpoint.tickCounts, checkpoint.offspringCounts, checkpoint.warriorLevels}) {
+            buffer.asIntBuffer().get(column, 0, size);
+            buffer.position(buffer.position() + size * Integer.BYTES);
+        }
+        checkpoint.size = size;
+        for (int i = 0; i < size; i++) {
+            if (checkpoint.ids[i] < 1 || checkpoint.ids[i] >= nextHedgehogId
+                    || checkpoint.sexes[i] < 0 || checkpoint.sexes[i] >= SEXES.length) {
+                throw new IOException("Checkpoint " + file + " holds an invalid hedgehog " + checkpoint.ids[i] + ".");
+            }
+        }
+        return checkpoint;
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(length));
+        return crc.getValue();
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        sexes = Arrays.copyOf(sexes, capacity);
+        tickCounts = Arrays.copyOf(tickCounts, capacity);
+        offspringCounts = Arrays.copyOf(offspringCounts, capacity);
+        warriorLevels = Arrays.copyOf(warriorLevels, capacity);
+    }
+}
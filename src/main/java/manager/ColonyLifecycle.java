@@ -0,0 +1,98 @@
+package manager;
+
+import model.Hedgehog;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Lifecycle events of a colony, published by {@link DenManager} as the population changes instead of polled for.
+ * The population is counted here in one atomic step per birth and death, so every crossing of a threshold
+ * is seen exactly once, by the thread whose change made it. Listeners run on that thread, right after the
+ * hedgehog was added to or removed from the den, so they must be quick and must not block.
+ */
+public class ColonyLifecycle {
+    private final AtomicInteger population = new AtomicInteger(0);
+    private final CompletableFuture<Void> extinction = new CompletableFuture<>();
+    private final CopyOnWriteArrayList<ThresholdWatch> watches = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<Consumer<Hedgehog>> birthWatches = new CopyOnWriteArrayList<>();
+
+    /**
+     * Told when the population reaches a threshold from below, or falls below it again.
+     */
+    @FunctionalInterface
+    public interface PopulationListener {
+        void crossed(int threshold, boolean rising, int population);
+    }
+
+    private record ThresholdWatch(int threshold, PopulationListener listener) {
+    }
+
+    /**
+     * @return a future completed once no hedgehog is left, at once if none is left already
+     */
+    public CompletableFuture<Void> extinction() {
+        if (population.get() == 0) {
+            extinction.complete(null);
+        }
+        // A copy, so callers cannot complete the colony's own future.
+        return extinction.copy();
+    }
+
+    /**
+     * Registers a listener for the population reaching the threshold or falling below it.
+     * @param threshold at least 1
+     */
+    public void watchPopulation(int threshold, PopulationListener listener) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Population threshold must be at least 1.");
+        }
+        watches.add(new ThresholdWatch(threshold, listener));
+    }
+
+    /**
+     * Registers a listener told of every hedgehog added to the den, born or restored, with a copy of it.
+     */
+    public void watchBirths(Consumer<Hedgehog> listener) {
+        birthWatches.add(listener);
+    }
+
+    public int getPopulation() {
+        return population.get();
+    }
+
+    public boolean isExtinct() {
+        return population.get() == 0;
+    }
+
+    void onBorn(Hedgehog hedgehog) {
+        int after = population.incrementAndGet();
+        notifyWatches(after, true, after);
+        if (!birthWatches.isEmpty()) {
+            // A copy, as the den's own hedgehog may be reserved by now; it shows the hedgehog as added or moments later.
+            Hedgehog newborn = hedgehog.copy();
+            for (Consumer<Hedgehog> listener : birthWatches) {
+                listener.accept(newborn);
+            }
+        }
+    }
+
+    void onDied() {
+        int after = population.decrementAndGet();
+        if (after == 0) {
+            extinction.complete(null);
+        }
+        notifyWatches(after + 1, false, after);
+    }
+
+    // A change of one crosses at most the thresholds equal to the larger of the two counts.
+    private void notifyWatches(int threshold, boolean rising, int after) {
+        for (ThresholdWatch watch : watches) {
+            if (watch.threshold() == threshold) {
+                watch.listener().crossed(threshold, rising, after);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package manager;
+
+/**
+ * Colony-level state as of one instant between den operations, see {@link DenManager#readColonySnapshot()}.
+ * Lock clashes, condition waits and reservation timeouts are counted outside den operations, so they are
+ * only as of roughly the same instant.
+ */
+public record ColonySnapshot(
+        StatsSnapshot stats,
+        int maleCount,
+        int femaleCount,
+        long totalTicks,
+        int infestedHedgehogCount,
+        int seasonedWarriorCount) {
+
+    public int population() {
+        return maleCount + femaleCount;
+    }
+}
@@ -0,0 +1,120 @@
+package manager;
+
+import model.Hedgehog;
+
+import java.util.function.Consumer;
+
+/**
+ * Storage and reservation engine behind {@link DenManager}.
+ * Owns the population and the reserved/free state of every hedgehog; the manager keeps the rules,
+ * counters and narrative around it. Tickets are hedgehog ids.
+ * All changes to a reserved hedgehog go through the backend, as it may keep hedgehogs in shared arrays.
+ */
+interface DenBackend {
+
+    void addHedgehog(Hedgehog hedgehog);
+
+    /**
+     * Reserves a free hedgehog of the given category, blocking while none is free.
+     * @return the reserved ticket
+     */
+    int reserve(ReservationCategory category) throws InterruptedException;
+
+    /**
+     * Reserves a free hedgehog of the given category without blocking.
+     * @return the reserved ticket, or -1 if none is free
+     */
+    int tryReserve(ReservationCategory category);
+
+    /**
+     * Reserves a free hedgehog of the given category, blocking at most timeoutNanos while none is free.
+     * @return the reserved ticket, or -1 if none came free in time
+     */
+    int reserve(ReservationCategory category, long timeoutNanos) throws InterruptedException;
+
+    void release(int ticket);
+
+    /**
+     * Removes a reserved hedgehog from the population.
+     * @return the removed hedgehog
+     */
+    Hedgehog remove(int ticket);
+
+    /**
+     * Looks up a hedgehog and checks that it is currently reserved.
+     * The result is for reading only and may be a detached copy.
+     */
+    Hedgehog getReservedHedgehog(int ticket, String context);
+
+    /**
+     * @return the hedgehog's tick count after the new tick
+     */
+    int addTick(int ticket);
+
+    /**
+     * @return the reserved hedgehog as it was before its ticks were removed
+     */
+    Hedgehog removeAllTicks(int ticket);
+
+    void incrementOffspringCount(int ticket);
+
+    /**
+     * @return the hedgehog's seasoned warrior level after the increment
+     */
+    int incrementSeasonedWarriorLevel(int ticket);
+
+    /**
+     * Reserves between one and maxCount free hedgehogs of the given category, blocking while none is free.
+     * Takes whatever is free at once rather than waiting to fill the batch.
+     * @return the reserved tickets
+     */
+    int[] reserveBatch(ReservationCategory category, int maxCount) throws InterruptedException;
+
+    /**
+     * Deadline-bounded counterpart of {@link #reserveBatch(ReservationCategory, int)}.
+     * @return the reserved tickets, empty if none came free in time
+     */
+    int[] reserveBatch(ReservationCategory category, int maxCount, long timeoutNanos) throws InterruptedException;
+
+    /**
+     * Releases all tickets, waking waiters once per batch rather than once per hedgehog.
+     */
+    void releaseBatch(int[] tickets);
+
+    /**
+     * @return the removed hedgehogs, in ticket order
+     */
+    Hedgehog[] removeBatch(int[] tickets);
+
+    /**
+     * @return each hedgehog's tick count after the new tick, in ticket order
+     */
+    int[] addTicks(int[] tickets);
+
+    /**
+     * @return the reserved hedgehogs as they were before their ticks were removed, in ticket order
+     */
+    Hedgehog[] removeAllTicks(int[] tickets);
+
+    /**
+     * Takes no lock and sees every add and remove that has returned, so a consistent read may include it.
+     */
+    int getHedgehogCount();
+
+    long getTotalTicks();
+
+    /**
+     * Visits a read-only copy of every hedgehog. Meant for debugging and verification, not hot paths:
+     * shards are visited one at a time, so the result is only a consistent whole while the den is quiet.
+     */
+    void forEachHedgehog(Consumer<Hedgehog> visitor);
+
+    /**
+     * Checks the reserved/free bookkeeping of the hedgehogs at positions from up to about from + maxCount,
+     * holding no lock beyond that slice, so a whole den is covered by calls picking up where the last left off.
+     * Positions are the backend's own, starting at 0. Safe while actors run: only states that no
+     * operation passes through are reported.
+     * @return the position to continue from, 0 once the whole den has been covered
+     */
+    int checkReservations(int from, int maxCount, Consumer<String> violations);
+}
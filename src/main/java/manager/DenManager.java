@@ -1,298 +1,442 @@
 package manager;
 
+import config.ColonyParameters;
 import config.ConfigParameters;
 import config.HedgehogNameManager;
+import config.SimRandom;
 import lombok.Getter;
 import model.Hedgehog;
 import model.Sex;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Central manager for all hedgehogs in the simulation.
  * Handles creation, reservation, release, reproduction, death, and war events.
- * Implements thread-safe resource management using a ReentrantLock and condition variables.
+ * Storage and reservation are delegated to the backend selected by {@link ConfigParameters#DEN_BACKEND}:
+ * ReentrantLock-guarded shards with condition variables, or per-hedgehog CAS state words.
+ * Story lines (births, deaths, war outcomes) go through an asynchronous {@link NarrativeLog}.
+ * Lock latencies of every public operation are recorded in {@link #getLockProfile()}.
+ * Birth and war probabilities come from the manager's own {@link ColonyParameters}.
+ * The colony can be saved to and restored from a binary checkpoint, see {@link #writeCheckpoint(Path)}.
+ * Every change can also be recorded in an {@link EventJournal}, see {@link #openEventJournal(Path)}.
+ * Extinction and population thresholds are published through {@link #getLifecycle()}.
+ * Parents of every birth are kept in a {@link Genealogy}, see {@link #getGenealogy()}.
+ * Invariants can be checked while actors run, see {@link #checkInvariants(int, int)}.
+ * Monitoring reads consistent colony totals without holding actors off, see {@link #readColonySnapshot()}.
  * Singleton design pattern is used to ensure a single shared manager instance.
- * NB! Hedgehog list (map) access and operations are locked,
- * individual hedgehog access is assumed to be safe after reservation,
+ * NB! Population access and operations are guarded by the backend,
+ * a reserved hedgehog is only ever changed by its holder,
  * which matches the story in the task requirements.
  */
 public class DenManager {
-    private final Map<Integer, Hedgehog> hedgehogs = new HashMap<>();
-    private final Set<Hedgehog> reservedHedgehogs = new HashSet<>();
-    private final List<Integer> randomizableHedgehogIds = new ArrayList<>();
-    private int nextHedgehogId = 1;
-    private int currentMaleHedgehogCount = 0;
-    private int currentFemaleHedgehogCount = 0;
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition anyHedgehogAvailable = lock.newCondition();
-    private final Condition hedgehogExceedsTickThreshold = lock.newCondition();
-    private final Condition femaleHedgehogAvailable = lock.newCondition();
-    private final Condition maleHedgehogAvailable = lock.newCondition();
+    private final DenBackend backend;
+    private final AtomicInteger nextHedgehogId = new AtomicInteger(1);
+    @Getter
+    private final ColonyParameters parameters;
     @Getter
     private final SimulationStats stats = new SimulationStats();
+    @Getter
+    private final ColonyAggregates aggregates = new ColonyAggregates();
+    @Getter
+    private final LockProfile lockProfile = new LockProfile(ConfigParameters.ENABLE_LOCK_PROFILING);
+    @Getter
+    private final NarrativeLog narrativeLog;
+    @Getter
+    private final ColonyLifecycle lifecycle = new ColonyLifecycle();
+    @Getter
+    private final Genealogy genealogy = new Genealogy();
     private final HedgehogNameManager nameManager = new HedgehogNameManager();
+    private final CheckpointGate checkpointGate = new CheckpointGate();
+    // Replaced once before the simulation starts, so actor threads see the open journal.
+    private EventJournal journal = EventJournal.disabled();
     private static final Logger logger = LogManager.getLogger(DenManager.class);
 
-    private DenManager() {
+    private DenManager(ColonyParameters parameters, boolean narrated) {
+        this.parameters = parameters;
+        this.narrativeLog = new NarrativeLog(!narrated, ConfigParameters.ENABLE_ASYNC_NARRATIVE_LOG);
+        backend = switch (ConfigParameters.DEN_BACKEND) {
+            case LOCKED -> new ShardedDenBackend(ConfigParameters.DEN_SHARD_COUNT, stats, lockProfile);
+            case LOCK_FREE -> new LockFreeDenBackend(stats, lockProfile);
+        };
     }
 
     private static class Holder {
-        private static final DenManager INSTANCE = new DenManager();
+        private static final DenManager INSTANCE = new DenManager(ColonyParameters.defaults(), true);
     }
 
     public static DenManager getInstance() {
         return Holder.INSTANCE;
     }
 
+    /**
+     * Creates a fresh manager that shares nothing with the singleton, e.g. one per benchmark trial.
+     * Thread classes always work on {@link #getInstance()}, so this is only for callers driving a den directly.
+     */
+    public static DenManager newIsolatedInstance() {
+        return new DenManager(ColonyParameters.defaults(), true);
+    }
+
+    /**
+     * Isolated manager with its own parameters, e.g. one colony of a parameter sweep.
+     * @param narrated false to drop the colony's story lines instead of logging them
+     */
+    public static DenManager newIsolatedInstance(ColonyParameters parameters, boolean narrated) {
+        return new DenManager(parameters, narrated);
+    }
+
     public void createHedgehog() {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
-        }
+        createHedgehog(0, 0);
+    }
 
+    /**
+     * @param motherId 0, together with fatherId, for a founder
+     */
+    private void createHedgehog(int motherId, int fatherId) {
+        DenOperation outer = lockProfile.begin(DenOperation.CREATE);
+        CheckpointGate.Stripe gate = checkpointGate.enter();
         try {
-            Sex sex = ThreadLocalRandom.current().nextDouble() < ConfigParameters.FEMALE_BORN_PROBABILITY
+            Sex sex = SimRandom.current().nextDouble() < parameters.femaleBornProbability()
                     ? Sex.FEMALE : Sex.MALE;
-            String name = nameManager.getNextName(sex);
-            Hedgehog hedgehog = new Hedgehog(nextHedgehogId++, name, sex);
-            hedgehogs.put(hedgehog.getId(), hedgehog);
-            randomizableHedgehogIds.add(hedgehog.getId());
-            stats.incrementHedgehogsBorn();
+            long nameCode = nameManager.getNextNameCode(sex);
+            Hedgehog hedgehog = new Hedgehog(nextHedgehogId.getAndIncrement(), nameCode, sex);
 
+            // Counters go up before the hedgehog becomes visible, so they never lag behind the backend.
+            stats.incrementHedgehogsBorn();
             if (sex == Sex.FEMALE) {
-                currentFemaleHedgehogCount++;
                 stats.incrementFemaleBornCount();
-                femaleHedgehogAvailable.signal();
             } else {
-                currentMaleHedgehogCount++;
                 stats.incrementMaleBornCount();
-                maleHedgehogAvailable.signal();
             }
-            anyHedgehogAvailable.signal();
+            aggregates.onBorn(sex);
+            journal.born(hedgehog);
+            if (motherId == 0) {
+                genealogy.onBorn(hedgehog.getId());
+            } else {
+                genealogy.onBorn(hedgehog.getId(), motherId, fatherId);
+            }
+            backend.addHedgehog(hedgehog);
+            lifecycle.onBorn(hedgehog);
         } finally {
-            lock.unlock();
+            gate.unlock();
+            lockProfile.end(outer);
         }
     }
 
     public int reserveAnyHedgehog() throws InterruptedException {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
-        }
+        return reserve(DenOperation.RESERVE_ANY, ReservationCategory.ANY);
+    }
 
-        try {
-            while (hedgehogs.size() == reservedHedgehogs.size()) {
-                stats.incrementConditionWait();
-                anyHedgehogAvailable.await();
-            }
-            while (true) {
-                int candidateId = randomizableHedgehogIds.get(ThreadLocalRandom.current().nextInt(randomizableHedgehogIds.size()));
-                Hedgehog hedgehog = hedgehogs.get(candidateId);
-                if (reservedHedgehogs.add(hedgehog)) {
-                    return candidateId;
-                }
-            }
-        } finally {
-            lock.unlock();
+    public int reserveHedgehogAboveTickThreshold() throws InterruptedException {
+        return reserve(DenOperation.RESERVE_ABOVE_TICK_THRESHOLD, ReservationCategory.ABOVE_TICK_THRESHOLD);
+    }
+
+    public int reserveFemaleHedgehogIfAny() throws InterruptedException {
+        if (aggregates.getFemaleCount() == 0) {
+            return -1;
         }
+        return reserve(DenOperation.RESERVE_FEMALE, ReservationCategory.FEMALE);
     }
 
-    public int reserveHedgehogAboveTickThreshold() throws InterruptedException {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
+    public int reserveMaleHedgehogIfAny() throws InterruptedException {
+        if (aggregates.getMaleCount() == 0) {
+            return -1;
         }
+        return reserve(DenOperation.RESERVE_MALE, ReservationCategory.MALE);
+    }
 
+    public int reserveHedgehogForFairy() throws InterruptedException {
+        return reserve(DenOperation.RESERVE_FOR_FAIRY, ReservationCategory.FAIRY);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #reserveAnyHedgehog()}.
+     */
+    public Reservation tryReserveAnyHedgehog() {
+        return tryReserve(ReservationCategory.ANY);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #reserveHedgehogAboveTickThreshold()}.
+     */
+    public Reservation tryReserveHedgehogAboveTickThreshold() {
+        return tryReserve(ReservationCategory.ABOVE_TICK_THRESHOLD);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #reserveFemaleHedgehogIfAny()}.
+     */
+    public Reservation tryReserveFemaleHedgehog() {
+        return tryReserve(ReservationCategory.FEMALE);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #reserveMaleHedgehogIfAny()}.
+     */
+    public Reservation tryReserveMaleHedgehog() {
+        return tryReserve(ReservationCategory.MALE);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #reserveHedgehogForFairy()}.
+     */
+    public Reservation tryReserveHedgehogForFairy() {
+        return tryReserve(ReservationCategory.FAIRY);
+    }
+
+    /**
+     * Counterpart of {@link #reserveAnyHedgehog()} that gives up once the timeout elapses.
+     */
+    public Reservation tryReserveAnyHedgehog(long timeout, TimeUnit unit) throws InterruptedException {
+        return tryReserve(DenOperation.RESERVE_ANY, ReservationCategory.ANY, unit.toNanos(timeout));
+    }
+
+    /**
+     * Counterpart of {@link #reserveHedgehogAboveTickThreshold()} that gives up once the timeout elapses.
+     */
+    public Reservation tryReserveHedgehogAboveTickThreshold(long timeout, TimeUnit unit) throws InterruptedException {
+        return tryReserve(DenOperation.RESERVE_ABOVE_TICK_THRESHOLD, ReservationCategory.ABOVE_TICK_THRESHOLD,
+                unit.toNanos(timeout));
+    }
+
+    /**
+     * Counterpart of {@link #reserveFemaleHedgehogIfAny()} that gives up once the timeout elapses.
+     */
+    public Reservation tryReserveFemaleHedgehog(long timeout, TimeUnit unit) throws InterruptedException {
+        return tryReserve(DenOperation.RESERVE_FEMALE, ReservationCategory.FEMALE, unit.toNanos(timeout));
+    }
+
+    /**
+     * Counterpart of {@link #reserveMaleHedgehogIfAny()} that gives up once the timeout elapses,
+     * also when the last male dies in the meantime.
+     */
+    public Reservation tryReserveMaleHedgehog(long timeout, TimeUnit unit) throws InterruptedException {
+        return tryReserve(DenOperation.RESERVE_MALE, ReservationCategory.MALE, unit.toNanos(timeout));
+    }
+
+    /**
+     * Counterpart of {@link #reserveHedgehogForFairy()} that gives up once the timeout elapses.
+     */
+    public Reservation tryReserveHedgehogForFairy(long timeout, TimeUnit unit) throws InterruptedException {
+        return tryReserve(DenOperation.RESERVE_FOR_FAIRY, ReservationCategory.FAIRY, unit.toNanos(timeout));
+    }
+
+    private int reserve(DenOperation operation, ReservationCategory category) throws InterruptedException {
+        DenOperation outer = lockProfile.begin(operation);
         try {
-            while (true) {
-                Collections.shuffle(randomizableHedgehogIds);
-
-                for (int candidateId : randomizableHedgehogIds) {
-                    Hedgehog hedgehog = hedgehogs.get(candidateId);
-                    if (!isReserved(hedgehog)
-                            && hedgehog.getTickCount() >= ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST) {
-                        reservedHedgehogs.add(hedgehog);
-                        return candidateId;
-                    }
-                }
-                stats.incrementConditionWait();
-                hedgehogExceedsTickThreshold.await();
-            }
+            return backend.reserve(category);
         } finally {
-            lock.unlock();
+            lockProfile.end(outer);
         }
     }
 
-    public int reserveFemaleHedgehogIfAny() throws InterruptedException {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
+    private Reservation tryReserve(ReservationCategory category) {
+        if (noneAlive(category)) {
+            return Reservation.noneAlive();
         }
-
+        DenOperation outer = lockProfile.begin(DenOperation.TRY_RESERVE);
         try {
-            if (currentFemaleHedgehogCount == 0) {
-                return -1;
-            }
-            while (true) {
-                Collections.shuffle(randomizableHedgehogIds);
-                for (int candidateId : randomizableHedgehogIds) {
-                    Hedgehog hedgehog = hedgehogs.get(candidateId);
-                    if (!isReserved(hedgehog) && hedgehog.getSex() == Sex.FEMALE) {
-                        reservedHedgehogs.add(hedgehog);
-                        return candidateId;
-                    }
-                }
-                stats.incrementConditionWait();
-                femaleHedgehogAvailable.await();
-            }
+            int ticket = backend.tryReserve(category);
+            return ticket != -1 ? Reservation.reserved(ticket) : Reservation.noneFree();
         } finally {
-            lock.unlock();
+            lockProfile.end(outer);
         }
     }
 
-    public int reserveMaleHedgehogIfAny() throws InterruptedException {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
+    private Reservation tryReserve(DenOperation operation, ReservationCategory category, long timeoutNanos)
+            throws InterruptedException {
+        if (noneAlive(category)) {
+            return Reservation.noneAlive();
         }
-
+        DenOperation outer = lockProfile.begin(operation);
         try {
-            if (currentMaleHedgehogCount == 0) {
-                return -1;
-            }
-            while (true) {
-                Collections.shuffle(randomizableHedgehogIds);
-                for (int candidateId : randomizableHedgehogIds) {
-                    Hedgehog hedgehog = hedgehogs.get(candidateId);
-                    if (!isReserved(hedgehog) && hedgehog.getSex() == Sex.MALE) {
-                        reservedHedgehogs.add(hedgehog);
-                        return candidateId;
-                    }
-                }
-                stats.incrementConditionWait();
-                maleHedgehogAvailable.await();
+            int ticket = backend.reserve(category, timeoutNanos);
+            if (ticket != -1) {
+                return Reservation.reserved(ticket);
             }
+            stats.incrementReservationTimeouts();
+            return Reservation.timedOut();
         } finally {
-            lock.unlock();
+            lockProfile.end(outer);
         }
     }
 
-    public int reserveHedgehogForFairy() throws InterruptedException {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
-        }
+    // Judged by the aggregates, which count a newborn before it can be reserved.
+    private boolean noneAlive(ReservationCategory category) {
+        return switch (category) {
+            case ANY, FAIRY -> aggregates.getMaleCount() + aggregates.getFemaleCount() == 0;
+            case FEMALE -> aggregates.getFemaleCount() == 0;
+            case MALE -> aggregates.getMaleCount() == 0;
+            case ABOVE_TICK_THRESHOLD -> aggregates.getInfestedHedgehogCount() == 0;
+        };
+    }
 
-        try {
-            while (true) {
-                Collections.shuffle(randomizableHedgehogIds);
-
-                // Try to reserve a seasoned warrior
-                for (int candidateId : randomizableHedgehogIds) {
-                    Hedgehog hedgehog = hedgehogs.get(candidateId);
-                    if (!isReserved(hedgehog) && hedgehog.isSeasonedWarrior()) {
-                        reservedHedgehogs.add(hedgehog);
-                        return candidateId;
-                    }
-                }
+    /**
+     * Reserves between one and maxCount hedgehogs in one go, blocking until at least one is free.
+     * @return the reserved tickets
+     */
+    public int[] reserveHedgehogs(int maxCount) throws InterruptedException {
+        return reserveBatch(ReservationCategory.ANY, maxCount);
+    }
 
-                // Try to reserve a male
-                for (int candidateId : randomizableHedgehogIds) {
-                    Hedgehog hedgehog = hedgehogs.get(candidateId);
-                    if (!isReserved(hedgehog) && hedgehog.getSex() == Sex.MALE) {
-                        reservedHedgehogs.add(hedgehog);
-                        return candidateId;
-                    }
-                }
+    /**
+     * Batch counterpart of {@link #reserveHedgehogAboveTickThreshold()}.
+     * @return the reserved tickets
+     */
+    public int[] reserveHedgehogsAboveTickThreshold(int maxCount) throws InterruptedException {
+        return reserveBatch(ReservationCategory.ABOVE_TICK_THRESHOLD, maxCount);
+    }
 
-                // Reserve any unreserved hedgehog
-                for (int candidateId : randomizableHedgehogIds) {
-                    Hedgehog hedgehog = hedgehogs.get(candidateId);
-                    if (!isReserved(hedgehog)) {
-                        reservedHedgehogs.add(hedgehog);
-                        return candidateId;
-                    }
-                }
+    /**
+     * Counterpart of {@link #reserveHedgehogs(int)} that gives up once the timeout elapses.
+     * @return the reserved tickets, empty if none came free in time
+     */
+    public int[] tryReserveHedgehogs(int maxCount, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryReserveBatch(ReservationCategory.ANY, maxCount, unit.toNanos(timeout));
+    }
 
-                stats.incrementConditionWait();
-                anyHedgehogAvailable.await();
-            }
+    /**
+     * Counterpart of {@link #reserveHedgehogsAboveTickThreshold(int)} that gives up once the timeout elapses.
+     * @return the reserved tickets, empty if none came free in time
+     */
+    public int[] tryReserveHedgehogsAboveTickThreshold(int maxCount, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryReserveBatch(ReservationCategory.ABOVE_TICK_THRESHOLD, maxCount, unit.toNanos(timeout));
+    }
+
+    private int[] reserveBatch(ReservationCategory category, int maxCount) throws InterruptedException {
+        if (maxCount < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+        DenOperation outer = lockProfile.begin(DenOperation.RESERVE_BATCH);
+        try {
+            return backend.reserveBatch(category, maxCount);
         } finally {
-            lock.unlock();
+            lockProfile.end(outer);
         }
     }
 
-    public void releaseHedgehog(int ticket) {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
+    private int[] tryReserveBatch(ReservationCategory category, int maxCount, long timeoutNanos) throws InterruptedException {
+        if (maxCount < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
         }
-
+        DenOperation outer = lockProfile.begin(DenOperation.RESERVE_BATCH);
         try {
-            Hedgehog hedgehog = safelyGetHedgehog(ticket);
-            validateReservedHedgehog(hedgehog, "release");
-            reservedHedgehogs.remove(hedgehog);
-
-            if (hedgehog.getSex() == Sex.FEMALE) {
-                femaleHedgehogAvailable.signal();
-            } else {
-                maleHedgehogAvailable.signal();
+            int[] tickets = backend.reserveBatch(category, maxCount, timeoutNanos);
+            if (tickets.length == 0) {
+                stats.incrementReservationTimeouts();
             }
+            return tickets;
+        } finally {
+            lockProfile.end(outer);
+        }
+    }
 
-            if (hedgehog.getTickCount() >= ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST) {
-                hedgehogExceedsTickThreshold.signal();
-            }
+    /**
+     * Releases all tickets, waking waiting reservers once per batch.
+     */
+    public void releaseHedgehogs(int[] tickets) {
+        DenOperation outer = lockProfile.begin(DenOperation.RELEASE_BATCH);
+        try {
+            backend.releaseBatch(tickets);
+        } finally {
+            lockProfile.end(outer);
+        }
+    }
 
-            anyHedgehogAvailable.signal();
+    /**
+     * @return a copy of a hedgehog the caller holds reserved, e.g. to see which reservers it suits before releasing it
+     */
+    public Hedgehog getReservedHedgehog(int ticket) {
+        return backend.getReservedHedgehog(ticket, "inspect").copy();
+    }
+
+    public void releaseHedgehog(int ticket) {
+        DenOperation outer = lockProfile.begin(DenOperation.RELEASE);
+        try {
+            backend.release(ticket);
         } finally {
-            lock.unlock();
+            lockProfile.end(outer);
         }
     }
 
     public void killThatHog(int ticket, String reason) {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
-        }
+        narrativeLog.publish(kill(ticket, reason));
+    }
 
+    /**
+     * @return the story line of the death, to be published once no den operation holds the gate
+     */
+    private NarrativeEvent kill(int ticket, String reason) {
+        DenOperation outer = lockProfile.begin(DenOperation.KILL);
+        CheckpointGate.Stripe gate = checkpointGate.enter();
         try {
-            Hedgehog hedgehog = safelyGetHedgehog(ticket);
-            validateReservedHedgehog(hedgehog, "kill");
+            return recordDeath(backend.remove(ticket), reason);
+        } finally {
+            gate.unlock();
+            lockProfile.end(outer);
+        }
+    }
 
-            stats.adjustTicksRemoved(hedgehog.getTickCount());
-            if (hedgehog.getSex() == Sex.FEMALE) {
-                currentFemaleHedgehogCount--;
-            } else {
-                currentMaleHedgehogCount--;
+    /**
+     * Batch counterpart of {@link #killThatHog(int, String)}, taking each shard lock once.
+     */
+    public void killThoseHogs(int[] tickets, String reason) {
+        DenOperation outer = lockProfile.begin(DenOperation.KILL_BATCH);
+        CheckpointGate.Stripe gate = checkpointGate.enter();
+        NarrativeEvent[] deaths = new NarrativeEvent[tickets.length];
+        try {
+            Hedgehog[] removed = backend.removeBatch(tickets);
+            for (int i = 0; i < removed.length; i++) {
+                deaths[i] = recordDeath(removed[i], reason);
             }
-
-            hedgehogs.remove(ticket);
-            reservedHedgehogs.remove(hedgehog);
-            randomizableHedgehogIds.remove((Integer) ticket);
-            stats.incrementHedgehogsDied();
-            logger.info(hedgehog.getName() + " has died " + reason + ", with " + hedgehog.getOffspringCount() + " offspring.");
         } finally {
-            lock.unlock();
+            gate.unlock();
+            lockProfile.end(outer);
         }
+        publishAll(deaths);
     }
 
-    public void reproduce(int ticket1, int ticket2) {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
+    /**
+     * @return the story line of the death, to be published once no den operation holds the gate
+     */
+    private NarrativeEvent recordDeath(Hedgehog hedgehog, String reason) {
+        stats.adjustTicksRemoved(hedgehog.getTickCount());
+        aggregates.onDied(hedgehog);
+        stats.incrementHedgehogsDied();
+        journal.died(hedgehog, reason);
+        genealogy.onDied(hedgehog.getId());
+        lifecycle.onDied();
+        return new NarrativeEvent(NarrativeEvent.Type.DIED, hedgehog, null, reason);
+    }
+
+    // Story lines are published after the gate is unlocked: with BLOCK, a full log queue then stalls only
+    // the publishing actor, never a checkpoint or a consistent read waiting for its operation to finish.
+    private void publishAll(NarrativeEvent[] events) {
+        for (NarrativeEvent event : events) {
+            if (event != null) {
+                narrativeLog.publish(event);
+            }
         }
+    }
 
+    /**
+     * Both parents are validated and updated separately while reserved,
+     * so they may live in different shards without taking both locks at once.
+     */
+    public void reproduce(int ticket1, int ticket2) {
+        DenOperation outer = lockProfile.begin(DenOperation.REPRODUCE);
+        CheckpointGate.Stripe gate = checkpointGate.enter();
+        NarrativeEvent birth;
         try {
-            Hedgehog hog1 = safelyGetHedgehog(ticket1);
-            validateReservedHedgehog(hog1, "mate");
-            Hedgehog hog2 = safelyGetHedgehog(ticket2);
-            validateReservedHedgehog(hog2, "mate");
+            Hedgehog hog1 = backend.getReservedHedgehog(ticket1, "mate");
+            Hedgehog hog2 = backend.getReservedHedgehog(ticket2, "mate");
 
             Hedgehog mother;
             Hedgehog father;
@@ -307,118 +451,339 @@ public class DenManager {
                 throw new IllegalStateException("Invalid mating attempt: same sex hedgehogs.");
             }
 
-            mother.incrementOffspringCount();
-            father.incrementOffspringCount();
-            createHedgehog();
-            logger.info(mother.getName() + " had a baby! " + father.getName() + " is a proud dad!");
+            // Read before the increments, the parents may be live objects rather than copies.
+            int motherOffspring = mother.getOffspringCount() + 1;
+            int fatherOffspring = father.getOffspringCount() + 1;
+            backend.incrementOffspringCount(mother.getId());
+            backend.incrementOffspringCount(father.getId());
+            journal.offspring(mother.getId(), motherOffspring);
+            journal.offspring(father.getId(), fatherOffspring);
+            createHedgehog(mother.getId(), father.getId());
+            birth = new NarrativeEvent(NarrativeEvent.Type.BORN, mother, father, null);
         } finally {
-            lock.unlock();
+            gate.unlock();
+            lockProfile.end(outer);
         }
+        narrativeLog.publish(birth);
     }
 
     public WarOutcome sendReservedHedgehogToWar(int ticket) {
-        Hedgehog hedgehog = safelyGetHedgehog(ticket);
-        validateReservedHedgehog(hedgehog, "send to war");
+        DenOperation outer = lockProfile.begin(DenOperation.SEND_TO_WAR);
+        CheckpointGate.Stripe gate = checkpointGate.enter();
+        // The escape, if any, and the outcome.
+        NarrativeEvent[] story = new NarrativeEvent[2];
+        WarOutcome result;
+        try {
+            Hedgehog hedgehog = backend.getReservedHedgehog(ticket, "send to war");
 
-        double outcome = ThreadLocalRandom.current().nextDouble();
-        double adjustedDeathProb = ConfigParameters.PROBABILITY_DIE_AT_WAR
-                * Math.pow((1 - ConfigParameters.SEASONED_WARRIOR_DEATH_REDUCTION_PER_LEVEL), hedgehog.getSeasonedWarriorLevel());
+            double outcome = SimRandom.current().nextDouble();
+            double adjustedDeathProb = parameters.probabilityDieAtWar()
+                    * Math.pow((1 - parameters.seasonedWarriorDeathReductionPerLevel()), hedgehog.getSeasonedWarriorLevel());
 
-        stats.incrementHedgehogsWentToWar();
-        if (hedgehog.isSeasonedWarrior() && outcome >= adjustedDeathProb && outcome < ConfigParameters.PROBABILITY_DIE_AT_WAR) {
-            logger.info("Seasoned warrior " + hedgehog.getName() + "'s prior experience helped them escape death!");
-        }
-        if (outcome < adjustedDeathProb) {
-            stats.incrementHedgehogsDiedInWar();
-            killThatHog(ticket, "in battle");
-            return WarOutcome.DIED;
-        } else if (outcome < adjustedDeathProb + ConfigParameters.PROBABILITY_SEASONED_WARRIOR_LEVEL_UP) {
-            hedgehog.incrementSeasonedWarriorLevel();
-            stats.incrementHedgehogsReturnedSeasoned();
-            logger.info(hedgehog.getName() + " has leveled up as a seasoned warrior!");
-            return WarOutcome.WARRIOR_LEVEL_UP;
-        } else {
-            logger.info(hedgehog.getName() + " returned safely from battle.");
-            return WarOutcome.RETURNED_UNREMARKABLE;
+            stats.incrementHedgehogsWentToWar();
+            if (hedgehog.isSeasonedWarrior() && outcome >= adjustedDeathProb && outcome < parameters.probabilityDieAtWar()) {
+                story[0] = NarrativeEvent.of(NarrativeEvent.Type.WARRIOR_ESCAPED_DEATH, hedgehog);
+            }
+            if (outcome < adjustedDeathProb) {
+                stats.incrementHedgehogsDiedInWar();
+                story[1] = kill(ticket, "in battle");
+                result = WarOutcome.DIED;
+            } else if (outcome < adjustedDeathProb + parameters.probabilitySeasonedWarriorLevelUp()) {
+                int level = backend.incrementSeasonedWarriorLevel(ticket);
+                aggregates.onWarriorLevelUp(level);
+                journal.warriorLevelUp(ticket, level);
+                stats.incrementHedgehogsReturnedSeasoned();
+                story[1] = NarrativeEvent.of(NarrativeEvent.Type.WARRIOR_LEVEL_UP, hedgehog);
+                result = WarOutcome.WARRIOR_LEVEL_UP;
+            } else {
+                journal.returnedFromWar(ticket);
+                story[1] = NarrativeEvent.of(NarrativeEvent.Type.RETURNED_FROM_WAR, hedgehog);
+                result = WarOutcome.RETURNED_UNREMARKABLE;
+            }
+        } finally {
+            gate.unlock();
+            lockProfile.end(outer);
         }
+        publishAll(story);
+        return result;
     }
 
     public int getHedgehogCount() {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
+        DenOperation outer = lockProfile.begin(DenOperation.GET_HEDGEHOG_COUNT);
+        try {
+            return backend.getHedgehogCount();
+        } finally {
+            lockProfile.end(outer);
         }
+    }
+
+    public int getFemaleHedgehogCount() {
+        return aggregates.getFemaleCount();
+    }
+
+    public int getMaleHedgehogCount() {
+        return aggregates.getMaleCount();
+    }
 
+    public void addTickToReservedHedgehog(int ticket) {
+        DenOperation outer = lockProfile.begin(DenOperation.ADD_TICK);
+        CheckpointGate.Stripe gate = checkpointGate.enter();
         try {
-            return hedgehogs.size();
+            int tickCount = backend.addTick(ticket);
+            aggregates.onTickAdded(tickCount);
+            journal.tickAdded(ticket, tickCount);
+            stats.incrementTicksAdded();
         } finally {
-            lock.unlock();
+            gate.unlock();
+            lockProfile.end(outer);
         }
     }
 
-    public void addTickToReservedHedgehog(int ticket) {
-        Hedgehog hedgehog = safelyGetHedgehog(ticket);
-        validateReservedHedgehog(hedgehog, "add a tick to");
+    public void removeAllTicksFromReservedHedgehog(int ticket) {
+        DenOperation outer = lockProfile.begin(DenOperation.REMOVE_ALL_TICKS);
+        CheckpointGate.Stripe gate = checkpointGate.enter();
+        NarrativeEvent removal;
+        try {
+            removal = recordTicksRemoved(backend.removeAllTicks(ticket));
+        } finally {
+            gate.unlock();
+            lockProfile.end(outer);
+        }
+        narrativeLog.publish(removal);
+    }
 
-        hedgehog.addATick();
-        stats.incrementTicksAdded();
+    /**
+     * Batch counterpart of {@link #addTickToReservedHedgehog(int)}, taking each shard lock once.
+     */
+    public void addTickToReservedHedgehogs(int[] tickets) {
+        DenOperation outer = lockProfile.begin(DenOperation.ADD_TICK_BATCH);
+        CheckpointGate.Stripe gate = checkpointGate.enter();
+        try {
+            int[] tickCounts = backend.addTicks(tickets);
+            for (int i = 0; i < tickets.length; i++) {
+                aggregates.onTickAdded(tickCounts[i]);
+                journal.tickAdded(tickets[i], tickCounts[i]);
+            }
+            stats.adjustTicksAdded(tickets.length);
+        } finally {
+            gate.unlock();
+            lockProfile.end(outer);
+        }
     }
 
-    public void removeAllTicksFromReservedHedgehog(int ticket) {
-        Hedgehog hedgehog = safelyGetHedgehog(ticket);
-        validateReservedHedgehog(hedgehog, "remove ticks from");
+    /**
+     * Batch counterpart of {@link #removeAllTicksFromReservedHedgehog(int)}, taking each shard lock once.
+     */
+    public void removeAllTicksFromReservedHedgehogs(int[] tickets) {
+        DenOperation outer = lockProfile.begin(DenOperation.REMOVE_ALL_TICKS_BATCH);
+        CheckpointGate.Stripe gate = checkpointGate.enter();
+        NarrativeEvent[] removals = new NarrativeEvent[tickets.length];
+        try {
+            Hedgehog[] before = backend.removeAllTicks(tickets);
+            for (int i = 0; i < before.length; i++) {
+                removals[i] = recordTicksRemoved(before[i]);
+            }
+        } finally {
+            gate.unlock();
+            lockProfile.end(outer);
+        }
+        publishAll(removals);
+    }
 
-        int ticksBefore = hedgehog.getTickCount();
-        hedgehog.removeAllTicks();
+    /**
+     * @return the story line of the removal, to be published once no den operation holds the gate
+     */
+    private NarrativeEvent recordTicksRemoved(Hedgehog before) {
+        int ticksBefore = before.getTickCount();
         stats.adjustTicksRemoved(ticksBefore);
-        logger.info(ticksBefore + " ticks were removed from " + hedgehog.getName());
+        aggregates.onTicksRemoved(ticksBefore);
+        journal.ticksRemoved(before);
+        return NarrativeEvent.of(NarrativeEvent.Type.TICKS_REMOVED, before);
+    }
+
+    /**
+     * Reads the population, tick and stats counters as of one instant between den operations, for monitoring.
+     * Optimistic: the read is repeated if an operation got in between, and actors are held off only if their
+     * operations never leave a gap, see {@link CheckpointGate#readConsistent}. Must not be called from within a den operation, e.g. a lifecycle listener.
+     */
+    public ColonySnapshot readColonySnapshot() {
+        return checkpointGate.readConsistent(() -> new ColonySnapshot(stats.snapshotOnce(),
+                aggregates.getMaleCount(), aggregates.getFemaleCount(), aggregates.getTotalTicks(),
+                aggregates.getInfestedHedgehogCount(), aggregates.getSeasonedWarriorCount()));
+    }
+
+    /**
+     * @return how many consistent reads, colony snapshots and invariant checks, had to hold off den operations
+     * after all, as they never left a gap
+     */
+    public long getPausedSnapshotCount() {
+        return checkpointGate.getPausedReadCount();
     }
 
-    public int getTotalTicksOnHedgehogs() {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
+    /**
+     * Sums ticks over the whole population, see {@link #getAggregates()} for the O(1) running total.
+     */
+    public long getTotalTicksOnHedgehogs() {
+        DenOperation outer = lockProfile.begin(DenOperation.SCAN);
+        try {
+            return backend.getTotalTicks();
+        } finally {
+            lockProfile.end(outer);
         }
+    }
+
+    /**
+     * Rebuilds the colony aggregates from a full scan and compares them with the running ones.
+     * Only meaningful while no actor is changing the den.
+     * @return true if they agree
+     */
+    public boolean crossCheckAggregates() {
+        DenOperation outer = lockProfile.begin(DenOperation.SCAN);
         try {
-            int sum = 0;
-            for (Hedgehog h : hedgehogs.values()) {
-                sum += h.getTickCount();
+            ColonyAggregates scanned = new ColonyAggregates();
+            backend.forEachHedgehog(scanned::include);
+            String mismatch = aggregates.findMismatch(scanned);
+            if (mismatch != null) {
+                logger.error("Critical logic error: Colony aggregates drifted from the den: " + mismatch);
+                return false;
             }
-            return sum;
+            return true;
         } finally {
-            lock.unlock();
+            lockProfile.end(outer);
         }
     }
 
-    private boolean isReserved(Hedgehog hedgehog) {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
-        }
+    /**
+     * Checks the colony's invariants while actors run. Counters, running aggregates and the population are read
+     * in one consistent cut between den operations, see {@link CheckpointGate#readConsistent}, and must balance:
+     * hedgehogs born minus died are the hedgehogs in the den, the aggregates and the lifecycle, and ticks added
+     * minus removed are the ticks the aggregates count. Only a cut that does not balance is read again with
+     * changes held off, to confirm the imbalance. Then the reserved/free bookkeeping of up to maxCount hedgehogs
+     * from the given position on is checked, each shard locked only for its part of that slice.
+     * @param position 0, or the next position of the previous check
+     */
+    public InvariantCheck checkInvariants(int position, int maxCount) {
+        DenOperation outer = lockProfile.begin(DenOperation.INVARIANT_CHECK);
         try {
-            return reservedHedgehogs.contains(hedgehog);
+            String imbalance = checkpointGate.readConsistent(this::readBalanceCut).findImbalance();
+            long pauseNanos = 0;
+            if (imbalance != null) {
+                long pauseStart = System.nanoTime();
+                checkpointGate.pause();
+                try {
+                    imbalance = readBalanceCut().findImbalance();
+                } finally {
+                    checkpointGate.resume();
+                }
+                pauseNanos = System.nanoTime() - pauseStart;
+                if (imbalance != null) {
+                    return new InvariantCheck(imbalance, position, pauseNanos);
+                }
+            }
+            List<String> violations = new ArrayList<>();
+            int nextPosition = backend.checkReservations(position, maxCount, violations::add);
+            return new InvariantCheck(violations.isEmpty() ? null : violations.getFirst(), nextPosition, pauseNanos);
         } finally {
-            lock.unlock();
+            lockProfile.end(outer);
         }
     }
 
-    private Hedgehog safelyGetHedgehog(int ticket) {
-        if (!lock.tryLock()) {
-            stats.incrementLockContention();
-            lock.lock();
+    private BalanceCut readBalanceCut() {
+        return new BalanceCut(stats.snapshotOnce(), backend.getHedgehogCount(),
+                aggregates.getMaleCount() + aggregates.getFemaleCount(), lifecycle.getPopulation(),
+                aggregates.getTotalTicks());
+    }
+
+    private record BalanceCut(StatsSnapshot counted, int stored, int aggregated, int published, long aggregatedTicks) {
+
+        // Null if everything balances.
+        String findImbalance() {
+            if (counted.expectedPopulation() != stored || stored != aggregated || stored != published) {
+                return "Population out of balance: " + counted.expectedPopulation() + " born minus died, "
+                        + stored + " in the den, " + aggregated + " in the aggregates, " + published + " in the lifecycle";
+            }
+            if (counted.expectedTicksPresent() != aggregatedTicks) {
+                return "Ticks out of balance: " + counted.expectedTicksPresent()
+                        + " added minus removed, " + aggregatedTicks + " in the aggregates";
+            }
+            return null;
         }
+    }
+
+    /**
+     * Saves every hedgehog, the counters, the id sequence and the name generator state to a binary file.
+     * Operations that change the colony are held off only while the state is copied;
+     * the file is written after they carry on.
+     * @return how long changes were held off, in nanoseconds
+     */
+    public long writeCheckpoint(Path file) throws IOException {
+        ColonyCheckpoint checkpoint;
+        long pauseStart = System.nanoTime();
+        DenOperation outer = lockProfile.begin(DenOperation.CHECKPOINT);
+        checkpointGate.pause();
         try {
-            return hedgehogs.get(ticket);
+            checkpoint = new ColonyCheckpoint(backend.getHedgehogCount(), nextHedgehogId.get(),
+                    nameManager.getState(), stats.snapshotOnce());
+            backend.forEachHedgehog(checkpoint::add);
         } finally {
-            lock.unlock();
+            checkpointGate.resume();
+            lockProfile.end(outer);
         }
+        long pauseNanos = System.nanoTime() - pauseStart;
+
+        long writeStart = System.nanoTime();
+        boolean memoryMapped = checkpoint.write(file, ConfigParameters.CHECKPOINT_MMAP_THRESHOLD_BYTES);
+        logger.info("Checkpoint of " + checkpoint.size() + " hedgehogs written to " + file + " ("
+                + checkpoint.byteSize() + " bytes" + (memoryMapped ? ", memory-mapped" : "") + ") in "
+                + (System.nanoTime() - writeStart) / 1_000_000 + " ms after a " + pauseNanos / 1_000 + " µs pause.");
+        return pauseNanos;
     }
 
-    private void validateReservedHedgehog(Hedgehog hedgehog, String context) {
-            if (hedgehog == null || !isReserved(hedgehog)) {
-                logger.error("Critical logic error: Attempted to " + context + " hedgehog, but it either doesn't exist or was not properly reserved.");
-                throw new IllegalStateException("Hedgehog does not exist or was not reserved.");
-            }
+    /**
+     * Brings back a colony saved by {@link #writeCheckpoint(Path)}, with every hedgehog free.
+     * Only valid on a manager that has not created any hedgehog yet, before actors start.
+     * Checkpoints carry no parents, so restored hedgehogs are founders in the {@link Genealogy}.
+     * @return the number of hedgehogs restored
+     */
+    public int restoreCheckpoint(Path file) throws IOException {
+        if (nextHedgehogId.get() != 1) {
+            throw new IllegalStateException("Only an empty den can be restored from a checkpoint.");
+        }
+        ColonyCheckpoint checkpoint = ColonyCheckpoint.read(file, ConfigParameters.CHECKPOINT_MMAP_THRESHOLD_BYTES);
+        nameManager.restore(checkpoint.getNameState());
+        stats.restore(checkpoint.getStats());
+        checkpoint.forEachHedgehog(hedgehog -> {
+            aggregates.include(hedgehog);
+            journal.restored(hedgehog);
+            genealogy.onBorn(hedgehog.getId());
+            backend.addHedgehog(hedgehog);
+            lifecycle.onBorn(hedgehog);
+        });
+        nextHedgehogId.set(checkpoint.getNextHedgehogId());
+        return checkpoint.size();
     }
 
+    /**
+     * Starts recording every change to the colony in a new journal file, replacing an existing one.
+     * Only valid before actors start, and before the colony is created or restored for a complete journal.
+     */
+    public void openEventJournal(Path file) throws IOException {
+        if (journal.isEnabled()) {
+            throw new IllegalStateException("The event journal is already open.");
+        }
+        journal = EventJournal.open(file, ConfigParameters.EVENT_JOURNAL_REGION_BYTES);
+    }
+
+    /**
+     * Flushes and closes the event journal, once actors have stopped.
+     * @return the number of events recorded
+     */
+    public long closeEventJournal() throws IOException {
+        long eventCount = journal.close();
+        if (journal.isEnabled()) {
+            logger.info("Event journal " + journal.getFile() + " closed with " + eventCount + " events.");
+        }
+        journal = EventJournal.disabled();
+        return eventCount;
+    }
 }
@@ -0,0 +1,30 @@
+package manager;
+
+/**
+ * Public {@link DenManager} operations that lock latency is attributed to.
+ * Nested calls count towards the outermost one, e.g. a birth during reproduction is REPRODUCE.
+ */
+public enum DenOperation {
+    CREATE,
+    RESERVE_ANY,
+    RESERVE_ABOVE_TICK_THRESHOLD,
+    RESERVE_FEMALE,
+    RESERVE_MALE,
+    RESERVE_FOR_FAIRY,
+    TRY_RESERVE,
+    RESERVE_BATCH,
+    RELEASE,
+    RELEASE_BATCH,
+    KILL,
+    KILL_BATCH,
+    REPRODUCE,
+    SEND_TO_WAR,
+    ADD_TICK,
+    ADD_TICK_BATCH,
+    REMOVE_ALL_TICKS,
+    REMOVE_ALL_TICKS_BATCH,
+    GET_HEDGEHOG_COUNT,
+    SCAN,
+    CHECKPOINT,
+    INVARIANT_CHECK
+}
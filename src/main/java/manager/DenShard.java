@@ -0,0 +1,503 @@
+package manager;
+
+import config.ConfigParameters;
+import model.Hedgehog;
+import model.Sex;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * One sub-den of the colony, owning a slice of the population.
+ * Has its own lock, wait queue and free pools, so operations on different shards never contend.
+ * Hedgehogs live in a {@link PopulationStore}; free pools hold store slots.
+ * A hedgehog coming free goes straight to a matching parked reserver if there is one, see {@link WaitQueue},
+ * and only otherwise into the free pools, after which a {@link FreedListener} may pass the news on to other shards.
+ * With a single shard this is exactly the classic single-monitor den.
+ */
+class DenShard {
+    private final PopulationStore population;
+    // The population's size, published for reads without the lock.
+    private volatile int hedgehogCount = 0;
+    // Unreserved hedgehogs indexed by the categories reservations ask for.
+    private final FreeHedgehogPool freeHedgehogs = new FreeHedgehogPool();
+    private final FreeHedgehogPool freeFemaleHedgehogs = new FreeHedgehogPool();
+    private final FreeHedgehogPool freeMaleHedgehogs = new FreeHedgehogPool();
+    private final FreeHedgehogPool freeSeasonedWarriors = new FreeHedgehogPool();
+    private final FreeHedgehogPool freeHedgehogsAboveTickThreshold = new FreeHedgehogPool();
+    private final FreeHedgehogPool[] allPools = {freeHedgehogs, freeFemaleHedgehogs, freeMaleHedgehogs,
+            freeSeasonedWarriors, freeHedgehogsAboveTickThreshold};
+    private final ProfiledLock lock;
+    private final WaitQueue waitQueue;
+    private final SimulationStats stats;
+    private final FreedListener freedListener;
+    private static final int[] NO_TICKETS = new int[0];
+    private static final Logger logger = LogManager.getLogger(DenShard.class);
+
+    /**
+     * Told of each hedgehog that went into the free pools because nobody in the shard waited for it.
+     * Called after the shard's lock is released, so it may lock other shards.
+     */
+    @FunctionalInterface
+    interface FreedListener {
+        /**
+         * @param categories the categories the hedgehog suits, see {@link WaitQueue#categoriesSuitedBy(Sex, int)}
+         */
+        void freed(int categories);
+    }
+
+    /**
+     * @param freedListener null if no one outside the shard waits for its hedgehogs
+     */
+    DenShard(SimulationStats stats, LockProfile profile, FreedListener freedListener) {
+        this.population = new PopulationStore();
+        this.stats = stats;
+        this.lock = new ProfiledLock(stats, profile);
+        this.waitQueue = new WaitQueue(lock);
+        this.freedListener = freedListener;
+    }
+
+    public void addHedgehog(Hedgehog hedgehog) {
+        int freed;
+        lock.lock();
+        try {
+            freed = handOverOrFree(population.add(hedgehog));
+            hedgehogCount = population.size();
+        } finally {
+            lock.unlock();
+        }
+        onFreed(freed);
+    }
+
+    /**
+     * Reserves a hedgehog of the given category if one is free in this shard.
+     * @return the reserved ticket, or -1 if none is free
+     */
+    public int tryReserve(ReservationCategory category) {
+        lock.lock();
+        try {
+            FreeHedgehogPool pool = poolFor(category);
+            return pool.isEmpty() ? -1 : reserveFromPool(pool);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves a hedgehog of the given category, parking in this shard's wait queue while none is free.
+     * A non-positive timeout waits indefinitely.
+     * @param mayPark asked under the lock before parking; if false, -1 is returned at once so the caller looks again
+     * @return the reserved ticket, or -1 if the timeout elapsed first, parking was refused, or the reserver was
+     * woken by {@link #wakeToLook(int)}
+     */
+    public int reserveAwaiting(ReservationCategory category, long timeoutNanos, BooleanSupplier mayPark) throws InterruptedException {
+        lock.lock();
+        try {
+            FreeHedgehogPool pool = poolFor(category);
+            if (!pool.isEmpty()) {
+                return reserveFromPool(pool);
+            }
+            return mayPark.getAsBoolean() ? awaitHandOver(category, timeoutNanos) : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves up to maxCount hedgehogs of the given category if any is free in this shard.
+     * @return the reserved tickets, empty if none is free
+     */
+    public int[] tryReserveBatch(ReservationCategory category, int maxCount) {
+        lock.lock();
+        try {
+            return reserveBatchFromPools(category, maxCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Batch counterpart of {@link #reserveAwaiting}, returns as soon as at least one hedgehog is reserved.
+     * @return the reserved tickets, empty if the timeout elapsed first, parking was refused, or the reserver was woken
+     */
+    public int[] reserveBatchAwaiting(ReservationCategory category, int maxCount, long timeoutNanos, BooleanSupplier mayPark) throws InterruptedException {
+        lock.lock();
+        try {
+            if (!poolFor(category).isEmpty()) {
+                return reserveBatchFromPools(category, maxCount);
+            }
+            int ticket = mayPark.getAsBoolean() ? awaitHandOver(category, timeoutNanos) : -1;
+            if (ticket == -1) {
+                return NO_TICKETS;
+            }
+            int[] rest = reserveBatchFromPools(category, maxCount - 1);
+            int[] tickets = new int[rest.length + 1];
+            tickets[0] = ticket;
+            System.arraycopy(rest, 0, tickets, 1, rest.length);
+            return tickets;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(int ticket) {
+        int freed;
+        lock.lock();
+        try {
+            freed = handOverOrFree(reservedSlotOf(ticket, "release"));
+        } finally {
+            lock.unlock();
+        }
+        onFreed(freed);
+    }
+
+    /**
+     * Releases all tickets under one lock hold, each to a different parked reserver while any matches.
+     */
+    public void releaseBatch(int[] tickets) {
+        int[] freed = new int[tickets.length];
+        lock.lock();
+        try {
+            for (int i = 0; i < tickets.length; i++) {
+                freed[i] = handOverOrFree(reservedSlotOf(tickets[i], "release"));
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (int categories : freed) {
+            onFreed(categories);
+        }
+    }
+
+    /**
+     * Wakes the longest-waiting reserver of the given categories parked here, to look for a hedgehog in every shard.
+     * @return false if nobody here waits in those categories
+     */
+    public boolean wakeToLook(int categories) {
+        lock.lock();
+        try {
+            return waitQueue.wakeToLook(categories);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a reserved hedgehog from the shard.
+     * @return a copy of the removed hedgehog
+     */
+    public Hedgehog remove(int ticket) {
+        lock.lock();
+        try {
+            return removeReserved(ticket);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Hedgehog[] removeBatch(int[] tickets) {
+        lock.lock();
+        try {
+            Hedgehog[] removed = new Hedgehog[tickets.length];
+            for (int i = 0; i < tickets.length; i++) {
+                removed[i] = removeReserved(tickets[i]);
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Looks up a hedgehog and checks that it is currently reserved.
+     * @return a detached copy of the hedgehog
+     */
+    public Hedgehog getReservedHedgehog(int ticket, String context) {
+        lock.lock();
+        try {
+            return population.snapshot(reservedSlotOf(ticket, context));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int addTick(int ticket) {
+        lock.lock();
+        try {
+            return population.addTick(reservedSlotOf(ticket, "add a tick to"));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int[] addTicks(int[] tickets) {
+        lock.lock();
+        try {
+            int[] tickCounts = new int[tickets.length];
+            for (int i = 0; i < tickets.length; i++) {
+                tickCounts[i] = population.addTick(reservedSlotOf(tickets[i], "add a tick to"));
+            }
+            return tickCounts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Hedgehog[] removeAllTicks(int[] tickets) {
+        lock.lock();
+        try {
+            Hedgehog[] before = new Hedgehog[tickets.length];
+            for (int i = 0; i < tickets.length; i++) {
+                int slot = reservedSlotOf(tickets[i], "remove ticks from");
+                before[i] = population.snapshot(slot);
+                population.removeAllTicks(slot);
+            }
+            return before;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Hedgehog removeAllTicks(int ticket) {
+        lock.lock();
+        try {
+            int slot = reservedSlotOf(ticket, "remove ticks from");
+            Hedgehog before = population.snapshot(slot);
+            population.removeAllTicks(slot);
+            return before;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void incrementOffspringCount(int ticket) {
+        lock.lock();
+        try {
+            population.incrementOffspringCount(reservedSlotOf(ticket, "mate"));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int incrementSeasonedWarriorLevel(int ticket) {
+        lock.lock();
+        try {
+            return population.incrementSeasonedWarriorLevel(reservedSlotOf(ticket, "send to war"));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the count without the lock, so it is also safe within {@link CheckpointGate#readConsistent}.
+     */
+    public int getHedgehogCount() {
+        return hedgehogCount;
+    }
+
+    public long getTotalTicks() {
+        lock.lock();
+        try {
+            return population.getTotalTicks();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void forEachHedgehog(Consumer<Hedgehog> visitor) {
+        lock.lock();
+        try {
+            for (int slot = 0; slot < population.size(); slot++) {
+                visitor.accept(population.snapshot(slot));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks that the slots from up to from + maxCount are in the free pools exactly when unreserved,
+     * and then in just the ones their hedgehog suits. Pool sizes are checked along with the first slice.
+     * @return true if the shard has slots beyond the slice
+     */
+    public boolean checkReservations(int from, int maxCount, Consumer<String> violations) {
+        lock.lock();
+        try {
+            if (from == 0) {
+                checkPoolSizes(violations);
+            }
+            int end = Math.min(population.size(), from + maxCount);
+            for (int slot = from; slot < end; slot++) {
+                checkSlot(slot, violations);
+            }
+            return end < population.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Must be called with the lock held.
+    private void checkPoolSizes(Consumer<String> violations) {
+        if (freeHedgehogs.size() > population.size()) {
+            violations.accept(freeHedgehogs.size() + " hedgehogs free out of " + population.size() + " in a shard");
+        }
+        if (freeFemaleHedgehogs.size() + freeMaleHedgehogs.size() != freeHedgehogs.size()) {
+            violations.accept(freeFemaleHedgehogs.size() + " free females and " + freeMaleHedgehogs.size()
+                    + " free males but " + freeHedgehogs.size() + " free hedgehogs in a shard");
+        }
+    }
+
+    // Must be called with the lock held.
+    private void checkSlot(int slot, Consumer<String> violations) {
+        boolean free = !population.isReserved(slot);
+        boolean female = population.getSex(slot) == Sex.FEMALE;
+        boolean aboveThreshold = population.getTickCount(slot) >= ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST;
+        if (freeHedgehogs.contains(slot) != free
+                || freeFemaleHedgehogs.contains(slot) != (free && female)
+                || freeMaleHedgehogs.contains(slot) != (free && !female)
+                || freeSeasonedWarriors.contains(slot) != (free && population.isSeasonedWarrior(slot))
+                || freeHedgehogsAboveTickThreshold.contains(slot) != (free && aboveThreshold)) {
+            violations.accept("Hedgehog " + population.getId(slot) + (free ? " (free)" : " (reserved)")
+                    + " is not in the free pools it belongs to");
+        }
+    }
+
+    // Must be called with the lock held. FAIRY falls through its preferences to the first non-empty pool.
+    private FreeHedgehogPool poolFor(ReservationCategory category) {
+        return switch (category) {
+            case ANY -> freeHedgehogs;
+            case FEMALE -> freeFemaleHedgehogs;
+            case MALE -> freeMaleHedgehogs;
+            case ABOVE_TICK_THRESHOLD -> freeHedgehogsAboveTickThreshold;
+            case FAIRY -> !freeSeasonedWarriors.isEmpty() ? freeSeasonedWarriors
+                    : !freeMaleHedgehogs.isEmpty() ? freeMaleHedgehogs
+                    : freeHedgehogs;
+        };
+    }
+
+    // Must be called with the lock held and the category's pool empty.
+    // Returns the ticket handed over, or -1 if the timeout elapsed first or the waiter was woken to look itself.
+    private int awaitHandOver(ReservationCategory category, long timeoutNanos) throws InterruptedException {
+        long nanosLeft = timeoutNanos;
+        WaitQueue.Waiter waiter = waitQueue.enqueue(category);
+        try {
+            while (waiter.getTicket() == -1 && !waiter.isWoken()) {
+                if (timeoutNanos > 0 && nanosLeft <= 0) {
+                    waitQueue.remove(waiter);
+                    return -1;
+                }
+                stats.incrementConditionWait();
+                if (timeoutNanos <= 0) {
+                    waitQueue.await(waiter);
+                } else {
+                    nanosLeft = waitQueue.awaitNanos(waiter, nanosLeft);
+                }
+            }
+            return waiter.getTicket();
+        } catch (InterruptedException e) {
+            if (waiter.getTicket() == -1) {
+                waitQueue.remove(waiter);
+            } else {
+                // Handed a hedgehog while being interrupted, it goes on to the next reserver here.
+                // Reservers elsewhere are not told, interrupts only come as the actors are stopped.
+                handOverOrFree(population.slotOf(waiter.getTicket()));
+            }
+            throw e;
+        }
+    }
+
+    // Must be called with the lock held. FAIRY is resolved again for every pick.
+    private int[] reserveBatchFromPools(ReservationCategory category, int maxCount) {
+        int[] tickets = new int[maxCount];
+        int count = 0;
+        while (count < maxCount) {
+            FreeHedgehogPool pool = poolFor(category);
+            if (pool.isEmpty()) {
+                break;
+            }
+            tickets[count++] = reserveFromPool(pool);
+        }
+        return count == maxCount ? tickets : Arrays.copyOf(tickets, count);
+    }
+
+    private int reserveFromPool(FreeHedgehogPool pool) {
+        int slot = pool.pickRandom();
+        population.setReserved(slot, true);
+        markReserved(slot);
+        return population.getId(slot);
+    }
+
+    // Must be called with the lock held. A hedgehog handed over stays reserved, by its new holder.
+    // Returns the categories a hedgehog that went into the free pools suits, for the freed listener;
+    // 0 if it was handed over or nobody listens.
+    private int handOverOrFree(int slot) {
+        if (waitQueue.handOver(population.getId(slot), population.getSex(slot), population.getTickCount(slot))) {
+            population.setReserved(slot, true);
+            return 0;
+        }
+        population.setReserved(slot, false);
+        markFree(slot);
+        return freedListener == null ? 0 : WaitQueue.categoriesSuitedBy(population.getSex(slot), population.getTickCount(slot));
+    }
+
+    // Must be called without the lock held.
+    private void onFreed(int categories) {
+        if (categories != 0) {
+            freedListener.freed(categories);
+        }
+    }
+
+    // Must be called with the lock held. Categories are decided on release only,
+    // since tick count and warrior level can change only while a hedgehog is reserved.
+    private void markFree(int slot) {
+        freeHedgehogs.add(slot);
+        if (population.getSex(slot) == Sex.FEMALE) {
+            freeFemaleHedgehogs.add(slot);
+        } else {
+            freeMaleHedgehogs.add(slot);
+        }
+        if (population.isSeasonedWarrior(slot)) {
+            freeSeasonedWarriors.add(slot);
+        }
+        if (population.getTickCount(slot) >= ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST) {
+            freeHedgehogsAboveTickThreshold.add(slot);
+        }
+    }
+
+    // Must be called with the lock held.
+    private void markReserved(int slot) {
+        for (FreeHedgehogPool pool : allPools) {
+            pool.remove(slot);
+        }
+    }
+
+    // Must be called with the lock held.
+    private Hedgehog removeReserved(int ticket) {
+        int slot = reservedSlotOf(ticket, "kill");
+        Hedgehog hedgehog = population.snapshot(slot);
+        int movedFrom = population.removeAt(slot);
+        hedgehogCount = population.size();
+        if (movedFrom != -1) {
+            // The last hedgehog now lives in the freed slot, its pool entries have to follow it.
+            for (FreeHedgehogPool pool : allPools) {
+                if (pool.remove(movedFrom)) {
+                    pool.add(slot);
+                }
+            }
+        }
+        return hedgehog;
+    }
+
+    // Must be called with the lock held.
+    private int reservedSlotOf(int ticket, String context) {
+        int slot = population.slotOf(ticket);
+        if (slot == -1 || !population.isReserved(slot)) {
+            logger.error("Critical logic error: Attempted to " + context + " hedgehog, but it either doesn't exist or was not properly reserved.");
+            throw new IllegalStateException("Hedgehog does not exist or was not reserved.");
+        }
+        return slot;
+    }
+}
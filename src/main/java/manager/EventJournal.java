@@ -0,0 +1,273 @@
+package manager;
+
+import model.Hedgehog;
+import model.Sex;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only binary record of every change to the colony, replayed by {@link JournalReplay}.
+ * Every record is {@link #RECORD_BYTES} long and carries a global sequence number, so the order of events
+ * is known even though they are not written in one place: writers append to memory-mapped regions of the file,
+ * one region per stripe of threads, each with its own lock, and claim a fresh region when theirs is full.
+ * A record's type is written last and the unused tail of a region stays zeroed, so a record cut short
+ * by a crash reads as the end of its region. A disabled journal records nothing.
+ */
+class EventJournal {
+    static final long MAGIC = 0x48474A524E4C3031L; // "HGJRNL01"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 32;
+
+    // Record layout. DETAIL holds the death reason code, or the warrior level of a restored hedgehog.
+    static final int SEQUENCE = 0;
+    static final int TYPE = 8;
+    static final int SEX = 9;
+    static final int DETAIL = 10;
+    static final int ID = 12;
+    static final int NAME_CODE = 16;
+    static final int VALUE = 24;
+    static final int SECOND_VALUE = 28;
+    // A REASON record keeps the reason's UTF-8 text from ID on, its length in SEX and its code in DETAIL.
+    static final int REASON_TEXT = ID;
+    static final int MAX_REASON_BYTES = RECORD_BYTES - REASON_TEXT;
+
+    enum Type {
+        // Zero marks the unused tail of a region.
+        NONE,
+        REASON,
+        BORN,
+        RESTORED,
+        DIED,
+        TICK_ADDED,
+        TICKS_REMOVED,
+        OFFSPRING,
+        RETURNED_FROM_WAR,
+        WARRIOR_LEVEL_UP;
+
+        private static final Type[] TYPES = values();
+
+        static Type of(byte code) {
+            return code >= 0 && code < TYPES.length ? TYPES[code] : null;
+        }
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int regionBytes;
+    private final Stripe[] stripes;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong(1);
+    private final AtomicLong nextRegion = new AtomicLong(0);
+    private final Map<String, Short> reasonCodes = new ConcurrentHashMap<>();
+    private final ReentrantLock reasonLock = new ReentrantLock();
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private MappedByteBuffer region;
+    }
+
+    private EventJournal(Path file, FileChannel channel, int regionBytes) {
+        this.file = file;
+        this.channel = channel;
+        this.regionBytes = regionBytes;
+        // The smallest power of two giving every core at least two stripes, as in CheckpointGate.
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        mask = stripeCount - 1;
+    }
+
+    static EventJournal disabled() {
+        return new EventJournal(null, null, 0);
+    }
+
+    /**
+     * Creates the journal file, replacing an existing one.
+     */
+    static EventJournal open(Path file, int regionBytes) throws IOException {
+        if (regionBytes < RECORD_BYTES || regionBytes % RECORD_BYTES != 0) {
+            throw new IllegalArgumentException("EVENT_JOURNAL_REGION_BYTES must be a positive multiple of " + RECORD_BYTES + ".");
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        EventJournal journal = new EventJournal(file, channel, regionBytes);
+        journal.writeHeader(0, 0);
+        return journal;
+    }
+
+    boolean isEnabled() {
+        return channel != null;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    void born(Hedgehog hedgehog) {
+        if (channel != null) {
+            append(Type.BORN, hedgehog, (short) 0, 0, 0);
+        }
+    }
+
+    void restored(Hedgehog hedgehog) {
+        if (channel != null) {
+            append(Type.RESTORED, hedgehog, (short) hedgehog.getSeasonedWarriorLevel(),
+                    hedgehog.getTickCount(), hedgehog.getOffspringCount());
+        }
+    }
+
+    void died(Hedgehog hedgehog, String reason) {
+        if (channel != null) {
+            append(Type.DIED, hedgehog, reasonCode(reason), hedgehog.getTickCount(), hedgehog.getOffspringCount());
+        }
+    }
+
+    void tickAdded(int id, int tickCount) {
+        if (channel != null) {
+            append(Type.TICK_ADDED, id, (byte) 0, (short) 0, 0, tickCount, 0);
+        }
+    }
+
+    void ticksRemoved(Hedgehog before) {
+        if (channel != null) {
+            append(Type.TICKS_REMOVED, before.getId(), (byte) 0, (short) 0, 0, before.getTickCount(), 0);
+        }
+    }
+
+    void offspring(int id, int offspringCount) {
+        if (channel != null) {
+            append(Type.OFFSPRING, id, (byte) 0, (short) 0, 0, offspringCount, 0);
+        }
+    }
+
+    void returnedFromWar(int id) {
+        if (channel != null) {
+            append(Type.RETURNED_FROM_WAR, id, (byte) 0, (short) 0, 0, 0, 0);
+        }
+    }
+
+    void warriorLevelUp(int id, int level) {
+        if (channel != null) {
+            append(Type.WARRIOR_LEVEL_UP, id, (byte) 0, (short) 0, 0, level, 0);
+        }
+    }
+
+    /**
+     * Flushes the journal and records in its header how many events and regions it holds.
+     * Only valid once nothing changes the colony anymore.
+     * @return the number of events written
+     */
+    long close() throws IOException {
+        if (channel == null) {
+            return 0;
+        }
+        for (Stripe stripe : stripes) {
+            if (stripe.region != null) {
+                stripe.region.force();
+            }
+        }
+        long recordCount = nextSequence.get() - 1;
+        writeHeader(recordCount, nextRegion.get());
+        // Also writes back the dirty pages of regions that were already given up.
+        channel.force(true);
+        channel.close();
+        return recordCount;
+    }
+
+    private void append(Type type, Hedgehog hedgehog, short detail, int value, int secondValue) {
+        append(type, hedgehog.getId(), (byte) (hedgehog.getSex().ordinal() + 1), detail,
+                hedgehog.getNameCode(), value, secondValue);
+    }
+
+    private void append(Type type, int id, byte sex, short detail, long nameCode, int value, int secondValue) {
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & mask];
+        stripe.lock.lock();
+        try {
+            MappedByteBuffer region = regionWithRoom(stripe);
+            int offset = region.position();
+            // The sequence is taken under the stripe lock, so it only grows within a region.
+            region.putLong(offset + SEQUENCE, nextSequence.getAndIncrement());
+            region.put(offset + SEX, sex);
+            region.putShort(offset + DETAIL, detail);
+            region.putInt(offset + ID, id);
+            region.putLong(offset + NAME_CODE, nameCode);
+            region.putInt(offset + VALUE, value);
+            region.putInt(offset + SECOND_VALUE, secondValue);
+            region.put(offset + TYPE, (byte) type.ordinal());
+            region.position(offset + RECORD_BYTES);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private short reasonCode(String reason) {
+        Short code = reasonCodes.get(reason);
+        if (code != null) {
+            return code;
+        }
+        reasonLock.lock();
+        try {
+            code = reasonCodes.get(reason);
+            if (code == null) {
+                code = (short) (reasonCodes.size() + 1);
+                appendReason(code, reason);
+                reasonCodes.put(reason, code);
+            }
+            return code;
+        } finally {
+            reasonLock.unlock();
+        }
+    }
+
+    /**
+     * Reasons are written once, ahead of the first death they explain. Texts are cut to {@link #MAX_REASON_BYTES}.
+     */
+    private void appendReason(short code, String reason) {
+        byte[] text = reason.getBytes(StandardCharsets.UTF_8);
+        byte[] padded = Arrays.copyOf(text, MAX_REASON_BYTES);
+        ByteBuffer fields = ByteBuffer.wrap(padded);
+        append(Type.REASON, fields.getInt(0), (byte) Math.min(text.length, MAX_REASON_BYTES), code,
+                fields.getLong(4), fields.getInt(12), fields.getInt(16));
+    }
+
+    private MappedByteBuffer regionWithRoom(Stripe stripe) {
+        if (stripe.region != null && stripe.region.hasRemaining()) {
+            return stripe.region;
+        }
+        long position = HEADER_BYTES + nextRegion.getAndIncrement() * regionBytes;
+        try {
+            stripe.region = channel.map(FileChannel.MapMode.READ_WRITE, position, regionBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Event journal " + file + " could not grow.", e);
+        }
+        return stripe.region;
+    }
+
+    private void writeHeader(long recordCount, long regionCount) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putLong(MAGIC).putInt(FORMAT_VERSION).putInt(regionBytes).putLong(recordCount).putLong(regionCount);
+        header.flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+}
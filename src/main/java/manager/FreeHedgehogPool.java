@@ -0,0 +1,63 @@
+package manager;
+
+import config.SimRandom;
+
+import java.util.Arrays;
+
+/**
+ * Set of hedgehog population slots supporting O(1) insert, remove and uniform random pick.
+ * Slots are kept densely packed in an array, with a position index for swap-removal.
+ * Not thread-safe: the owning manager is expected to guard all access with its lock.
+ */
+class FreeHedgehogPool {
+    private int[] ids = new int[16];
+    // positions[id] holds the index of id in ids plus one, 0 means absent.
+    private int[] positions = new int[16];
+    private int size = 0;
+
+    public boolean add(int id) {
+        if (contains(id)) {
+            return false;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        if (id >= positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(positions.length * 2, id + 1));
+        }
+        ids[size] = id;
+        positions[id] = ++size;
+        return true;
+    }
+
+    public boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        int index = positions[id] - 1;
+        int lastId = ids[--size];
+        ids[index] = lastId;
+        positions[lastId] = index + 1;
+        positions[id] = 0;
+        return true;
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < positions.length && positions[id] != 0;
+    }
+
+    public int pickRandom() {
+        if (size == 0) {
+            throw new IllegalStateException("Cannot pick from an empty pool.");
+        }
+        return ids[SimRandom.current().nextInt(size)];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
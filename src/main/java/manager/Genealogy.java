@@ -0,0 +1,135 @@
+package manager;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Mother and father of every hedgehog born, kept by {@link DenManager} as births and deaths happen.
+ * Records are primitive arrays indexed by id and allocated in fixed segments, about 12 bytes per birth,
+ * so tens of millions of births fit. A hedgehog's generation, one more than its older parent's, is worked out
+ * as it is born, so ancestor depth is known at once; descendant queries run over a {@link GenealogySnapshot}.
+ * Hedgehogs created without parents, at the start or restored from a checkpoint, are founders of generation 0.
+ * Ids are never reused, so a record only ever changes by its hedgehog dying.
+ */
+public class Genealogy {
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int MAX_SEGMENTS = 1 << (31 - SEGMENT_BITS);
+
+    private final AtomicReferenceArray<Segment> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    // Highest id recorded plus one.
+    private final AtomicInteger idLimit = new AtomicInteger(1);
+    private final AtomicInteger recordCount = new AtomicInteger(0);
+    private final AtomicInteger maxGeneration = new AtomicInteger(0);
+
+    private static class Segment {
+        private final AtomicIntegerArray mothers = new AtomicIntegerArray(SEGMENT_SIZE);
+        private final AtomicIntegerArray fathers = new AtomicIntegerArray(SEGMENT_SIZE);
+        // Generation plus one, 0 means no hedgehog of that id was recorded.
+        private final AtomicIntegerArray generations = new AtomicIntegerArray(SEGMENT_SIZE);
+        private final AtomicLongArray dead = new AtomicLongArray(SEGMENT_SIZE / Long.SIZE);
+    }
+
+    /**
+     * @return the generation of the hedgehog, 0 for a founder, or -1 if it was never recorded
+     */
+    public int getGeneration(int id) {
+        Segment segment = segmentFor(id);
+        return segment == null ? -1 : segment.generations.get(offset(id)) - 1;
+    }
+
+    public int getMaxGeneration() {
+        return maxGeneration.get();
+    }
+
+    public int getRecordCount() {
+        return recordCount.get();
+    }
+
+    /**
+     * Copies every record without holding anybody off. Births and deaths happening meanwhile may or may not
+     * be included; taken once actors have stopped, the copy is exact.
+     */
+    public GenealogySnapshot snapshot() {
+        int limit = idLimit.get();
+        int[] mothers = new int[limit];
+        int[] fathers = new int[limit];
+        int[] generations = new int[limit];
+        Arrays.fill(generations, -1);
+        long[] living = new long[(limit + Long.SIZE - 1) / Long.SIZE];
+        for (int id = 1; id < limit; id++) {
+            Segment segment = segmentFor(id);
+            if (segment == null) {
+                id += SEGMENT_SIZE - offset(id) - 1;
+                continue;
+            }
+            int offset = offset(id);
+            generations[id] = segment.generations.get(offset) - 1;
+            if (generations[id] >= 0) {
+                mothers[id] = segment.mothers.get(offset);
+                fathers[id] = segment.fathers.get(offset);
+                if ((segment.dead.get(offset / Long.SIZE) & (1L << offset)) == 0) {
+                    living[id / Long.SIZE] |= 1L << id;
+                }
+            }
+        }
+        return new GenealogySnapshot(mothers, fathers, generations, living);
+    }
+
+    /**
+     * Records a founder.
+     */
+    void onBorn(int id) {
+        record(id, 0, 0, 0);
+    }
+
+    /**
+     * Records a hedgehog born to the given parents, which must be recorded already.
+     */
+    void onBorn(int id, int motherId, int fatherId) {
+        int generation = Math.max(getGeneration(motherId), getGeneration(fatherId)) + 1;
+        record(id, motherId, fatherId, generation);
+    }
+
+    void onDied(int id) {
+        int offset = offset(id);
+        segmentFor(id).dead.getAndAccumulate(offset / Long.SIZE, 1L << offset, (bits, bit) -> bits | bit);
+    }
+
+    private void record(int id, int motherId, int fatherId, int generation) {
+        Segment segment = segmentForWrite(id);
+        int offset = offset(id);
+        segment.mothers.set(offset, motherId);
+        segment.fathers.set(offset, fatherId);
+        // Written last, as it marks the record complete.
+        segment.generations.set(offset, generation + 1);
+        idLimit.accumulateAndGet(id + 1, Math::max);
+        recordCount.incrementAndGet();
+        maxGeneration.accumulateAndGet(generation, Math::max);
+    }
+
+    private static int offset(int id) {
+        return id & (SEGMENT_SIZE - 1);
+    }
+
+    private Segment segmentFor(int id) {
+        int index = id >>> SEGMENT_BITS;
+        return index < MAX_SEGMENTS ? segments.get(index) : null;
+    }
+
+    private Segment segmentForWrite(int id) {
+        int index = id >>> SEGMENT_BITS;
+        if (index >= MAX_SEGMENTS) {
+            throw new IllegalStateException("Genealogy is out of hedgehog ids.");
+        }
+        Segment segment = segments.get(index);
+        if (segment == null) {
+            segments.compareAndSet(index, null, new Segment());
+            segment = segments.get(index);
+        }
+        return segment;
+    }
+}
@@ -0,0 +1,236 @@
+package manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable copy of a {@link Genealogy}, answering descendant queries without touching the den.
+ * A child always has a larger id than its parents, so descendants are found in one forward sweep over the ids
+ * instead of a graph walk: a hedgehog descends from a root if either parent is the root or descends from it.
+ * Roots are swept 64 at a time, each carrying one bit of a mask that spreads from parents to children,
+ * so a hedgehog related to a root through both parents is still counted once.
+ * Each sweep covers every id above its roots, so the dominant lineages are not found by sweeping every founder:
+ * one backward pass bounds every founder's count from above, and only the founders whose bound could still
+ * place them among the leaders are counted exactly.
+ */
+public class GenealogySnapshot {
+    private static final int ROOTS_PER_SWEEP = Long.SIZE;
+
+    private final int[] mothers;
+    private final int[] fathers;
+    // -1 for ids never recorded.
+    private final int[] generations;
+    private final long[] living;
+
+    GenealogySnapshot(int[] mothers, int[] fathers, int[] generations, long[] living) {
+        this.mothers = mothers;
+        this.fathers = fathers;
+        this.generations = generations;
+        this.living = living;
+    }
+
+    /**
+     * @return one more than the highest id recorded
+     */
+    public int getIdLimit() {
+        return generations.length;
+    }
+
+    public boolean isRecorded(int id) {
+        return id > 0 && id < generations.length && generations[id] >= 0;
+    }
+
+    public boolean isAlive(int id) {
+        return isRecorded(id) && (living[id / Long.SIZE] & (1L << id)) != 0;
+    }
+
+    /**
+     * @return the mother's id, 0 for a founder
+     */
+    public int getMother(int id) {
+        return mothers[id];
+    }
+
+    /**
+     * @return the father's id, 0 for a founder
+     */
+    public int getFather(int id) {
+        return fathers[id];
+    }
+
+    /**
+     * @return the generation, 0 for a founder, or -1 if the id was never recorded
+     */
+    public int getGeneration(int id) {
+        return generations[id];
+    }
+
+    public int[] getFounders() {
+        return IntStream.range(1, generations.length).filter(id -> generations[id] == 0).toArray();
+    }
+
+    public int getLivingCount() {
+        int count = 0;
+        for (long word : living) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public double getMeanLivingGeneration() {
+        long sum = 0;
+        int count = 0;
+        for (int id = 1; id < generations.length; id++) {
+            if (isAlive(id)) {
+                sum += generations[id];
+                count++;
+            }
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public int countLivingDescendants(int id) {
+        return countLivingDescendants(new int[]{id})[0];
+    }
+
+    /**
+     * Counts the living descendants of every root, sweeping groups of roots in parallel.
+     * @return the counts, in the order of the roots
+     */
+    public int[] countLivingDescendants(int[] roots) {
+        int[] counts = new int[roots.length];
+        int groupCount = (roots.length + ROOTS_PER_SWEEP - 1) / ROOTS_PER_SWEEP;
+        IntStream.range(0, groupCount).parallel().forEach(group -> {
+            int from = group * ROOTS_PER_SWEEP;
+            int to = Math.min(roots.length, from + ROOTS_PER_SWEEP);
+            sweep(roots, from, to, counts);
+        });
+        return counts;
+    }
+
+    /**
+     * @return the founders with at least one living descendant
+     */
+    public int countFoundersWithLivingDescendants() {
+        int[] bounds = descendantBounds();
+        int count = 0;
+        for (int id = 1; id < generations.length; id++) {
+            if (generations[id] == 0 && bounds[id] > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the founders with the most living descendants. Founders are counted exactly in descending order
+     * of their bound, a group of sweeps at a time, until no founder left could beat the ones found.
+     * @return at most count lineages with living descendants, the largest first
+     */
+    public Lineage[] getDominantLineages(int count) {
+        if (count <= 0) {
+            return new Lineage[0];
+        }
+        int[] bounds = descendantBounds();
+        int living = getLivingCount();
+        // Founders ordered by descending bound, then by id: the bound's complement in the high half, the id below.
+        long[] candidates = IntStream.range(1, generations.length)
+                .filter(id -> generations[id] == 0 && bounds[id] > 0)
+                .mapToLong(id -> ((long) (living - bounds[id]) << Integer.SIZE) | id)
+                .sorted()
+                .toArray();
+        int groupSize = ROOTS_PER_SWEEP * Runtime.getRuntime().availableProcessors();
+        List<Lineage> found = new ArrayList<>();
+        for (int next = 0; next < candidates.length; next += groupSize) {
+            int nextBound = living - (int) (candidates[next] >>> Integer.SIZE);
+            if (found.size() >= count && found.get(count - 1).livingDescendants() >= nextBound) {
+                break;
+            }
+            int[] roots = Arrays.stream(candidates, next, Math.min(candidates.length, next + groupSize))
+                    .mapToInt(candidate -> (int) candidate)
+                    .toArray();
+            int[] counts = countLivingDescendants(roots);
+            for (int i = 0; i < roots.length; i++) {
+                if (counts[i] > 0) {
+                    found.add(new Lineage(roots[i], counts[i]));
+                }
+            }
+            found.sort(Comparator.comparingInt(Lineage::livingDescendants).reversed()
+                    .thenComparingInt(Lineage::founder));
+        }
+        return found.subList(0, Math.min(count, found.size())).toArray(new Lineage[0]);
+    }
+
+    public record Lineage(int founder, int livingDescendants) {
+    }
+
+    /**
+     * Upper bounds on the living descendants of every id, in one pass from the youngest id back: a hedgehog adds
+     * itself, if alive, and its own bound to each parent. A descendant reached along several lines of ancestry is
+     * counted once per line, so bounds are exact where lines never rejoin; they are capped at the living count.
+     * A bound is 0 exactly when there are no living descendants.
+     */
+    private int[] descendantBounds() {
+        int living = getLivingCount();
+        int[] bounds = new int[generations.length];
+        for (int id = generations.length - 1; id > 0; id--) {
+            if (generations[id] <= 0) {
+                continue;
+            }
+            int contribution = Math.min(living, bounds[id] + (isAlive(id) ? 1 : 0));
+            if (contribution > 0) {
+                bounds[mothers[id]] = Math.min(living, bounds[mothers[id]] + contribution);
+                bounds[fathers[id]] = Math.min(living, bounds[fathers[id]] + contribution);
+            }
+        }
+        return bounds;
+    }
+
+    // Each group writes only its own slice of the counts.
+    private void sweep(int[] roots, int from, int to, int[] counts) {
+        int first = Arrays.stream(roots, from, to).min().orElseThrow();
+        if (!isRecorded(first)) {
+            throw new IllegalArgumentException("Hedgehog " + first + " is not in the genealogy.");
+        }
+        // Bit k of masks[id - first] is set if id is roots[from + k] or descends from it.
+        long[] masks = new long[generations.length - first];
+        for (int k = 0; k < to - from; k++) {
+            if (!isRecorded(roots[from + k])) {
+                throw new IllegalArgumentException("Hedgehog " + roots[from + k] + " is not in the genealogy.");
+            }
+            masks[roots[from + k] - first] |= 1L << k;
+        }
+        for (int id = first; id < generations.length; id++) {
+            if (generations[id] <= 0) {
+                continue;
+            }
+            long mask = masks[id - first] | maskOf(masks, mothers[id], first) | maskOf(masks, fathers[id], first);
+            masks[id - first] = mask;
+            if (isAlive(id)) {
+                // A root does not descend from itself.
+                long descendantOf = mask & ~ownBits(roots, from, to, id);
+                while (descendantOf != 0) {
+                    counts[from + Long.numberOfTrailingZeros(descendantOf)]++;
+                    descendantOf &= descendantOf - 1;
+                }
+            }
+        }
+    }
+
+    private static long maskOf(long[] masks, int parent, int first) {
+        return parent >= first ? masks[parent - first] : 0;
+    }
+
+    private static long ownBits(int[] roots, int from, int to, int id) {
+        long bits = 0;
+        for (int k = 0; k < to - from; k++) {
+            if (roots[from + k] == id) {
+                bits |= 1L << k;
+            }
+        }
+        return bits;
+    }
+}
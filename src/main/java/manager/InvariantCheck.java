@@ -0,0 +1,14 @@
+package manager;
+
+/**
+ * Outcome of one online invariant check, see {@link DenManager#checkInvariants(int, int)}.
+ * @param violation the first invariant found broken, null if all held
+ * @param nextPosition where the next check continues the reservation bookkeeping, 0 to start over
+ * @param pauseNanos how long changes to the colony were held off to confirm an imbalance, 0 if none was found
+ */
+public record InvariantCheck(String violation, int nextPosition, long pauseNanos) {
+
+    public boolean passed() {
+        return violation == null;
+    }
+}
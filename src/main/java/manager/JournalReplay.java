@@ -0,0 +1,350 @@
+package manager;
+
+import config.ConfigParameters;
+import config.HedgehogNameManager;
+import lombok.Getter;
+import model.Hedgehog;
+import model.Sex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Rebuilds a colony from an {@link EventJournal}, event by event in sequence order.
+ * Most events carry the value the den reported when they happened, e.g. the tick count after a new tick,
+ * so the replay notices the first event that does not follow from the ones before it.
+ * The file is read through memory mapping, region by region, merging the regions' records by sequence number.
+ */
+public class JournalReplay {
+    private static final Sex[] SEXES = Sex.values();
+    // Regions are mapped in chunks of at most this size.
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+
+    // Replayed hedgehogs by id; a sex of 0 means no living hedgehog, otherwise it is the ordinal plus one.
+    private byte[] sexes = new byte[1024];
+    private long[] nameCodes = new long[1024];
+    private int[] tickCounts = new int[1024];
+    private int[] offspringCounts = new int[1024];
+    private int[] warriorLevels = new int[1024];
+    private long[] lastSequences = new long[1024];
+    private final Map<Short, String> reasons = new HashMap<>();
+
+    @Getter
+    private final Path journal;
+    // False if the journal was never closed, e.g. after a crash; everything that reached the file is replayed.
+    @Getter
+    private boolean closedCleanly;
+    @Getter
+    private long eventCount = 0;
+    @Getter
+    private long missingEventCount = 0;
+    @Getter
+    private int population = 0;
+    @Getter
+    private int maleCount = 0;
+    @Getter
+    private int femaleCount = 0;
+    @Getter
+    private long totalTicks = 0;
+    @Getter
+    private long births = 0;
+    @Getter
+    private long deaths = 0;
+    @Getter
+    private long divergenceCount = 0;
+    @Getter
+    private String firstDivergence;
+    private final Map<String, Long> deathsByReason = new HashMap<>();
+    private long lastSequence = 0;
+
+    private JournalReplay(Path journal) {
+        this.journal = journal;
+    }
+
+    public static JournalReplay replay(Path journal) throws IOException {
+        JournalReplay replay = new JournalReplay(journal);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            replay.replayFrom(channel);
+        }
+        return replay;
+    }
+
+    public Map<String, Long> getDeathsByReason() {
+        return Map.copyOf(deathsByReason);
+    }
+
+    /**
+     * Compares the replayed colony with a checkpoint written when the journal ended, hedgehog by hedgehog.
+     * @return a description of the first difference, with the last event of the hedgehog concerned, or null if they match
+     */
+    public String compareWithCheckpoint(Path checkpointFile) throws IOException {
+        ColonyCheckpoint checkpoint = ColonyCheckpoint.read(checkpointFile, ConfigParameters.CHECKPOINT_MMAP_THRESHOLD_BYTES);
+        boolean[] seen = new boolean[sexes.length];
+        String[] firstDifference = new String[1];
+        checkpoint.forEachHedgehog(hedgehog -> {
+            if (firstDifference[0] != null) {
+                return;
+            }
+            int id = hedgehog.getId();
+            if (id >= sexes.length || sexes[id] == 0) {
+                firstDifference[0] = describe(hedgehog) + " is in the checkpoint but not alive in the journal"
+                        + lastEventOf(id) + ".";
+                return;
+            }
+            seen[id] = true;
+            if (tickCounts[id] != hedgehog.getTickCount()
+                    || offspringCounts[id] != hedgehog.getOffspringCount()
+                    || warriorLevels[id] != hedgehog.getSeasonedWarriorLevel()
+                    || nameCodes[id] != hedgehog.getNameCode()
+                    || sexes[id] != hedgehog.getSex().ordinal() + 1) {
+                firstDifference[0] = describe(hedgehog) + " has " + hedgehog.getTickCount() + " ticks, "
+                        + hedgehog.getOffspringCount() + " offspring and warrior level " + hedgehog.getSeasonedWarriorLevel()
+                        + " in the checkpoint, but " + tickCounts[id] + ", " + offspringCounts[id] + " and "
+                        + warriorLevels[id] + " in the journal, last changed by event " + lastSequences[id] + ".";
+            }
+        });
+        if (firstDifference[0] != null) {
+            return firstDifference[0];
+        }
+        for (int id = 1; id < sexes.length; id++) {
+            if (sexes[id] != 0 && !seen[id]) {
+                return "Hedgehog #" + id + " is alive in the journal but not in the checkpoint" + lastEventOf(id) + ".";
+            }
+        }
+        return null;
+    }
+
+    private void replayFrom(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(EventJournal.HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Keep reading until the header is complete or the file ends.
+        }
+        if (header.hasRemaining() || header.getLong(0) != EventJournal.MAGIC) {
+            throw new IOException("Not an event journal: " + journal);
+        }
+        int version = header.getInt(8);
+        if (version != EventJournal.FORMAT_VERSION) {
+            throw new IOException("Unsupported event journal format version " + version + " in " + journal);
+        }
+        int regionBytes = header.getInt(12);
+        long recordCount = header.getLong(16);
+        long regionCount = header.getLong(24);
+        if (regionBytes < EventJournal.RECORD_BYTES || regionBytes % EventJournal.RECORD_BYTES != 0) {
+            throw new IOException("Event journal " + journal + " is corrupt.");
+        }
+        closedCleanly = regionCount > 0 || recordCount > 0;
+        long fileRegions = (channel.size() - EventJournal.HEADER_BYTES) / regionBytes;
+        if (!closedCleanly) {
+            regionCount = fileRegions;
+        } else if (regionCount > fileRegions) {
+            throw new IOException("Event journal " + journal + " is truncated.");
+        }
+
+        PriorityQueue<RegionCursor> cursors = new PriorityQueue<>();
+        long regionsPerChunk = Math.max(1, MAX_CHUNK_BYTES / regionBytes);
+        for (long first = 0; first < regionCount; first += regionsPerChunk) {
+            long regionsInChunk = Math.min(regionsPerChunk, regionCount - first);
+            ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY,
+                    EventJournal.HEADER_BYTES + first * regionBytes, regionsInChunk * regionBytes);
+            for (int region = 0; region < regionsInChunk; region++) {
+                RegionCursor cursor = new RegionCursor(chunk.slice(region * regionBytes, regionBytes));
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+        }
+        while (!cursors.isEmpty()) {
+            RegionCursor cursor = cursors.poll();
+            apply(cursor.region, cursor.offset, cursor.sequence);
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        if (closedCleanly && lastSequence < recordCount) {
+            missingEventCount += recordCount - lastSequence;
+            diverge(recordCount, "events " + (lastSequence + 1) + " to " + recordCount + " never reached the journal.");
+        }
+    }
+
+    private void apply(ByteBuffer region, int offset, long sequence) {
+        eventCount++;
+        if (sequence != lastSequence + 1) {
+            missingEventCount += sequence - lastSequence - 1;
+            diverge(sequence, "events " + (lastSequence + 1) + " to " + (sequence - 1) + " are missing.");
+        }
+        lastSequence = sequence;
+
+        EventJournal.Type type = EventJournal.Type.of(region.get(offset + EventJournal.TYPE));
+        byte sex = region.get(offset + EventJournal.SEX);
+        short detail = region.getShort(offset + EventJournal.DETAIL);
+        int id = region.getInt(offset + EventJournal.ID);
+        int value = region.getInt(offset + EventJournal.VALUE);
+        int secondValue = region.getInt(offset + EventJournal.SECOND_VALUE);
+        if (type == null) {
+            diverge(sequence, "unknown event type " + region.get(offset + EventJournal.TYPE) + ".");
+            return;
+        }
+        if (type == EventJournal.Type.REASON) {
+            byte[] text = new byte[Math.min(sex, EventJournal.MAX_REASON_BYTES)];
+            region.get(offset + EventJournal.REASON_TEXT, text);
+            reasons.put(detail, new String(text, StandardCharsets.UTF_8));
+            return;
+        }
+        if (id < 1) {
+            diverge(sequence, type + " of invalid hedgehog #" + id + ".");
+            return;
+        }
+        if (type == EventJournal.Type.BORN || type == EventJournal.Type.RESTORED) {
+            ensureCapacity(id);
+            if (sexes[id] != 0) {
+                diverge(sequence, type + " of " + describe(id) + ", who is already alive.");
+                return;
+            }
+            if (sex < 1 || sex > SEXES.length) {
+                diverge(sequence, type + " of hedgehog #" + id + " with invalid sex " + sex + ".");
+                return;
+            }
+            boolean restored = type == EventJournal.Type.RESTORED;
+            sexes[id] = sex;
+            nameCodes[id] = region.getLong(offset + EventJournal.NAME_CODE);
+            tickCounts[id] = restored ? value : 0;
+            offspringCounts[id] = restored ? secondValue : 0;
+            warriorLevels[id] = restored ? detail : 0;
+            lastSequences[id] = sequence;
+            population++;
+            if (SEXES[sex - 1] == Sex.FEMALE) {
+                femaleCount++;
+            } else {
+                maleCount++;
+            }
+            totalTicks += tickCounts[id];
+            if (!restored) {
+                births++;
+            }
+            return;
+        }
+        if (id >= sexes.length || sexes[id] == 0) {
+            diverge(sequence, type + " of hedgehog #" + id + ", who is not alive" + lastEventOf(id) + ".");
+            return;
+        }
+        switch (type) {
+            case DIED -> {
+                expect(sequence, type, id, "ticks", tickCounts[id], value);
+                expect(sequence, type, id, "offspring", offspringCounts[id], secondValue);
+                String reason = reasons.getOrDefault(detail, "for an unknown reason");
+                deathsByReason.merge(reason, 1L, Long::sum);
+                population--;
+                if (SEXES[sexes[id] - 1] == Sex.FEMALE) {
+                    femaleCount--;
+                } else {
+                    maleCount--;
+                }
+                totalTicks -= tickCounts[id];
+                deaths++;
+                sexes[id] = 0;
+            }
+            case TICK_ADDED -> {
+                expect(sequence, type, id, "ticks", tickCounts[id] + 1, value);
+                totalTicks += value - tickCounts[id];
+                tickCounts[id] = value;
+            }
+            case TICKS_REMOVED -> {
+                expect(sequence, type, id, "ticks", tickCounts[id], value);
+                totalTicks -= tickCounts[id];
+                tickCounts[id] = 0;
+            }
+            case OFFSPRING -> {
+                expect(sequence, type, id, "offspring", offspringCounts[id] + 1, value);
+                offspringCounts[id] = value;
+            }
+            case WARRIOR_LEVEL_UP -> {
+                expect(sequence, type, id, "warrior level", warriorLevels[id] + 1, value);
+                warriorLevels[id] = value;
+            }
+            case RETURNED_FROM_WAR -> {
+                // Changes nothing, kept for the story.
+            }
+            default -> diverge(sequence, "unexpected " + type + " event.");
+        }
+        lastSequences[id] = sequence;
+    }
+
+    /**
+     * Reports a recorded value that does not follow from the replay so far. The recorded value is taken,
+     * so later events are checked against what the den actually did.
+     */
+    private void expect(long sequence, EventJournal.Type type, int id, String what, int replayed, int recorded) {
+        if (replayed != recorded) {
+            diverge(sequence, type + " of " + describe(id) + " recorded " + recorded + " " + what + ", the replay expected "
+                    + replayed + " (previous event of this hedgehog: " + lastSequences[id] + ").");
+        }
+    }
+
+    private void diverge(long sequence, String description) {
+        divergenceCount++;
+        if (firstDivergence == null) {
+            firstDivergence = "Event " + sequence + ": " + description;
+        }
+    }
+
+    private String describe(int id) {
+        return describe(new Hedgehog(id, nameCodes[id], SEXES[sexes[id] - 1]));
+    }
+
+    private static String describe(Hedgehog hedgehog) {
+        return HedgehogNameManager.nameOf(hedgehog.getSex(), hedgehog.getNameCode()) + " (#" + hedgehog.getId() + ")";
+    }
+
+    private String lastEventOf(int id) {
+        return id < lastSequences.length && lastSequences[id] > 0 ? " (last event: " + lastSequences[id] + ")" : "";
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < sexes.length) {
+            return;
+        }
+        int capacity = Math.max(sexes.length * 2, id + 1);
+        sexes = Arrays.copyOf(sexes, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        tickCounts = Arrays.copyOf(tickCounts, capacity);
+        offspringCounts = Arrays.copyOf(offspringCounts, capacity);
+        warriorLevels = Arrays.copyOf(warriorLevels, capacity);
+        lastSequences = Arrays.copyOf(lastSequences, capacity);
+    }
+
+    /**
+     * Walks the records of one region, which are in sequence order.
+     */
+    private static class RegionCursor implements Comparable<RegionCursor> {
+        private final ByteBuffer region;
+        private int offset = -EventJournal.RECORD_BYTES;
+        private long sequence;
+
+        RegionCursor(ByteBuffer region) {
+            this.region = region;
+        }
+
+        boolean advance() {
+            offset += EventJournal.RECORD_BYTES;
+            if (offset + EventJournal.RECORD_BYTES > region.capacity()
+                    || region.get(offset + EventJournal.TYPE) == EventJournal.Type.NONE.ordinal()) {
+                return false;
+            }
+            sequence = region.getLong(offset + EventJournal.SEQUENCE);
+            return true;
+        }
+
+        @Override
+        public int compareTo(RegionCursor other) {
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
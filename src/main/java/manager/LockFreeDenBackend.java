@@ -0,0 +1,643 @@
+package manager;
+
+import config.ConfigParameters;
+import config.SimRandom;
+import model.Hedgehog;
+import model.Sex;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Backend where reservation state is a per-slot atomic word, so reserve and release are CAS flips.
+ * Hedgehogs live in slots allocated in fixed segments, so they never move once published, and an index by id,
+ * segmented the same way, finds a hedgehog's slot. An index segment is dropped once every id in it has come and gone,
+ * so the index follows the span of living ids rather than every id issued. A dead hedgehog's slot goes on a lock-free stack and is handed to the next
+ * newcomer, so slots, scans and sweeps follow the living population rather than every birth.
+ * Each state word carries its slot's generation, bumped as the slot is vacated, so a reserver that read
+ * the slot before it was reused fails its CAS instead of taking a hedgehog it never looked at.
+ * Free counters per category tell reservers whether a candidate exists, and a bitmap per category and segment
+ * marks the slots that were free in it, so a reserver scans words rather than slots to find one; the lock is only taken
+ * to park when a counter reads zero, and by releasers when somebody is parked, who then hand
+ * the hedgehog straight to a matching parked reserver, see {@link WaitQueue}.
+ * NB! Counters move after the state flip, so they may briefly disagree with the slots;
+ * a reserver sweeps the bitmap once while a counter is positive, then parks and is woken by the next release.
+ * Bits are set before a slot turns free and cleared by whoever reserves it, so a free slot is always marked,
+ * while a marked slot may already be taken and is checked like any other candidate.
+ */
+class LockFreeDenBackend implements DenBackend {
+    private static final int EMPTY = 0;
+    private static final int FREE = 1;
+    private static final int RESERVED = 2;
+    private static final int DEAD = 3;
+    private static final int STATE_BITS = 2;
+    private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+    private static final int NEXT_GENERATION = 1 << STATE_BITS;
+
+    private static final int SEGMENT_BITS = 10;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int MAX_SEGMENTS = 1 << 16;
+    private static final ReservationCategory[] CATEGORIES = ReservationCategory.values();
+    private static final int ID_SEGMENT_BITS = 14;
+    private static final int ID_SEGMENT_SIZE = 1 << ID_SEGMENT_BITS;
+    private static final int MAX_ID_SEGMENTS = 1 << (31 - ID_SEGMENT_BITS);
+
+    private final AtomicReferenceArray<Segment> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    // Slots ever handed out, the most hedgehogs alive at once; bounds the candidate scan.
+    private final AtomicInteger slotLimit = new AtomicInteger(0);
+    private final AtomicReferenceArray<IdSegment> slotsById = new AtomicReferenceArray<>(MAX_ID_SEGMENTS);
+    // Top of the free-slot stack plus one in the low half, 0 when empty; a push count in the high half guards against ABA.
+    private final AtomicLong freeSlotTop = new AtomicLong(0);
+    private final AtomicInteger hedgehogCount = new AtomicInteger(0);
+
+    private final AtomicInteger freeHedgehogs = new AtomicInteger(0);
+    private final AtomicInteger freeFemaleHedgehogs = new AtomicInteger(0);
+    private final AtomicInteger freeMaleHedgehogs = new AtomicInteger(0);
+    private final AtomicInteger freeSeasonedWarriors = new AtomicInteger(0);
+    private final AtomicInteger freeHedgehogsAboveTickThreshold = new AtomicInteger(0);
+
+    private final ProfiledLock parkingLock;
+    private final WaitQueue waitQueue;
+    private final AtomicInteger parkedCount = new AtomicInteger(0);
+
+    private final SimulationStats stats;
+    private static final Logger logger = LogManager.getLogger(LockFreeDenBackend.class);
+
+    LockFreeDenBackend(SimulationStats stats, LockProfile profile) {
+        this.stats = stats;
+        this.parkingLock = new ProfiledLock(stats, profile);
+        this.waitQueue = new WaitQueue(parkingLock);
+    }
+
+    private static class Segment {
+        private final AtomicReferenceArray<Hedgehog> hedgehogs = new AtomicReferenceArray<>(SEGMENT_SIZE);
+        // Generation, shifted, plus state.
+        private final AtomicIntegerArray states = new AtomicIntegerArray(SEGMENT_SIZE);
+        // Next slot down the free-slot stack plus one, for vacated slots.
+        private final AtomicIntegerArray nextFreeSlots = new AtomicIntegerArray(SEGMENT_SIZE);
+        // By category ordinal, a bit per slot; FAIRY marks seasoned warriors.
+        private final AtomicLongArray[] freeBits = new AtomicLongArray[CATEGORIES.length];
+
+        private Segment() {
+            for (int i = 0; i < freeBits.length; i++) {
+                freeBits[i] = new AtomicLongArray(SEGMENT_SIZE / Long.SIZE);
+            }
+        }
+    }
+
+    private static class IdSegment {
+        // Slot plus one by id, 0 for an id not in the den.
+        private final AtomicIntegerArray slots = new AtomicIntegerArray(ID_SEGMENT_SIZE);
+        // Ids ever mapped and ids mapped now. Ids are never reused, so a segment with every id mapped
+        // once and none left will not be needed again.
+        private final AtomicInteger everMapped = new AtomicInteger(0);
+        private final AtomicInteger mapped = new AtomicInteger(0);
+    }
+
+    @Override
+    public void addHedgehog(Hedgehog hedgehog) {
+        int id = hedgehog.getId();
+        if (slotOf(id) != -1) {
+            throw new IllegalStateException("Hedgehog " + id + " is already in the den.");
+        }
+        int slot = takeFreeSlot();
+        Segment segment = segmentForWrite(slot);
+        int offset = slot & (SEGMENT_SIZE - 1);
+        if ((segment.states.get(offset) & STATE_MASK) != EMPTY) {
+            throw new IllegalStateException("Hedgehog slot " + slot + " is already in use.");
+        }
+        segment.hedgehogs.set(offset, hedgehog);
+        mapSlot(id, slot);
+        hedgehogCount.incrementAndGet();
+        handOverOrFree(slot, hedgehog, EMPTY);
+    }
+
+    @Override
+    public int reserve(ReservationCategory category) throws InterruptedException {
+        int ticket = tryReserve(category);
+        return ticket != -1 ? ticket : park(category, 0);
+    }
+
+    @Override
+    public int reserve(ReservationCategory category, long timeoutNanos) throws InterruptedException {
+        int ticket = tryReserve(category);
+        return ticket != -1 || timeoutNanos <= 0 ? ticket : park(category, timeoutNanos);
+    }
+
+    /**
+     * Sweeps the bitmap once at most: a counter that stays positive through a failed sweep is only lagging
+     * a reservation, so the caller parks rather than spinning until it catches up.
+     */
+    @Override
+    public int tryReserve(ReservationCategory category) {
+        ReservationCategory target = resolve(category);
+        return target == null ? -1 : findAndReserve(target);
+    }
+
+    @Override
+    public void release(int ticket) {
+        int slot = reservedSlot(ticket, "release");
+        handOverOrFree(slot, hedgehogAt(slot), RESERVED);
+    }
+
+    @Override
+    public Hedgehog remove(int ticket) {
+        int slot = reservedSlot(ticket, "kill");
+        Segment segment = segmentFor(slot);
+        int offset = slot & (SEGMENT_SIZE - 1);
+        int word = segment.states.get(offset);
+        Hedgehog hedgehog = segment.hedgehogs.get(offset);
+        if ((word & STATE_MASK) != RESERVED || !segment.states.compareAndSet(offset, word, word - RESERVED + DEAD)) {
+            throw invalidReservation("kill");
+        }
+        unmapSlot(ticket);
+        segment.hedgehogs.set(offset, null);
+        // The next generation starts empty, any reserver still holding the old word fails its CAS.
+        segment.states.set(offset, (word & ~STATE_MASK) + NEXT_GENERATION + EMPTY);
+        hedgehogCount.decrementAndGet();
+        pushFreeSlot(slot);
+        return hedgehog;
+    }
+
+    @Override
+    public Hedgehog getReservedHedgehog(int ticket, String context) {
+        return hedgehogAt(reservedSlot(ticket, context));
+    }
+
+    // The slot of a hedgehog the caller holds reserved.
+    private int reservedSlot(int ticket, String context) {
+        int slot = slotOf(ticket);
+        if (slot == -1) {
+            throw invalidReservation(context);
+        }
+        Segment segment = segmentFor(slot);
+        int offset = slot & (SEGMENT_SIZE - 1);
+        Hedgehog hedgehog = segment.hedgehogs.get(offset);
+        if (hedgehog == null || hedgehog.getId() != ticket || (segment.states.get(offset) & STATE_MASK) != RESERVED) {
+            throw invalidReservation(context);
+        }
+        return slot;
+    }
+
+    private Hedgehog hedgehogAt(int slot) {
+        return segmentFor(slot).hedgehogs.get(slot & (SEGMENT_SIZE - 1));
+    }
+
+    // A reserved hedgehog is only touched by its holder, the next reserver sees the changes through the CAS.
+    @Override
+    public int addTick(int ticket) {
+        Hedgehog hedgehog = getReservedHedgehog(ticket, "add a tick to");
+        hedgehog.addATick();
+        return hedgehog.getTickCount();
+    }
+
+    @Override
+    public Hedgehog removeAllTicks(int ticket) {
+        Hedgehog hedgehog = getReservedHedgehog(ticket, "remove ticks from");
+        Hedgehog before = hedgehog.copy();
+        hedgehog.removeAllTicks();
+        return before;
+    }
+
+    @Override
+    public void incrementOffspringCount(int ticket) {
+        getReservedHedgehog(ticket, "mate").incrementOffspringCount();
+    }
+
+    @Override
+    public int incrementSeasonedWarriorLevel(int ticket) {
+        Hedgehog hedgehog = getReservedHedgehog(ticket, "send to war");
+        hedgehog.incrementSeasonedWarriorLevel();
+        return hedgehog.getSeasonedWarriorLevel();
+    }
+
+    /**
+     * Blocks for the first hedgehog only, the rest of the batch is whatever else is free right now.
+     */
+    @Override
+    public int[] reserveBatch(ReservationCategory category, int maxCount) throws InterruptedException {
+        return fillBatch(category, maxCount, reserve(category));
+    }
+
+    @Override
+    public int[] reserveBatch(ReservationCategory category, int maxCount, long timeoutNanos) throws InterruptedException {
+        int first = reserve(category, timeoutNanos);
+        return first == -1 ? new int[0] : fillBatch(category, maxCount, first);
+    }
+
+    // Adds whatever else is free at once to the first reserved ticket.
+    private int[] fillBatch(ReservationCategory category, int maxCount, int first) {
+        int[] tickets = new int[maxCount];
+        tickets[0] = first;
+        int count = 1;
+        while (count < maxCount) {
+            int ticket = tryReserve(category);
+            if (ticket == -1) {
+                break;
+            }
+            tickets[count++] = ticket;
+        }
+        return count == maxCount ? tickets : Arrays.copyOf(tickets, count);
+    }
+
+    @Override
+    public void releaseBatch(int[] tickets) {
+        for (int ticket : tickets) {
+            release(ticket);
+        }
+    }
+
+    @Override
+    public Hedgehog[] removeBatch(int[] tickets) {
+        Hedgehog[] removed = new Hedgehog[tickets.length];
+        for (int i = 0; i < tickets.length; i++) {
+            removed[i] = remove(tickets[i]);
+        }
+        return removed;
+    }
+
+    @Override
+    public int[] addTicks(int[] tickets) {
+        int[] tickCounts = new int[tickets.length];
+        for (int i = 0; i < tickets.length; i++) {
+            tickCounts[i] = addTick(tickets[i]);
+        }
+        return tickCounts;
+    }
+
+    @Override
+    public Hedgehog[] removeAllTicks(int[] tickets) {
+        Hedgehog[] before = new Hedgehog[tickets.length];
+        for (int i = 0; i < tickets.length; i++) {
+            before[i] = removeAllTicks(tickets[i]);
+        }
+        return before;
+    }
+
+    @Override
+    public int getHedgehogCount() {
+        return hedgehogCount.get();
+    }
+
+    @Override
+    public long getTotalTicks() {
+        long sum = 0;
+        int limit = slotLimit.get();
+        for (int slot = 0; slot < limit; slot++) {
+            Segment segment = segmentFor(slot);
+            Hedgehog hedgehog = segment == null ? null : segment.hedgehogs.get(slot & (SEGMENT_SIZE - 1));
+            if (hedgehog != null) {
+                sum += hedgehog.getTickCount();
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public void forEachHedgehog(Consumer<Hedgehog> visitor) {
+        int limit = slotLimit.get();
+        for (int slot = 0; slot < limit; slot++) {
+            Segment segment = segmentFor(slot);
+            Hedgehog hedgehog = segment == null ? null : segment.hedgehogs.get(slot & (SEGMENT_SIZE - 1));
+            if (hedgehog != null) {
+                visitor.accept(hedgehog.copy());
+            }
+        }
+    }
+
+    /**
+     * Positions are slots. Counters may legitimately lag the slots, so only slot states are checked: a slot seen
+     * free or reserved in the same generation before and after reading it must hold a hedgehog that the id index
+     * leads back to, since a hedgehog is published and mapped before its first state flip and unmapped and cleared
+     * only after the terminal DEAD one.
+     */
+    @Override
+    public int checkReservations(int from, int maxCount, Consumer<String> violations) {
+        int limit = slotLimit.get();
+        int end = Math.min(limit, from + maxCount);
+        for (int slot = from; slot < end; slot++) {
+            Segment segment = segmentFor(slot);
+            if (segment == null) {
+                continue;
+            }
+            int offset = slot & (SEGMENT_SIZE - 1);
+            int before = segment.states.get(offset);
+            Hedgehog hedgehog = segment.hedgehogs.get(offset);
+            int mapped = hedgehog == null ? -1 : slotOf(hedgehog.getId());
+            int after = segment.states.get(offset);
+            if (before != after || !isHeld(after & STATE_MASK)) {
+                continue;
+            }
+            String state = (after & STATE_MASK) == FREE ? "free" : "reserved";
+            if (hedgehog == null) {
+                violations.accept("Hedgehog slot " + slot + " is " + state + " but empty");
+            } else if (mapped != slot) {
+                violations.accept("Hedgehog slot " + slot + " is " + state + " but hedgehog " + hedgehog.getId()
+                        + " is mapped to " + (mapped == -1 ? "no slot" : "slot " + mapped));
+            }
+        }
+        return end < limit ? end : 0;
+    }
+
+    private static boolean isHeld(int state) {
+        return state == FREE || state == RESERVED;
+    }
+
+    // Picks the pool a reservation should draw from right now, or null if it has to park.
+    private ReservationCategory resolve(ReservationCategory category) {
+        return switch (category) {
+            case ANY -> freeHedgehogs.get() > 0 ? category : null;
+            case FEMALE -> freeFemaleHedgehogs.get() > 0 ? category : null;
+            case MALE -> freeMaleHedgehogs.get() > 0 ? category : null;
+            case ABOVE_TICK_THRESHOLD -> freeHedgehogsAboveTickThreshold.get() > 0 ? category : null;
+            case FAIRY -> freeSeasonedWarriors.get() > 0 ? ReservationCategory.FAIRY
+                    : freeMaleHedgehogs.get() > 0 ? ReservationCategory.MALE
+                    : freeHedgehogs.get() > 0 ? ReservationCategory.ANY
+                    : null;
+        };
+    }
+
+    // One sweep of the category's bitmap from a random word, trying each marked slot. FAIRY here means
+    // seasoned warriors only. Returns the reserved ticket or -1.
+    private int findAndReserve(ReservationCategory category) {
+        int wordCount = (slotLimit.get() + Long.SIZE - 1) / Long.SIZE;
+        if (wordCount == 0) {
+            return -1;
+        }
+        int start = SimRandom.current().nextInt(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            int firstSlot = (start + i) % wordCount * Long.SIZE;
+            Segment segment = segmentFor(firstSlot);
+            if (segment == null) {
+                continue;
+            }
+            long marked = segment.freeBits[category.ordinal()].get((firstSlot & (SEGMENT_SIZE - 1)) / Long.SIZE);
+            while (marked != 0) {
+                int ticket = tryReserveSlot(firstSlot + Long.numberOfTrailingZeros(marked), category);
+                if (ticket != -1) {
+                    return ticket;
+                }
+                marked &= marked - 1;
+            }
+        }
+        return -1;
+    }
+
+    private int tryReserveSlot(int slot, ReservationCategory category) {
+        Segment segment = segmentFor(slot);
+        if (segment == null) {
+            return -1;
+        }
+        int offset = slot & (SEGMENT_SIZE - 1);
+        int word = segment.states.get(offset);
+        if ((word & STATE_MASK) != FREE) {
+            return -1;
+        }
+        Hedgehog hedgehog = segment.hedgehogs.get(offset);
+        // Fields of a free hedgehog are stable, its last releaser published them with the state flip.
+        // The CAS fails if the slot was vacated and reused since the word was read, whatever the hedgehog read.
+        if (hedgehog == null || !matches(hedgehog, category)
+                || !segment.states.compareAndSet(offset, word, word - FREE + RESERVED)) {
+            return -1;
+        }
+        unmarkFree(segment, offset);
+        onReserved(hedgehog);
+        return hedgehog.getId();
+    }
+
+    private boolean matches(Hedgehog hedgehog, ReservationCategory category) {
+        return switch (category) {
+            case ANY -> true;
+            case FEMALE -> hedgehog.getSex() == Sex.FEMALE;
+            case MALE -> hedgehog.getSex() == Sex.MALE;
+            case ABOVE_TICK_THRESHOLD -> hedgehog.getTickCount() >= ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST;
+            case FAIRY -> hedgehog.isSeasonedWarrior();
+        };
+    }
+
+    private void onReserved(Hedgehog hedgehog) {
+        freeHedgehogs.decrementAndGet();
+        (hedgehog.getSex() == Sex.FEMALE ? freeFemaleHedgehogs : freeMaleHedgehogs).decrementAndGet();
+        if (hedgehog.isSeasonedWarrior()) {
+            freeSeasonedWarriors.decrementAndGet();
+        }
+        if (hedgehog.getTickCount() >= ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST) {
+            freeHedgehogsAboveTickThreshold.decrementAndGet();
+        }
+    }
+
+    // Marks the slot in the bitmap of every category the hedgehog suits, before it turns free.
+    private void markFree(int slot, Hedgehog hedgehog) {
+        Segment segment = segmentFor(slot);
+        int offset = slot & (SEGMENT_SIZE - 1);
+        markFree(segment, offset, ReservationCategory.ANY);
+        markFree(segment, offset, hedgehog.getSex() == Sex.FEMALE ? ReservationCategory.FEMALE : ReservationCategory.MALE);
+        if (hedgehog.isSeasonedWarrior()) {
+            markFree(segment, offset, ReservationCategory.FAIRY);
+        }
+        if (hedgehog.getTickCount() >= ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST) {
+            markFree(segment, offset, ReservationCategory.ABOVE_TICK_THRESHOLD);
+        }
+    }
+
+    private static void markFree(Segment segment, int offset, ReservationCategory category) {
+        segment.freeBits[category.ordinal()].getAndAccumulate(offset / Long.SIZE, 1L << offset, (bits, bit) -> bits | bit);
+    }
+
+    // Called by the reserver that took the slot. Clears every category, whatever the hedgehog suited when freed.
+    private static void unmarkFree(Segment segment, int offset) {
+        long bit = 1L << offset;
+        for (AtomicLongArray bits : segment.freeBits) {
+            if ((bits.get(offset / Long.SIZE) & bit) != 0) {
+                bits.getAndAccumulate(offset / Long.SIZE, ~bit, (word, mask) -> word & mask);
+            }
+        }
+    }
+
+    private void countFree(Hedgehog hedgehog) {
+        freeHedgehogs.incrementAndGet();
+        (hedgehog.getSex() == Sex.FEMALE ? freeFemaleHedgehogs : freeMaleHedgehogs).incrementAndGet();
+        if (hedgehog.isSeasonedWarrior()) {
+            freeSeasonedWarriors.incrementAndGet();
+        }
+        if (hedgehog.getTickCount() >= ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST) {
+            freeHedgehogsAboveTickThreshold.incrementAndGet();
+        }
+    }
+
+    /**
+     * Frees the hedgehog, or hands it straight to a parked reserver it suits, who then holds it reserved.
+     * @param from EMPTY for a new hedgehog, RESERVED for a released one
+     */
+    private void handOverOrFree(int slot, Hedgehog hedgehog, int from) {
+        if (parkedCount.get() > 0) {
+            parkingLock.lock();
+            try {
+                handOverOrFreeLocked(slot, hedgehog, from);
+            } finally {
+                parkingLock.unlock();
+            }
+            return;
+        }
+        markFree(slot, hedgehog);
+        moveState(slot, from, FREE);
+        countFree(hedgehog);
+        // A reserver may have registered since the check above and missed this hedgehog on its last look.
+        if (parkedCount.get() > 0) {
+            parkingLock.lock();
+            try {
+                waitQueue.wake(hedgehog.getSex(), hedgehog.getTickCount());
+            } finally {
+                parkingLock.unlock();
+            }
+        }
+    }
+
+    // Must be called with the parking lock held. Nobody it suits can be parked once it is counted free.
+    private void handOverOrFreeLocked(int slot, Hedgehog hedgehog, int from) {
+        if (waitQueue.handOver(hedgehog.getId(), hedgehog.getSex(), hedgehog.getTickCount())) {
+            moveState(slot, from, RESERVED);
+        } else {
+            markFree(slot, hedgehog);
+            moveState(slot, from, FREE);
+            countFree(hedgehog);
+        }
+    }
+
+    // Only the slot's holder moves it out of EMPTY or RESERVED, so the generation read stays current.
+    private void moveState(int slot, int from, int to) {
+        AtomicIntegerArray states = segmentFor(slot).states;
+        int offset = slot & (SEGMENT_SIZE - 1);
+        int word = states.get(offset);
+        if ((word & STATE_MASK) != from || !states.compareAndSet(offset, word, word - from + to)) {
+            if (from == EMPTY) {
+                throw new IllegalStateException("Hedgehog slot " + slot + " is already in use.");
+            }
+            throw invalidReservation("release");
+        }
+    }
+
+    // Waiters register and look once more under the lock, so a releaser either sees them or they see its counter.
+    // A non-positive timeout waits indefinitely, otherwise -1 is returned once it elapses.
+    private int park(ReservationCategory category, long timeoutNanos) throws InterruptedException {
+        long nanosLeft = timeoutNanos;
+        parkingLock.lock();
+        parkedCount.incrementAndGet();
+        WaitQueue.Waiter waiter = waitQueue.enqueue(category);
+        try {
+            while (waiter.getTicket() == -1) {
+                int ticket = tryReserve(category);
+                if (ticket != -1 || (timeoutNanos > 0 && nanosLeft <= 0)) {
+                    waitQueue.remove(waiter);
+                    return ticket;
+                }
+                stats.incrementConditionWait();
+                if (timeoutNanos <= 0) {
+                    waitQueue.await(waiter);
+                } else {
+                    nanosLeft = waitQueue.awaitNanos(waiter, nanosLeft);
+                }
+            }
+            return waiter.getTicket();
+        } catch (InterruptedException e) {
+            if (waiter.getTicket() == -1) {
+                waitQueue.remove(waiter);
+            } else {
+                // Handed a hedgehog while being interrupted, it goes on to the next reserver.
+                int slot = reservedSlot(waiter.getTicket(), "release");
+                handOverOrFreeLocked(slot, hedgehogAt(slot), RESERVED);
+            }
+            throw e;
+        } finally {
+            parkedCount.decrementAndGet();
+            parkingLock.unlock();
+        }
+    }
+
+    // A vacated slot if there is one, else a new one past the highest handed out.
+    private int takeFreeSlot() {
+        while (true) {
+            long top = freeSlotTop.get();
+            int slot = (int) top - 1;
+            if (slot == -1) {
+                return slotLimit.getAndIncrement();
+            }
+            // May read a stale link if the slot was taken meanwhile, but then the push count has moved on too.
+            int next = segmentFor(slot).nextFreeSlots.get(slot & (SEGMENT_SIZE - 1));
+            if (freeSlotTop.compareAndSet(top, (top & ~0xFFFFFFFFL) | next)) {
+                return slot;
+            }
+        }
+    }
+
+    private void pushFreeSlot(int slot) {
+        AtomicIntegerArray nextFreeSlots = segmentFor(slot).nextFreeSlots;
+        while (true) {
+            long top = freeSlotTop.get();
+            nextFreeSlots.set(slot & (SEGMENT_SIZE - 1), (int) top);
+            if (freeSlotTop.compareAndSet(top, ((top >>> 32) + 1) << 32 | (slot + 1))) {
+                return;
+            }
+        }
+    }
+
+    // The slot of the hedgehog with the given id, or -1 if it is not in the den.
+    private int slotOf(int id) {
+        IdSegment segment = id > 0 ? slotsById.get(id >>> ID_SEGMENT_BITS) : null;
+        return segment == null ? -1 : segment.slots.get(id & (ID_SEGMENT_SIZE - 1)) - 1;
+    }
+
+    private void mapSlot(int id, int slot) {
+        int index = id >>> ID_SEGMENT_BITS;
+        IdSegment segment = slotsById.get(index);
+        if (segment == null) {
+            slotsById.compareAndSet(index, null, new IdSegment());
+            segment = slotsById.get(index);
+        }
+        // Counted as mapped first, so the segment cannot look finished with before the slot is in.
+        segment.mapped.incrementAndGet();
+        segment.everMapped.incrementAndGet();
+        segment.slots.set(id & (ID_SEGMENT_SIZE - 1), slot + 1);
+    }
+
+    private void unmapSlot(int id) {
+        int index = id >>> ID_SEGMENT_BITS;
+        IdSegment segment = slotsById.get(index);
+        segment.slots.set(id & (ID_SEGMENT_SIZE - 1), 0);
+        // Id 0 is never issued.
+        int idsInSegment = index == 0 ? ID_SEGMENT_SIZE - 1 : ID_SEGMENT_SIZE;
+        if (segment.mapped.decrementAndGet() == 0 && segment.everMapped.get() == idsInSegment) {
+            slotsById.compareAndSet(index, segment, null);
+        }
+    }
+
+    private Segment segmentFor(int slot) {
+        int index = slot >>> SEGMENT_BITS;
+        return index < MAX_SEGMENTS ? segments.get(index) : null;
+    }
+
+    private Segment segmentForWrite(int slot) {
+        int index = slot >>> SEGMENT_BITS;
+        if (index >= MAX_SEGMENTS) {
+            throw new IllegalStateException("Lock-free den is out of hedgehog slots.");
+        }
+        Segment segment = segments.get(index);
+        if (segment == null) {
+            segments.compareAndSet(index, null, new Segment());
+            segment = segments.get(index);
+        }
+        return segment;
+    }
+
+    private IllegalStateException invalidReservation(String context) {
+        logger.error("Critical logic error: Attempted to " + context + " hedgehog, but it either doesn't exist or was not properly reserved.");
+        return new IllegalStateException("Hedgehog does not exist or was not reserved.");
+    }
+}
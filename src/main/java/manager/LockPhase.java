@@ -0,0 +1,13 @@
+package manager;
+
+/**
+ * What a thread was doing with a den lock while a latency was measured.
+ */
+public enum LockPhase {
+    // Blocked trying to acquire the lock.
+    WAIT,
+    // Holding the lock, excluding time spent parked on a condition.
+    HOLD,
+    // Parked on a condition until signalled, including re-acquiring the lock.
+    CONDITION_WAIT
+}
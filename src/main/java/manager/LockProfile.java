@@ -0,0 +1,73 @@
+package manager;
+
+/**
+ * Lock wait, hold and condition-wait latency histograms per {@link DenOperation}.
+ * {@link DenManager} marks which operation the current thread is running, and the backend locks
+ * record against it. When disabled nothing is timed, so the hot paths pay no clock reads.
+ */
+public class LockProfile {
+    private static final DenOperation[] OPERATIONS = DenOperation.values();
+    private static final LockPhase[] PHASES = LockPhase.values();
+
+    private final boolean enabled;
+    private final LatencyHistogram[][] histograms = new LatencyHistogram[OPERATIONS.length][PHASES.length];
+    private final ThreadLocal<DenOperation> currentOperation = new ThreadLocal<>();
+
+    LockProfile(boolean enabled) {
+        this.enabled = enabled;
+        for (DenOperation operation : OPERATIONS) {
+            for (LockPhase phase : PHASES) {
+                histograms[operation.ordinal()][phase.ordinal()] = new LatencyHistogram();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public LatencyHistogram getHistogram(DenOperation operation, LockPhase phase) {
+        return histograms[operation.ordinal()][phase.ordinal()];
+    }
+
+    /**
+     * Attributes the current thread's lock activity to the operation, unless an outer one already runs.
+     * @return the operation to hand back to {@link #end(DenOperation)}
+     */
+    DenOperation begin(DenOperation operation) {
+        if (!enabled) {
+            return null;
+        }
+        DenOperation outer = currentOperation.get();
+        if (outer == null) {
+            currentOperation.set(operation);
+        }
+        return outer;
+    }
+
+    void end(DenOperation outer) {
+        if (enabled && outer == null) {
+            currentOperation.set(null);
+        }
+    }
+
+    long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @return the end of the recorded interval, usable as the start of the next one
+     */
+    long record(LockPhase phase, long startNanos) {
+        if (!enabled) {
+            return 0;
+        }
+        long endNanos = System.nanoTime();
+        DenOperation operation = currentOperation.get();
+        // Backend calls made outside any DenManager operation are not attributed.
+        if (operation != null) {
+            histograms[operation.ordinal()][phase.ordinal()].record(endNanos - startNanos);
+        }
+        return endNanos;
+    }
+}
@@ -0,0 +1,34 @@
+package manager;
+
+import model.Hedgehog;
+
+/**
+ * A story line of the colony, captured as raw fields and only turned into text by the log writer.
+ * Hedgehogs are detached or no longer changing, and their names are only spelled out when formatted.
+ */
+record NarrativeEvent(Type type, Hedgehog hedgehog, Hedgehog partner, String reason) {
+
+    enum Type {
+        DIED,
+        BORN,
+        TICKS_REMOVED,
+        WARRIOR_ESCAPED_DEATH,
+        WARRIOR_LEVEL_UP,
+        RETURNED_FROM_WAR
+    }
+
+    static NarrativeEvent of(Type type, Hedgehog hedgehog) {
+        return new NarrativeEvent(type, hedgehog, null, null);
+    }
+
+    String format() {
+        return switch (type) {
+            case DIED -> hedgehog.getName() + " has died " + reason + ", with " + hedgehog.getOffspringCount() + " offspring.";
+            case BORN -> hedgehog.getName() + " had a baby! " + partner.getName() + " is a proud dad!";
+            case TICKS_REMOVED -> hedgehog.getTickCount() + " ticks were removed from " + hedgehog.getName();
+            case WARRIOR_ESCAPED_DEATH -> "Seasoned warrior " + hedgehog.getName() + "'s prior experience helped them escape death!";
+            case WARRIOR_LEVEL_UP -> hedgehog.getName() + " has leveled up as a seasoned warrior!";
+            case RETURNED_FROM_WAR -> hedgehog.getName() + " returned safely from battle.";
+        };
+    }
+}
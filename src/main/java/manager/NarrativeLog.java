@@ -0,0 +1,142 @@
+package manager;
+
+import config.ConfigParameters;
+import config.LogQueueFullPolicy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands {@link DenManager}'s story lines to a background writer through a bounded ring buffer,
+ * so actors never format messages or wait on file I/O. Events are formatted and logged by the writer,
+ * in the order they were accepted. {@link ConfigParameters#NARRATIVE_LOG_FULL_POLICY} decides
+ * what happens when the writer falls behind. When not asynchronous, events are logged directly by the caller.
+ * {@link DenManager} publishes only after a den operation has left the {@link CheckpointGate}, so an actor waiting
+ * here never holds off a checkpoint or a consistent read.
+ * A muted log drops every event, e.g. for colonies run side by side in a parameter sweep.
+ */
+public class NarrativeLog {
+    private static final int WRITER_BATCH_SIZE = 256;
+
+    private final boolean muted;
+    private final boolean asynchronous;
+    private final BlockingQueue<NarrativeEvent> queue;
+    private final Thread writerThread;
+    private volatile boolean closed = false;
+    private final AtomicLong acceptedCount = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    // Events that found the queue full, drives SAMPLE.
+    private final AtomicLong overflowCount = new AtomicLong(0);
+    private long writtenCount = 0;
+    private final ReentrantLock writtenLock = new ReentrantLock();
+    private final Condition allWritten = writtenLock.newCondition();
+    // Story lines keep the category they always had.
+    private static final Logger logger = LogManager.getLogger(DenManager.class);
+
+    NarrativeLog(boolean muted, boolean asynchronous) {
+        this.muted = muted;
+        this.asynchronous = asynchronous && !muted;
+        this.queue = this.asynchronous ? new ArrayBlockingQueue<>(ConfigParameters.NARRATIVE_LOG_QUEUE_CAPACITY) : null;
+        this.writerThread = this.asynchronous
+                ? Thread.ofPlatform().daemon().name("narrative-log-writer").start(this::writeForever) : null;
+    }
+
+    void publish(NarrativeEvent event) {
+        if (muted) {
+            return;
+        }
+        if (closed) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+        if (!asynchronous) {
+            logger.info(event.format());
+            return;
+        }
+        if (queue.offer(event)) {
+            acceptedCount.incrementAndGet();
+            return;
+        }
+        boolean shouldWait = switch (ConfigParameters.NARRATIVE_LOG_FULL_POLICY) {
+            case BLOCK -> true;
+            case DROP -> false;
+            case SAMPLE -> overflowCount.incrementAndGet() % ConfigParameters.NARRATIVE_LOG_SAMPLE_RATE == 0;
+        };
+        if (!shouldWait) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+        try {
+            queue.put(event);
+            acceptedCount.incrementAndGet();
+        } catch (InterruptedException e) {
+            // An actor being stopped loses its last line rather than its interrupt.
+            droppedCount.incrementAndGet();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until every accepted event has been written.
+     */
+    public void flush() throws InterruptedException {
+        if (!asynchronous) {
+            return;
+        }
+        writtenLock.lock();
+        try {
+            while (writtenCount < acceptedCount.get()) {
+                allWritten.await();
+            }
+        } finally {
+            writtenLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every accepted event and stops the writer; later events are dropped.
+     * Call once nothing publishes any more, e.g. when a run or benchmark trial ends.
+     */
+    public void close() throws InterruptedException {
+        closed = true;
+        flush();
+        if (writerThread != null) {
+            writerThread.interrupt();
+            writerThread.join();
+        }
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private void writeForever() {
+        List<NarrativeEvent> batch = new ArrayList<>(WRITER_BATCH_SIZE);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, WRITER_BATCH_SIZE - 1);
+            for (NarrativeEvent event : batch) {
+                logger.info(event.format());
+            }
+            writtenLock.lock();
+            try {
+                writtenCount += batch.size();
+                allWritten.signalAll();
+            } finally {
+                writtenLock.unlock();
+            }
+            batch.clear();
+        }
+    }
+}
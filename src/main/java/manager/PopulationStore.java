@@ -0,0 +1,214 @@
+package manager;
+
+import model.Hedgehog;
+import model.Sex;
+
+import java.util.Arrays;
+
+/**
+ * Population kept as parallel primitive arrays indexed by dense slot, instead of one object per hedgehog.
+ * An id-to-slot index finds a hedgehog; removal swaps the last slot into the hole, so slots are reused
+ * and stay densely packed. The index is an open-addressed hash table sized to the hedgehogs stored,
+ * growing and shrinking with them, so a long run of births and deaths does not leave it sized to every id issued.
+ * Not thread-safe: the owning shard is expected to guard all access with its lock.
+ */
+class PopulationStore {
+    private static final int INITIAL_CAPACITY = 16;
+    // The index is kept at most half full, and shrunk once an eighth full.
+    private static final int MIN_INDEX_CAPACITY = INITIAL_CAPACITY * 2;
+    private static final Sex[] SEXES = Sex.values();
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private long[] nameCodes = new long[INITIAL_CAPACITY];
+    private byte[] sexes = new byte[INITIAL_CAPACITY];
+    private int[] tickCounts = new int[INITIAL_CAPACITY];
+    private int[] offspringCounts = new int[INITIAL_CAPACITY];
+    private int[] warriorLevels = new int[INITIAL_CAPACITY];
+    private boolean[] reserved = new boolean[INITIAL_CAPACITY];
+    private int size = 0;
+    // Linear probing on the id; ids start at 1, so 0 marks an empty entry.
+    private int[] indexIds = new int[MIN_INDEX_CAPACITY];
+    private int[] indexSlots = new int[MIN_INDEX_CAPACITY];
+
+    /**
+     * Stores the hedgehog with its full state, unreserved.
+     * @return the slot of the new hedgehog
+     */
+    public int add(Hedgehog hedgehog) {
+        int id = hedgehog.getId();
+        if (slotOf(id) != -1) {
+            throw new IllegalStateException("Hedgehog " + id + " is already stored.");
+        }
+        if (size == ids.length) {
+            grow();
+        }
+        if ((size + 1) * 2 > indexIds.length) {
+            resizeIndex(indexIds.length * 2);
+        }
+
+        int slot = size++;
+        ids[slot] = id;
+        nameCodes[slot] = hedgehog.getNameCode();
+        sexes[slot] = (byte) hedgehog.getSex().ordinal();
+        tickCounts[slot] = hedgehog.getTickCount();
+        offspringCounts[slot] = hedgehog.getOffspringCount();
+        warriorLevels[slot] = hedgehog.getSeasonedWarriorLevel();
+        reserved[slot] = false;
+        indexPut(id, slot);
+        return slot;
+    }
+
+    /**
+     * Removes the hedgehog in the given slot by moving the last hedgehog into it.
+     * @return the former slot of the moved hedgehog, or -1 if the removed one was last
+     */
+    public int removeAt(int slot) {
+        indexRemove(ids[slot]);
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            nameCodes[slot] = nameCodes[last];
+            sexes[slot] = sexes[last];
+            tickCounts[slot] = tickCounts[last];
+            offspringCounts[slot] = offspringCounts[last];
+            warriorLevels[slot] = warriorLevels[last];
+            reserved[slot] = reserved[last];
+            indexSlots[indexPosition(ids[slot])] = slot;
+        }
+        if (size * 8 < indexIds.length && indexIds.length > MIN_INDEX_CAPACITY) {
+            resizeIndex(indexIds.length / 2);
+        }
+        return slot == last ? -1 : last;
+    }
+
+    /**
+     * @return the slot holding the given id, or -1 if it is not stored
+     */
+    public int slotOf(int id) {
+        int position = indexPosition(id);
+        return indexIds[position] == id ? indexSlots[position] : -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int slot) {
+        return ids[slot];
+    }
+
+    public Sex getSex(int slot) {
+        return SEXES[sexes[slot]];
+    }
+
+    public int getTickCount(int slot) {
+        return tickCounts[slot];
+    }
+
+    public boolean isSeasonedWarrior(int slot) {
+        return warriorLevels[slot] > 0;
+    }
+
+    public boolean isReserved(int slot) {
+        return reserved[slot];
+    }
+
+    public void setReserved(int slot, boolean isReserved) {
+        reserved[slot] = isReserved;
+    }
+
+    public int addTick(int slot) {
+        return ++tickCounts[slot];
+    }
+
+    public void removeAllTicks(int slot) {
+        tickCounts[slot] = 0;
+    }
+
+    public void incrementOffspringCount(int slot) {
+        offspringCounts[slot]++;
+    }
+
+    public int incrementSeasonedWarriorLevel(int slot) {
+        return ++warriorLevels[slot];
+    }
+
+    public long getTotalTicks() {
+        long sum = 0;
+        for (int slot = 0; slot < size; slot++) {
+            sum += tickCounts[slot];
+        }
+        return sum;
+    }
+
+    /**
+     * Copies the slot into a detached {@link Hedgehog}, unaffected by later changes to the store.
+     */
+    public Hedgehog snapshot(int slot) {
+        return new Hedgehog(ids[slot], nameCodes[slot], getSex(slot),
+                tickCounts[slot], offspringCounts[slot], warriorLevels[slot]);
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        sexes = Arrays.copyOf(sexes, capacity);
+        tickCounts = Arrays.copyOf(tickCounts, capacity);
+        offspringCounts = Arrays.copyOf(offspringCounts, capacity);
+        warriorLevels = Arrays.copyOf(warriorLevels, capacity);
+        reserved = Arrays.copyOf(reserved, capacity);
+    }
+
+    // The position holding the id, or the empty one where it would go.
+    private int indexPosition(int id) {
+        int mask = indexIds.length - 1;
+        int position = hash(id) & mask;
+        while (indexIds[position] != id && indexIds[position] != 0) {
+            position = (position + 1) & mask;
+        }
+        return position;
+    }
+
+    private void indexPut(int id, int slot) {
+        int position = indexPosition(id);
+        indexIds[position] = id;
+        indexSlots[position] = slot;
+    }
+
+    // Shifts later entries of the probe run back into the hole, so lookups never need tombstones.
+    private void indexRemove(int id) {
+        int mask = indexIds.length - 1;
+        int hole = indexPosition(id);
+        int position = hole;
+        while (true) {
+            position = (position + 1) & mask;
+            int moving = indexIds[position];
+            if (moving == 0) {
+                break;
+            }
+            int home = hash(moving) & mask;
+            // The entry may fill the hole unless its home lies cyclically after the hole, up to its position.
+            if (((position - home) & mask) >= ((position - hole) & mask)) {
+                indexIds[hole] = moving;
+                indexSlots[hole] = indexSlots[position];
+                hole = position;
+            }
+        }
+        indexIds[hole] = 0;
+    }
+
+    private void resizeIndex(int capacity) {
+        indexIds = new int[capacity];
+        indexSlots = new int[capacity];
+        for (int slot = 0; slot < size; slot++) {
+            indexPut(ids[slot], slot);
+        }
+    }
+
+    // Spreads the ids, which a shard hands out at a fixed stride, over the table.
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
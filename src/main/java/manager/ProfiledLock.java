@@ -0,0 +1,65 @@
+package manager;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Non-reentrant use of a {@link ReentrantLock} that counts contention in {@link SimulationStats}
+ * and times waits, holds and condition waits into a {@link LockProfile}.
+ */
+class ProfiledLock {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final SimulationStats stats;
+    private final LockProfile profile;
+    // Start of the current hold, only touched by the holder.
+    private long heldSince;
+
+    ProfiledLock(SimulationStats stats, LockProfile profile) {
+        this.stats = stats;
+        this.profile = profile;
+    }
+
+    Condition newCondition() {
+        return lock.newCondition();
+    }
+
+    void lock() {
+        long start = profile.now();
+        if (!lock.tryLock()) {
+            stats.incrementLockContention();
+            lock.lock();
+        }
+        heldSince = profile.record(LockPhase.WAIT, start);
+    }
+
+    void unlock() {
+        profile.record(LockPhase.HOLD, heldSince);
+        lock.unlock();
+    }
+
+    void await(Condition condition) throws InterruptedException {
+        long start = beforeAwait();
+        try {
+            condition.await();
+        } finally {
+            afterAwait(start);
+        }
+    }
+
+    long awaitNanos(Condition condition, long nanosTimeout) throws InterruptedException {
+        long start = beforeAwait();
+        try {
+            return condition.awaitNanos(nanosTimeout);
+        } finally {
+            afterAwait(start);
+        }
+    }
+
+    private long beforeAwait() {
+        return profile.record(LockPhase.HOLD, heldSince);
+    }
+
+    private void afterAwait(long start) {
+        heldSince = profile.record(LockPhase.CONDITION_WAIT, start);
+    }
+}
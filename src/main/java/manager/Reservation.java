@@ -0,0 +1,53 @@
+package manager;
+
+/**
+ * Outcome of a non-blocking or deadline-bounded reservation.
+ * Only a reserved outcome carries a ticket, which is then released or killed like any other.
+ */
+public record Reservation(Status status, int ticket) {
+    private static final Reservation NONE_FREE = new Reservation(Status.NONE_FREE, -1);
+    private static final Reservation TIMED_OUT = new Reservation(Status.TIMED_OUT, -1);
+    private static final Reservation NONE_ALIVE = new Reservation(Status.NONE_ALIVE, -1);
+
+    public enum Status {
+        RESERVED,
+        // Nothing suitable was free at the time of asking.
+        NONE_FREE,
+        // Nothing suitable came free before the deadline.
+        TIMED_OUT,
+        // No hedgehog of the kind asked for is alive, so waiting would be pointless.
+        NONE_ALIVE
+    }
+
+    static Reservation reserved(int ticket) {
+        return new Reservation(Status.RESERVED, ticket);
+    }
+
+    static Reservation noneFree() {
+        return NONE_FREE;
+    }
+
+    static Reservation timedOut() {
+        return TIMED_OUT;
+    }
+
+    static Reservation noneAlive() {
+        return NONE_ALIVE;
+    }
+
+    public boolean isReserved() {
+        return status == Status.RESERVED;
+    }
+
+    /**
+     * @return the reserved ticket
+     * @throws IllegalStateException if nothing was reserved
+     */
+    @Override
+    public int ticket() {
+        if (status != Status.RESERVED) {
+            throw new IllegalStateException("No hedgehog was reserved (" + status + ").");
+        }
+        return ticket;
+    }
+}
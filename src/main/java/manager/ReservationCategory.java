@@ -0,0 +1,36 @@
+package manager;
+
+import config.ConfigParameters;
+import model.Sex;
+
+/**
+ * Kinds of hedgehogs the reserve operations ask for.
+ * FAIRY prefers a seasoned warrior, then a male, then anyone.
+ */
+public enum ReservationCategory {
+    ANY,
+    FEMALE,
+    MALE,
+    ABOVE_TICK_THRESHOLD,
+    FAIRY;
+
+    /**
+     * @return true if a reserver of this category waiting for a hedgehog can be given one of this sex and tick count.
+     * FAIRY reservers take anyone, as they only wait while nobody at all is free.
+     */
+    public boolean accepts(Sex sex, int tickCount) {
+        return switch (this) {
+            case ANY, FAIRY -> true;
+            case FEMALE -> sex == Sex.FEMALE;
+            case MALE -> sex == Sex.MALE;
+            case ABOVE_TICK_THRESHOLD -> tickCount >= ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST;
+        };
+    }
+
+    /**
+     * @return true if only some hedgehogs suit this category; waiting reservers of such categories are served first
+     */
+    public boolean isSpecific() {
+        return this == FEMALE || this == MALE || this == ABOVE_TICK_THRESHOLD;
+    }
+}
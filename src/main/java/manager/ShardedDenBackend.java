@@ -0,0 +1,374 @@
+package manager;
+
+import config.ConfigParameters;
+import model.Hedgehog;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Lock-based backend splitting the population into {@link ConfigParameters#DEN_SHARD_COUNT} shards.
+ * Hedgehogs live in the shard picked by their id; a reservation tries the caller's home shard first
+ * and then steals from the others. A single shard is the classic one-monitor den.
+ * With several shards, a reserver finding nothing anywhere parks on its home shard, and a hedgehog coming free
+ * in a shard where nobody waits for it wakes one reserver it suits parked on another shard, to look again.
+ * A count of hedgehogs come free tells a reserver about to park whether one came free since it last looked,
+ * so none slips by between the look and the parking.
+ */
+class ShardedDenBackend implements DenBackend {
+    private static final BooleanSupplier ALWAYS = () -> true;
+
+    private final DenShard[] shards;
+    // Hedgehogs gone into a free pool so far; only counted with several shards.
+    private final AtomicLong freedCount = new AtomicLong(0);
+    // Reservers that found nothing free and have not yet come back with a hedgehog.
+    private final AtomicInteger parkedCount = new AtomicInteger(0);
+
+    ShardedDenBackend(int shardCount, SimulationStats stats, LockProfile profile) {
+        shards = new DenShard[shardCount];
+        for (int i = 0; i < shards.length; i++) {
+            int shard = i;
+            shards[i] = new DenShard(stats, profile, shardCount == 1 ? null : categories -> onFreed(shard, categories));
+        }
+    }
+
+    @Override
+    public void addHedgehog(Hedgehog hedgehog) {
+        shardFor(hedgehog.getId()).addHedgehog(hedgehog);
+    }
+
+    /**
+     * When every shard is empty the caller parks on its home shard, until handed a hedgehog there
+     * or woken by one coming free elsewhere, see {@link #onFreed(int, int)}.
+     */
+    @Override
+    public int reserve(ReservationCategory category) throws InterruptedException {
+        if (shards.length == 1) {
+            return shards[0].reserveAwaiting(category, 0, ALWAYS);
+        }
+
+        int ticket = tryReserve(category);
+        if (ticket != -1) {
+            return ticket;
+        }
+        int home = homeShard();
+        parkedCount.incrementAndGet();
+        try {
+            while (true) {
+                long freed = freedCount.get();
+                ticket = tryReserve(category);
+                if (ticket != -1) {
+                    return ticket;
+                }
+                ticket = shards[home].reserveAwaiting(category, 0, () -> freedCount.get() == freed);
+                if (ticket != -1) {
+                    return ticket;
+                }
+            }
+        } finally {
+            parkedCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Like {@link #reserve(ReservationCategory)}, giving up once the deadline passes.
+     */
+    @Override
+    public int reserve(ReservationCategory category, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        int ticket = tryReserve(category);
+        if (ticket != -1 || timeoutNanos <= 0) {
+            return ticket;
+        }
+        int home = homeShard();
+        parkedCount.incrementAndGet();
+        try {
+            while (true) {
+                long freed = freedCount.get();
+                ticket = tryReserve(category);
+                long nanosLeft = deadline - System.nanoTime();
+                if (ticket != -1 || nanosLeft <= 0) {
+                    return ticket;
+                }
+                ticket = shards[home].reserveAwaiting(category, nanosLeft, () -> freedCount.get() == freed);
+                if (ticket != -1) {
+                    return ticket;
+                }
+            }
+        } finally {
+            parkedCount.decrementAndGet();
+        }
+    }
+
+    @Override
+    public int tryReserve(ReservationCategory category) {
+        int home = homeShard();
+        for (int i = 0; i < shards.length; i++) {
+            int ticket = shards[(home + i) % shards.length].tryReserve(category);
+            if (ticket != -1) {
+                return ticket;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void release(int ticket) {
+        shardFor(ticket).release(ticket);
+    }
+
+    @Override
+    public Hedgehog remove(int ticket) {
+        return shardFor(ticket).remove(ticket);
+    }
+
+    @Override
+    public Hedgehog getReservedHedgehog(int ticket, String context) {
+        return shardFor(ticket).getReservedHedgehog(ticket, context);
+    }
+
+    @Override
+    public int addTick(int ticket) {
+        return shardFor(ticket).addTick(ticket);
+    }
+
+    @Override
+    public Hedgehog removeAllTicks(int ticket) {
+        return shardFor(ticket).removeAllTicks(ticket);
+    }
+
+    @Override
+    public void incrementOffspringCount(int ticket) {
+        shardFor(ticket).incrementOffspringCount(ticket);
+    }
+
+    @Override
+    public int incrementSeasonedWarriorLevel(int ticket) {
+        return shardFor(ticket).incrementSeasonedWarriorLevel(ticket);
+    }
+
+    /**
+     * Takes the batch from one shard, home first, so it costs a single lock acquisition.
+     */
+    @Override
+    public int[] reserveBatch(ReservationCategory category, int maxCount) throws InterruptedException {
+        if (shards.length == 1) {
+            return shards[0].reserveBatchAwaiting(category, maxCount, 0, ALWAYS);
+        }
+
+        int[] tickets = tryReserveBatch(category, maxCount);
+        if (tickets.length > 0) {
+            return tickets;
+        }
+        int home = homeShard();
+        parkedCount.incrementAndGet();
+        try {
+            while (true) {
+                long freed = freedCount.get();
+                tickets = tryReserveBatch(category, maxCount);
+                if (tickets.length > 0) {
+                    return tickets;
+                }
+                tickets = shards[home].reserveBatchAwaiting(category, maxCount, 0, () -> freedCount.get() == freed);
+                if (tickets.length > 0) {
+                    return tickets;
+                }
+            }
+        } finally {
+            parkedCount.decrementAndGet();
+        }
+    }
+
+    @Override
+    public int[] reserveBatch(ReservationCategory category, int maxCount, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        int[] tickets = tryReserveBatch(category, maxCount);
+        if (tickets.length > 0 || timeoutNanos <= 0) {
+            return tickets;
+        }
+        int home = homeShard();
+        parkedCount.incrementAndGet();
+        try {
+            while (true) {
+                long freed = freedCount.get();
+                tickets = tryReserveBatch(category, maxCount);
+                long nanosLeft = deadline - System.nanoTime();
+                if (tickets.length > 0 || nanosLeft <= 0) {
+                    return tickets;
+                }
+                tickets = shards[home].reserveBatchAwaiting(category, maxCount, nanosLeft, () -> freedCount.get() == freed);
+                if (tickets.length > 0) {
+                    return tickets;
+                }
+            }
+        } finally {
+            parkedCount.decrementAndGet();
+        }
+    }
+
+    // Home shard first; empty if nothing of the category is free anywhere.
+    private int[] tryReserveBatch(ReservationCategory category, int maxCount) {
+        int home = homeShard();
+        for (int i = 0; i < shards.length; i++) {
+            int[] tickets = shards[(home + i) % shards.length].tryReserveBatch(category, maxCount);
+            if (tickets.length > 0) {
+                return tickets;
+            }
+        }
+        return new int[0];
+    }
+
+    @Override
+    public void releaseBatch(int[] tickets) {
+        if (shards.length == 1) {
+            shards[0].releaseBatch(tickets);
+            return;
+        }
+        for (int i = 0; i < shards.length; i++) {
+            int[] positions = positionsInShard(tickets, i);
+            if (positions.length > 0) {
+                shards[i].releaseBatch(select(tickets, positions));
+            }
+        }
+    }
+
+    @Override
+    public Hedgehog[] removeBatch(int[] tickets) {
+        if (shards.length == 1) {
+            return shards[0].removeBatch(tickets);
+        }
+        Hedgehog[] removed = new Hedgehog[tickets.length];
+        for (int i = 0; i < shards.length; i++) {
+            int[] positions = positionsInShard(tickets, i);
+            if (positions.length > 0) {
+                Hedgehog[] shardRemoved = shards[i].removeBatch(select(tickets, positions));
+                for (int j = 0; j < positions.length; j++) {
+                    removed[positions[j]] = shardRemoved[j];
+                }
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public int[] addTicks(int[] tickets) {
+        if (shards.length == 1) {
+            return shards[0].addTicks(tickets);
+        }
+        int[] tickCounts = new int[tickets.length];
+        for (int i = 0; i < shards.length; i++) {
+            int[] positions = positionsInShard(tickets, i);
+            if (positions.length > 0) {
+                int[] shardTickCounts = shards[i].addTicks(select(tickets, positions));
+                for (int j = 0; j < positions.length; j++) {
+                    tickCounts[positions[j]] = shardTickCounts[j];
+                }
+            }
+        }
+        return tickCounts;
+    }
+
+    @Override
+    public Hedgehog[] removeAllTicks(int[] tickets) {
+        if (shards.length == 1) {
+            return shards[0].removeAllTicks(tickets);
+        }
+        Hedgehog[] before = new Hedgehog[tickets.length];
+        for (int i = 0; i < shards.length; i++) {
+            int[] positions = positionsInShard(tickets, i);
+            if (positions.length > 0) {
+                Hedgehog[] shardBefore = shards[i].removeAllTicks(select(tickets, positions));
+                for (int j = 0; j < positions.length; j++) {
+                    before[positions[j]] = shardBefore[j];
+                }
+            }
+        }
+        return before;
+    }
+
+    @Override
+    public int getHedgehogCount() {
+        int count = 0;
+        for (DenShard shard : shards) {
+            count += shard.getHedgehogCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getTotalTicks() {
+        long sum = 0;
+        for (DenShard shard : shards) {
+            sum += shard.getTotalTicks();
+        }
+        return sum;
+    }
+
+    @Override
+    public void forEachHedgehog(Consumer<Hedgehog> visitor) {
+        for (DenShard shard : shards) {
+            shard.forEachHedgehog(visitor);
+        }
+    }
+
+    /**
+     * Positions are slots within a shard, every shard checks its own share of the slice under its own lock.
+     */
+    @Override
+    public int checkReservations(int from, int maxCount, Consumer<String> violations) {
+        int perShard = Math.max(1, maxCount / shards.length);
+        boolean more = false;
+        for (DenShard shard : shards) {
+            more |= shard.checkReservations(from, perShard, violations);
+        }
+        return more ? from + perShard : 0;
+    }
+
+    private DenShard shardFor(int ticket) {
+        return shards[ticket % shards.length];
+    }
+
+    /**
+     * A hedgehog went into a free pool of the given shard, where nobody waited for it. Counted first, so a reserver
+     * about to park sees it; then, if anybody is parked, the longest-waiting reserver it suits on the first other shard
+     * that has one is woken. Runs outside every shard lock, so shards are locked one at a time.
+     */
+    private void onFreed(int shard, int categories) {
+        freedCount.incrementAndGet();
+        if (parkedCount.get() == 0) {
+            return;
+        }
+        for (int i = 1; i < shards.length; i++) {
+            if (shards[(shard + i) % shards.length].wakeToLook(categories)) {
+                return;
+            }
+        }
+    }
+
+    private int homeShard() {
+        return (int) (Thread.currentThread().threadId() % shards.length);
+    }
+
+    // Positions in tickets of the hedgehogs living in the given shard.
+    private int[] positionsInShard(int[] tickets, int shard) {
+        int[] positions = new int[tickets.length];
+        int count = 0;
+        for (int i = 0; i < tickets.length; i++) {
+            if (tickets[i] % shards.length == shard) {
+                positions[count++] = i;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    private static int[] select(int[] tickets, int[] positions) {
+        int[] selected = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            selected[i] = tickets[positions[i]];
+        }
+        return selected;
+    }
+}
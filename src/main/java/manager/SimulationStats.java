@@ -1,110 +1,135 @@
 package manager;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Tracks global simulation statistics in a thread-safe manner.
+ * Counters are striped 64-bit {@link LongAdder}s, so actors bumping them never fight over one cache line
+ * and long runs cannot overflow. Read them through {@link #snapshot()}.
  */
 public class SimulationStats {
     // Counts how many times threads encountered explicit lock contention.
-    private final AtomicInteger lockContentionCount = new AtomicInteger(0);
+    private final LongAdder lockContentionCount = new LongAdder();
     // Counts how many times threads had to wait on a condition.
-    private final AtomicInteger conditionWaitCount = new AtomicInteger(0);
-    private final AtomicInteger ticksAddedCount = new AtomicInteger(0);
-    private final AtomicInteger ticksRemovedCount = new AtomicInteger(0);
-    private final AtomicInteger hedgehogsBorn = new AtomicInteger(0);
-    private final AtomicInteger hedgehogsDied = new AtomicInteger(0);
-    private final AtomicInteger maleBornCount = new AtomicInteger(0);
-    private final AtomicInteger femaleBornCount = new AtomicInteger(0);
-    private final AtomicInteger hedgehogsWentToWar = new AtomicInteger(0);
-    private final AtomicInteger hedgehogsDiedInWar = new AtomicInteger(0);
-    private final AtomicInteger hedgehogsWarriorLevelUps = new AtomicInteger(0);
-
+    private final LongAdder conditionWaitCount = new LongAdder();
+    private final LongAdder ticksAddedCount = new LongAdder();
+    private final LongAdder ticksRemovedCount = new LongAdder();
+    private final LongAdder hedgehogsBorn = new LongAdder();
+    private final LongAdder hedgehogsDied = new LongAdder();
+    private final LongAdder maleBornCount = new LongAdder();
+    private final LongAdder femaleBornCount = new LongAdder();
+    private final LongAdder hedgehogsWentToWar = new LongAdder();
+    private final LongAdder hedgehogsDiedInWar = new LongAdder();
+    private final LongAdder hedgehogsWarriorLevelUps = new LongAdder();
+    // Counts deadline-bounded reservations that gave up without a hedgehog.
+    private final LongAdder reservationTimeoutCount = new LongAdder();
+    private final LongAdder[] allCounters = {lockContentionCount, conditionWaitCount, ticksAddedCount,
+            ticksRemovedCount, hedgehogsBorn, hedgehogsDied, maleBornCount, femaleBornCount,
+            hedgehogsWentToWar, hedgehogsDiedInWar, hedgehogsWarriorLevelUps, reservationTimeoutCount};
 
     public void incrementMaleBornCount() {
-        maleBornCount.incrementAndGet();
+        maleBornCount.increment();
     }
 
     public void incrementFemaleBornCount() {
-        femaleBornCount.incrementAndGet();
+        femaleBornCount.increment();
     }
 
     public void incrementHedgehogsWentToWar() {
-        hedgehogsWentToWar.incrementAndGet();
+        hedgehogsWentToWar.increment();
     }
 
     public void incrementHedgehogsDiedInWar() {
-        hedgehogsDiedInWar.incrementAndGet();
+        hedgehogsDiedInWar.increment();
     }
 
     public void incrementHedgehogsReturnedSeasoned() {
-        hedgehogsWarriorLevelUps.incrementAndGet();
+        hedgehogsWarriorLevelUps.increment();
     }
 
     public void incrementLockContention() {
-        lockContentionCount.incrementAndGet();
+        lockContentionCount.increment();
     }
 
     public void incrementConditionWait() {
-        conditionWaitCount.incrementAndGet();
-    }
-
-    public void incrementTicksAdded() {
-        ticksAddedCount.incrementAndGet();
-    }
-
-    public void adjustTicksRemoved(int removedCount) {
-        ticksRemovedCount.addAndGet(removedCount);
-    }
-
-    public void incrementHedgehogsBorn() {
-        hedgehogsBorn.incrementAndGet();
-    }
-
-    public void incrementHedgehogsDied() {
-        hedgehogsDied.incrementAndGet();
-    }
-    public int getFemaleBornCount() {
-        return femaleBornCount.get();
-    }
-
-    public int getMaleBornCount() {
-        return maleBornCount.get();
-    }
-
-    public int getLockContentionCount() {
-        return lockContentionCount.get();
-    }
-
-    public int getConditionWaitCount() {
-        return conditionWaitCount.get();
+        conditionWaitCount.increment();
     }
 
-    public int getTicksAddedCount() {
-        return ticksAddedCount.get();
+    public void incrementReservationTimeouts() {
+        reservationTimeoutCount.increment();
     }
 
-    public int getTicksRemovedCount() {
-        return ticksRemovedCount.get();
-    }
-    public int getHedgehogsBorn() {
-        return hedgehogsBorn.get();
+    public void incrementTicksAdded() {
+        ticksAddedCount.increment();
     }
 
-    public int getHedgehogsDied() {
-        return hedgehogsDied.get();
+    public void adjustTicksAdded(int addedCount) {
+        ticksAddedCount.add(addedCount);
     }
 
-    public int getHedgehogsWentToWar() {
-        return hedgehogsWentToWar.get();
+    public void adjustTicksRemoved(int removedCount) {
+        ticksRemovedCount.add(removedCount);
     }
 
-    public int getHedgehogsDiedInWar() {
-        return hedgehogsDiedInWar.get();
+    public void incrementHedgehogsBorn() {
+        hedgehogsBorn.increment();
     }
 
-    public int getHedgehogsWarriorLevelUps() {
-        return hedgehogsWarriorLevelUps.get();
+    public void incrementHedgehogsDied() {
+        hedgehogsDied.increment();
+    }
+
+    /**
+     * Sets every counter to the given values, e.g. when a colony is restored from a checkpoint.
+     * Only valid before any actor touches the counters.
+     */
+    void restore(StatsSnapshot values) {
+        long[] restored = {values.lockContentionCount(), values.conditionWaitCount(), values.ticksAddedCount(),
+                values.ticksRemovedCount(), values.hedgehogsBorn(), values.hedgehogsDied(), values.maleBornCount(),
+                values.femaleBornCount(), values.hedgehogsWentToWar(), values.hedgehogsDiedInWar(),
+                values.hedgehogsWarriorLevelUps(), values.reservationTimeoutCount()};
+        for (int i = 0; i < allCounters.length; i++) {
+            allCounters[i].reset();
+            allCounters[i].add(restored[i]);
+        }
+    }
+
+    /**
+     * Reads all counters as of one instant, so values derived from several of them are never torn.
+     * Every counter only grows, so two identical consecutive passes prove nothing changed between them.
+     * Passes are repeated until that happens, which is quick unless actors are updating stats non-stop.
+     */
+    public StatsSnapshot snapshot() {
+        long[] previous = collect();
+        while (true) {
+            long[] current = collect();
+            if (Arrays.equals(previous, current)) {
+                return toSnapshot(current);
+            }
+            previous = current;
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Reads every counter once. Consistent only when no counter can change meanwhile, e.g. within
+     * {@link CheckpointGate#readConsistent}, which vets the read for the counters changed by den operations.
+     */
+    StatsSnapshot snapshotOnce() {
+        return toSnapshot(collect());
+    }
+
+    private long[] collect() {
+        long[] values = new long[allCounters.length];
+        for (int i = 0; i < allCounters.length; i++) {
+            values[i] = allCounters[i].sum();
+        }
+        return values;
+    }
+
+    private static StatsSnapshot toSnapshot(long[] values) {
+        return new StatsSnapshot(values[0], values[1], values[2], values[3], values[4], values[5],
+                values[6], values[7], values[8], values[9], values[10], values[11]);
     }
-
 }
@@ -0,0 +1,33 @@
+package manager;
+
+/**
+ * Immutable, internally consistent view of all {@link SimulationStats} counters at one instant.
+ */
+public record StatsSnapshot(
+        long lockContentionCount,
+        long conditionWaitCount,
+        long ticksAddedCount,
+        long ticksRemovedCount,
+        long hedgehogsBorn,
+        long hedgehogsDied,
+        long maleBornCount,
+        long femaleBornCount,
+        long hedgehogsWentToWar,
+        long hedgehogsDiedInWar,
+        long hedgehogsWarriorLevelUps,
+        long reservationTimeoutCount) {
+
+    /**
+     * @return hedgehogs that should be alive according to the counters
+     */
+    public long expectedPopulation() {
+        return hedgehogsBorn - hedgehogsDied;
+    }
+
+    /**
+     * @return ticks that should be present on hedgehogs according to the counters
+     */
+    public long expectedTicksPresent() {
+        return ticksAddedCount - ticksRemovedCount;
+    }
+}
@@ -0,0 +1,163 @@
+package manager;
+
+import model.Sex;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Reservers parked on a lock, each registered with the category it needs and a condition of its own.
+ * A hedgehog coming free is handed straight to the longest-waiting reserver it suits, so a reserver is
+ * woken with its hedgehog in hand instead of racing others to find one. Reservers that can only use
+ * this kind of hedgehog go first, otherwise a mating pair waiting on a male queues behind every casual
+ * reserver. FAIRY waiters take anyone, as they only park while nobody at all is free.
+ * Hedgehogs are matched to waiters by the categories they suit, see {@link #categoriesSuitedBy(Sex, int)}.
+ * Not thread-safe: every method must be called with the owning lock held.
+ */
+class WaitQueue {
+    private static final ReservationCategory[] CATEGORIES = ReservationCategory.values();
+    private static final ReservationCategory[] SPECIFIC_CATEGORIES = {
+            ReservationCategory.FEMALE, ReservationCategory.MALE, ReservationCategory.ABOVE_TICK_THRESHOLD};
+    private static final ReservationCategory[] UNSPECIFIC_CATEGORIES = {ReservationCategory.ANY, ReservationCategory.FAIRY};
+
+    private final ProfiledLock lock;
+    private final Map<ReservationCategory, ArrayDeque<Waiter>> waiters = new EnumMap<>(ReservationCategory.class);
+    private long arrivals = 0;
+
+    static class Waiter {
+        private final ReservationCategory category;
+        private final Condition handedOver;
+        private final long arrival;
+        private int ticket = -1;
+        private boolean woken = false;
+
+        private Waiter(ReservationCategory category, Condition handedOver, long arrival) {
+            this.category = category;
+            this.handedOver = handedOver;
+            this.arrival = arrival;
+        }
+
+        /**
+         * @return the ticket handed over, or -1 while still waiting
+         */
+        int getTicket() {
+            return ticket;
+        }
+
+        /**
+         * @return true once taken off the queue by {@link #wakeToLook(int)}, to look for a hedgehog itself
+         */
+        boolean isWoken() {
+            return woken;
+        }
+    }
+
+    WaitQueue(ProfiledLock lock) {
+        this.lock = lock;
+        for (ReservationCategory category : CATEGORIES) {
+            waiters.put(category, new ArrayDeque<>());
+        }
+    }
+
+    Waiter enqueue(ReservationCategory category) {
+        Waiter waiter = new Waiter(category, lock.newCondition(), arrivals++);
+        waiters.get(category).addLast(waiter);
+        return waiter;
+    }
+
+    /**
+     * Parks the waiter until a hedgehog is handed over, or it is woken to look for one itself.
+     */
+    void await(Waiter waiter) throws InterruptedException {
+        lock.await(waiter.handedOver);
+    }
+
+    /**
+     * Timed counterpart of {@link #await(Waiter)}.
+     * @return the nanoseconds left
+     */
+    long awaitNanos(Waiter waiter, long nanosTimeout) throws InterruptedException {
+        return lock.awaitNanos(waiter.handedOver, nanosTimeout);
+    }
+
+    /**
+     * Withdraws a waiter that gave up or found a hedgehog by itself. Does nothing for one already handed a hedgehog.
+     */
+    void remove(Waiter waiter) {
+        waiters.get(waiter.category).remove(waiter);
+    }
+
+    /**
+     * Hands the hedgehog to the longest-waiting reserver it suits, which then holds its reservation.
+     * @return false if nobody waits for such a hedgehog, it is then the caller's to free
+     */
+    boolean handOver(int ticket, Sex sex, int tickCount) {
+        Waiter waiter = oldestMatching(categoriesSuitedBy(sex, tickCount));
+        if (waiter == null) {
+            return false;
+        }
+        waiters.get(waiter.category).pollFirst();
+        waiter.ticket = ticket;
+        waiter.handedOver.signal();
+        return true;
+    }
+
+    /**
+     * Wakes the longest-waiting reserver a hedgehog that is already free suits, to reserve it itself.
+     * Only for a hedgehog freed before its releaser saw the reserver register.
+     */
+    void wake(Sex sex, int tickCount) {
+        Waiter waiter = oldestMatching(categoriesSuitedBy(sex, tickCount));
+        if (waiter != null) {
+            waiter.handedOver.signal();
+        }
+    }
+
+    /**
+     * Takes the longest-waiting reserver of the given categories off the queue and wakes it to look for a hedgehog
+     * itself, e.g. one that came free in another shard. Taken off, it is woken by one such hedgehog only.
+     * @param categories as from {@link #categoriesSuitedBy(Sex, int)}
+     * @return false if nobody waits in those categories
+     */
+    boolean wakeToLook(int categories) {
+        Waiter waiter = oldestMatching(categories);
+        if (waiter == null) {
+            return false;
+        }
+        waiters.get(waiter.category).pollFirst();
+        waiter.woken = true;
+        waiter.handedOver.signal();
+        return true;
+    }
+
+    /**
+     * @return one bit per {@link ReservationCategory} ordinal, set for the categories a hedgehog like this suits
+     */
+    static int categoriesSuitedBy(Sex sex, int tickCount) {
+        int categories = 0;
+        for (ReservationCategory category : CATEGORIES) {
+            if (category.accepts(sex, tickCount)) {
+                categories |= 1 << category.ordinal();
+            }
+        }
+        return categories;
+    }
+
+    private Waiter oldestMatching(int categories) {
+        Waiter oldest = oldestMatching(SPECIFIC_CATEGORIES, categories);
+        return oldest != null ? oldest : oldestMatching(UNSPECIFIC_CATEGORIES, categories);
+    }
+
+    private Waiter oldestMatching(ReservationCategory[] candidates, int categories) {
+        Waiter oldest = null;
+        for (ReservationCategory category : candidates) {
+            Waiter head = waiters.get(category).peekFirst();
+            if (head != null && (categories & (1 << category.ordinal())) != 0 && (oldest == null || head.arrival < oldest.arrival)) {
+                oldest = head;
+            }
+        }
+        return oldest;
+    }
+}
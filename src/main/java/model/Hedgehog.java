@@ -1,27 +1,45 @@
 package model;
 
+import config.HedgehogNameManager;
 import lombok.Getter;
 
 /**
  * Represents a hedgehog in the simulation, tracking its state and attributes.
  * Is multithreading-agnostic by design and is only handled by the manager, not directly by threads.
+ * Array-backed population stores hand out detached copies, so changes must go through the manager.
+ * The name is held as a compact code and spelled out on demand.
  */
 @Getter
 public class Hedgehog {
     private final int id;
-    private final String name;
+    private final long nameCode;
     private int tickCount;
     private final Sex sex;
     private int offspringCount;
     private int seasonedWarriorLevel;
 
 
-    public Hedgehog(int id, String name, Sex sex) {
+    public Hedgehog(int id, long nameCode, Sex sex) {
         this.id = id;
-        this.name = name;
+        this.nameCode = nameCode;
         this.sex = sex;
     }
 
+    public Hedgehog(int id, long nameCode, Sex sex, int tickCount, int offspringCount, int seasonedWarriorLevel) {
+        this(id, nameCode, sex);
+        this.tickCount = tickCount;
+        this.offspringCount = offspringCount;
+        this.seasonedWarriorLevel = seasonedWarriorLevel;
+    }
+
+    public Hedgehog copy() {
+        return new Hedgehog(id, nameCode, sex, tickCount, offspringCount, seasonedWarriorLevel);
+    }
+
+    public String getName() {
+        return HedgehogNameManager.nameOf(sex, nameCode);
+    }
+
     public void addATick() {
         tickCount++;
     }
@@ -1,10 +1,14 @@
 package model.threads;
 
+import config.ActorType;
 import config.ConfigParameters;
+import config.LiveWorkload;
+import config.SimRandom;
 import manager.DenManager;
+import simulation.tools.ActorRoster;
 
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -15,19 +19,34 @@ import org.apache.logging.log4j.Logger;
  */
 public class EpidemiologistThread implements Runnable {
     private static final Logger logger = LogManager.getLogger(EpidemiologistThread.class);
+    private final RandomGenerator random = SimRandom.newStream();
 
     @Override
     public void run() {
         logger.info("Epidemiologist thread started.");
+        SimRandom.bind(random);
         DenManager manager = DenManager.getInstance();
-        int jitterRange = (int) (ConfigParameters.EPIDEMIOLOGIST_AVG_DELAY_MS * ConfigParameters.THREAD_DELAY_JITTER_PERCENT);
+        ActorRoster roster = ActorRoster.getInstance();
 
         while (!Thread.currentThread().isInterrupted()) {
+            if (roster.shouldRetire(ActorType.EPIDEMIOLOGIST)) {
+                logger.info("Epidemiologist thread retired.");
+                break;
+            }
             try {
-                TickUtils.performTickRemoval(manager);
-                TimeUnit.MILLISECONDS.sleep(
-                        ConfigParameters.EPIDEMIOLOGIST_AVG_DELAY_MS
-                                + ThreadLocalRandom.current().nextInt(-jitterRange, jitterRange + 1));
+                int handled = 1;
+                if (ConfigParameters.ENABLE_BATCHED_OPERATIONS) {
+                    handled = ConfigParameters.ENABLE_BOUNDED_RESERVATIONS
+                            ? TickUtils.tryBatchedTickRemoval(manager, ConfigParameters.DEN_BATCH_SIZE, ConfigParameters.RESERVATION_TIMEOUT_MS)
+                            : TickUtils.performBatchedTickRemoval(manager, ConfigParameters.DEN_BATCH_SIZE);
+                } else if (ConfigParameters.ENABLE_BOUNDED_RESERVATIONS) {
+                    TickUtils.tryTickRemoval(manager, ConfigParameters.RESERVATION_TIMEOUT_MS);
+                } else {
+                    TickUtils.performTickRemoval(manager);
+                }
+                // A batch stands in for that many single visits, so the rate per hedgehog stays the same.
+                // A visit that gave up on its reservation still counts as one.
+                TimeUnit.MILLISECONDS.sleep(Math.max(handled, 1) * LiveWorkload.current().nextDelayMs(ActorType.EPIDEMIOLOGIST));
             } catch (InterruptedException e) {
                 logger.info("Epidemiologist thread interrupted and stopping.");
                 Thread.currentThread().interrupt();
@@ -1,12 +1,17 @@
 package model.threads;
 
+import config.ActorType;
 import config.ConfigParameters;
+import config.LiveWorkload;
+import config.SimRandom;
 import manager.DenManager;
+import manager.Reservation;
 import manager.WarOutcome;
+import simulation.tools.ActorRoster;
 import simulation.tools.SimUtils;
 
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -17,25 +22,31 @@ import org.apache.logging.log4j.Logger;
  */
 public class FairyThread implements Runnable {
     private static final Logger logger = LogManager.getLogger(FairyThread.class);
+    private final RandomGenerator random = SimRandom.newStream();
 
     @Override
     public void run() {
         logger.info("Fairy thread started.");
+        SimRandom.bind(random);
         DenManager manager = DenManager.getInstance();
-        int jitterRange = (int) (ConfigParameters.FAIRY_AVG_DELAY_MS * ConfigParameters.THREAD_DELAY_JITTER_PERCENT);
+        ActorRoster roster = ActorRoster.getInstance();
 
         while (!Thread.currentThread().isInterrupted()) {
+            if (roster.shouldRetire(ActorType.FAIRY)) {
+                logger.info("Fairy thread retired.");
+                break;
+            }
             try {
-                int ticket = manager.reserveHedgehogForFairy();
-                SimUtils.sleepInsideTask();
-                WarOutcome outcome = manager.sendReservedHedgehogToWar(ticket);
-                if (outcome != WarOutcome.DIED) {
-                    manager.releaseHedgehog(ticket);
+                int ticket = reserveRecruit(manager);
+                if (ticket != -1) {
+                    SimUtils.sleepInsideTask();
+                    WarOutcome outcome = manager.sendReservedHedgehogToWar(ticket);
+                    if (outcome != WarOutcome.DIED) {
+                        manager.releaseHedgehog(ticket);
+                    }
                 }
 
-                TimeUnit.MILLISECONDS.sleep(
-                        ConfigParameters.FAIRY_AVG_DELAY_MS
-                                + ThreadLocalRandom.current().nextInt(-jitterRange, jitterRange + 1));
+                TimeUnit.MILLISECONDS.sleep(LiveWorkload.current().nextDelayMs(ActorType.FAIRY));
             } catch (InterruptedException e) {
                 logger.info("Fairy thread interrupted and stopping.");
                 Thread.currentThread().interrupt();
@@ -43,4 +54,13 @@ public class FairyThread implements Runnable {
             }
         }
     }
+
+    // -1 if bounded reservations are on and no hedgehog came free in time.
+    private static int reserveRecruit(DenManager manager) throws InterruptedException {
+        if (!ConfigParameters.ENABLE_BOUNDED_RESERVATIONS) {
+            return manager.reserveHedgehogForFairy();
+        }
+        Reservation reservation = manager.tryReserveHedgehogForFairy(ConfigParameters.RESERVATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        return reservation.isReserved() ? reservation.ticket() : -1;
+    }
 }
@@ -1,11 +1,16 @@
 package model.threads;
 
+import config.ActorType;
 import config.ConfigParameters;
+import config.LiveWorkload;
+import config.SimRandom;
 import manager.DenManager;
+import manager.Reservation;
+import simulation.tools.ActorRoster;
 import simulation.tools.SimUtils;
 
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -16,22 +21,48 @@ import org.apache.logging.log4j.Logger;
  */
 public class HungryBumThread implements Runnable {
     private static final Logger logger = LogManager.getLogger(HungryBumThread.class);
+    private final RandomGenerator random = SimRandom.newStream();
 
     @Override
     public void run() {
         logger.info("Hungry bum thread started.");
+        SimRandom.bind(random);
         DenManager manager = DenManager.getInstance();
-        int jitterRange = (int) (ConfigParameters.HUNGRY_BUM_AVG_DELAY_MS * ConfigParameters.THREAD_DELAY_JITTER_PERCENT);
+        ActorRoster roster = ActorRoster.getInstance();
 
         while (!Thread.currentThread().isInterrupted()) {
+            if (roster.shouldRetire(ActorType.HUNGRY_BUM)) {
+                logger.info("Hungry bum thread retired.");
+                break;
+            }
             try {
-                int ticket = manager.reserveAnyHedgehog();
-                SimUtils.sleepInsideTask();
-                manager.killThatHog(ticket, "devoured by a bum");
+                int handled = 1;
+                if (ConfigParameters.ENABLE_BATCHED_OPERATIONS) {
+                    int[] tickets = ConfigParameters.ENABLE_BOUNDED_RESERVATIONS
+                            ? manager.tryReserveHedgehogs(ConfigParameters.DEN_BATCH_SIZE,
+                                    ConfigParameters.RESERVATION_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                            : manager.reserveHedgehogs(ConfigParameters.DEN_BATCH_SIZE);
+                    if (tickets.length > 0) {
+                        SimUtils.sleepInsideTask();
+                        manager.killThoseHogs(tickets, "devoured by a bum");
+                    }
+                    handled = tickets.length;
+                } else if (ConfigParameters.ENABLE_BOUNDED_RESERVATIONS) {
+                    Reservation reservation = manager.tryReserveAnyHedgehog(
+                            ConfigParameters.RESERVATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (reservation.isReserved()) {
+                        SimUtils.sleepInsideTask();
+                        manager.killThatHog(reservation.ticket(), "devoured by a bum");
+                    }
+                } else {
+                    int ticket = manager.reserveAnyHedgehog();
+                    SimUtils.sleepInsideTask();
+                    manager.killThatHog(ticket, "devoured by a bum");
+                }
 
-                TimeUnit.MILLISECONDS.sleep(
-                        ConfigParameters.HUNGRY_BUM_AVG_DELAY_MS
-                                + ThreadLocalRandom.current().nextInt(-jitterRange, jitterRange + 1));
+                // A feast stands in for that many meals, so the rate per hedgehog stays the same.
+                // A hunt that gave up on its reservation still counts as one meal's wait.
+                TimeUnit.MILLISECONDS.sleep(Math.max(handled, 1) * LiveWorkload.current().nextDelayMs(ActorType.HUNGRY_BUM));
             } catch (InterruptedException e) {
                 logger.info("Hungry bum thread interrupted and stopping.");
                 Thread.currentThread().interrupt();
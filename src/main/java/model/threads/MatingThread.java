@@ -1,11 +1,16 @@
 package model.threads;
 
+import config.ActorType;
 import config.ConfigParameters;
+import config.LiveWorkload;
+import config.SimRandom;
 import manager.DenManager;
+import manager.Reservation;
+import simulation.tools.ActorRoster;
 import simulation.tools.SimUtils;
 
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -16,22 +21,28 @@ import org.apache.logging.log4j.Logger;
  */
 public class MatingThread implements Runnable {
     private static final Logger logger = LogManager.getLogger(MatingThread.class);
+    private final RandomGenerator random = SimRandom.newStream();
 
     @Override
     public void run() {
         logger.info("Mating thread started.");
+        SimRandom.bind(random);
         DenManager manager = DenManager.getInstance();
-        int jitterRange = (int) (ConfigParameters.MATING_AVG_DELAY_MS * ConfigParameters.THREAD_DELAY_JITTER_PERCENT);
+        ActorRoster roster = ActorRoster.getInstance();
 
         while (!Thread.currentThread().isInterrupted()) {
+            if (roster.shouldRetire(ActorType.MATING)) {
+                logger.info("Mating thread retired.");
+                break;
+            }
             try {
-                int femaleTicket = manager.reserveFemaleHedgehogIfAny();
+                int femaleTicket = reserveFemale(manager);
                 if (femaleTicket == -1) {
-                    sleepWithJitter(jitterRange);
+                    sleepWithJitter();
                     continue;
                 }
 
-                int maleTicket = manager.reserveMaleHedgehogIfAny();
+                int maleTicket = reserveMale(manager);
                 if (maleTicket != -1) {
                     SimUtils.sleepInsideTask();
                     manager.reproduce(femaleTicket, maleTicket);
@@ -41,7 +52,7 @@ public class MatingThread implements Runnable {
                     manager.releaseHedgehog(femaleTicket);
                 }
 
-                sleepWithJitter(jitterRange);
+                sleepWithJitter();
             } catch (InterruptedException e) {
                 logger.info("Mating thread interrupted and stopping.");
                 Thread.currentThread().interrupt();
@@ -50,9 +61,25 @@ public class MatingThread implements Runnable {
         }
     }
 
-    private void sleepWithJitter(int jitterRange) throws InterruptedException {
-        TimeUnit.MILLISECONDS.sleep(
-                ConfigParameters.MATING_AVG_DELAY_MS
-                        + ThreadLocalRandom.current().nextInt(-jitterRange, jitterRange + 1));
+    // -1 if no female is alive, or bounded reservations are on and none came free in time.
+    private static int reserveFemale(DenManager manager) throws InterruptedException {
+        if (!ConfigParameters.ENABLE_BOUNDED_RESERVATIONS) {
+            return manager.reserveFemaleHedgehogIfAny();
+        }
+        Reservation reservation = manager.tryReserveFemaleHedgehog(ConfigParameters.RESERVATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        return reservation.isReserved() ? reservation.ticket() : -1;
+    }
+
+    // Bounded, the female is let go again if no male comes free in time, rather than held while waiting on one.
+    private static int reserveMale(DenManager manager) throws InterruptedException {
+        if (!ConfigParameters.ENABLE_BOUNDED_RESERVATIONS) {
+            return manager.reserveMaleHedgehogIfAny();
+        }
+        Reservation reservation = manager.tryReserveMaleHedgehog(ConfigParameters.RESERVATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        return reservation.isReserved() ? reservation.ticket() : -1;
+    }
+
+    private void sleepWithJitter() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(LiveWorkload.current().nextDelayMs(ActorType.MATING));
     }
 }
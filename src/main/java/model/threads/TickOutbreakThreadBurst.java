@@ -1,10 +1,13 @@
 package model.threads;
 
 import config.ConfigParameters;
+import config.SimRandom;
 import manager.DenManager;
+import simulation.tools.SimUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.random.RandomGenerator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -24,9 +27,9 @@ public class TickOutbreakThreadBurst {
     }
 
     public void startOutbreak() {
-        logger.info("Starting a tick outbreak with " + threadCount + " threads.");
+        logger.info("Starting a tick outbreak with " + threadCount + " actors (" + ConfigParameters.EXECUTION_MODE + ").");
         for (int i = 0; i < threadCount; i++) {
-            Thread thread = new Thread(new TickRunnable());
+            Thread thread = SimUtils.newActorThread(new TickRunnable());
             threads.add(thread);
             thread.start();
         }
@@ -41,12 +44,15 @@ public class TickOutbreakThreadBurst {
             logger.warn("Simulation was interrupted while waiting for a tick outbreak to finish.");
             throw e;
         }
-        logger.info("Tick outbreak finished.");
+        logger.info("Tick outbreak finished, " + threads.size() + " actors joined.");
     }
 
     private static class TickRunnable implements Runnable {
+        private final RandomGenerator random = SimRandom.newStream();
+
         @Override
         public void run() {
+            SimRandom.bind(random);
             DenManager manager = DenManager.getInstance();
 
             try {
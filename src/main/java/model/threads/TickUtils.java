@@ -1,16 +1,49 @@
 package model.threads;
 
 import manager.DenManager;
+import manager.Reservation;
 import simulation.tools.SimUtils;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Utility methods for tick-related operations.
  */
 public class TickUtils {
 
     public static void performTickAddition(DenManager manager) throws InterruptedException {
-        int ticket = manager.reserveAnyHedgehog();
+        addTick(manager, manager.reserveAnyHedgehog());
+    }
+
+    public static void performTickRemoval(DenManager manager) throws InterruptedException {
+        removeAllTicks(manager, manager.reserveHedgehogAboveTickThreshold());
+    }
 
+    /**
+     * Counterpart of {@link #performTickAddition} that gives up if no hedgehog comes free within timeoutMs.
+     * @return whether a hedgehog got a tick
+     */
+    public static boolean tryTickAddition(DenManager manager, int timeoutMs) throws InterruptedException {
+        Reservation reservation = manager.tryReserveAnyHedgehog(timeoutMs, TimeUnit.MILLISECONDS);
+        if (reservation.isReserved()) {
+            addTick(manager, reservation.ticket());
+        }
+        return reservation.isReserved();
+    }
+
+    /**
+     * Counterpart of {@link #performTickRemoval} that gives up if no infested hedgehog comes free within timeoutMs.
+     * @return whether a hedgehog was cleaned
+     */
+    public static boolean tryTickRemoval(DenManager manager, int timeoutMs) throws InterruptedException {
+        Reservation reservation = manager.tryReserveHedgehogAboveTickThreshold(timeoutMs, TimeUnit.MILLISECONDS);
+        if (reservation.isReserved()) {
+            removeAllTicks(manager, reservation.ticket());
+        }
+        return reservation.isReserved();
+    }
+
+    private static void addTick(DenManager manager, int ticket) throws InterruptedException {
         try {
             manager.addTickToReservedHedgehog(ticket);
 
@@ -21,9 +54,7 @@ public class TickUtils {
         }
     }
 
-    public static void performTickRemoval(DenManager manager) throws InterruptedException {
-        int ticket = manager.reserveHedgehogAboveTickThreshold();
-
+    private static void removeAllTicks(DenManager manager, int ticket) throws InterruptedException {
         try {
             manager.removeAllTicksFromReservedHedgehog(ticket);
 
@@ -34,4 +65,62 @@ public class TickUtils {
         }
     }
 
+    /**
+     * Batched counterpart of {@link #performTickAddition}, one reservation round trip for up to batchSize hedgehogs.
+     * @return the number of hedgehogs that got a tick
+     */
+    public static int performBatchedTickAddition(DenManager manager, int batchSize) throws InterruptedException {
+        return addTicks(manager, manager.reserveHedgehogs(batchSize));
+    }
+
+    /**
+     * Batched counterpart of {@link #performTickRemoval}, one reservation round trip for up to batchSize hedgehogs.
+     * @return the number of hedgehogs cleaned
+     */
+    public static int performBatchedTickRemoval(DenManager manager, int batchSize) throws InterruptedException {
+        return removeAllTicks(manager, manager.reserveHedgehogsAboveTickThreshold(batchSize));
+    }
+
+    /**
+     * Counterpart of {@link #performBatchedTickAddition} that gives up if no hedgehog comes free within timeoutMs.
+     * @return the number of hedgehogs that got a tick, 0 if it gave up
+     */
+    public static int tryBatchedTickAddition(DenManager manager, int batchSize, int timeoutMs) throws InterruptedException {
+        int[] tickets = manager.tryReserveHedgehogs(batchSize, timeoutMs, TimeUnit.MILLISECONDS);
+        return tickets.length > 0 ? addTicks(manager, tickets) : 0;
+    }
+
+    /**
+     * Counterpart of {@link #performBatchedTickRemoval} that gives up if no infested hedgehog comes free within timeoutMs.
+     * @return the number of hedgehogs cleaned, 0 if it gave up
+     */
+    public static int tryBatchedTickRemoval(DenManager manager, int batchSize, int timeoutMs) throws InterruptedException {
+        int[] tickets = manager.tryReserveHedgehogsAboveTickThreshold(batchSize, timeoutMs, TimeUnit.MILLISECONDS);
+        return tickets.length > 0 ? removeAllTicks(manager, tickets) : 0;
+    }
+
+    private static int addTicks(DenManager manager, int[] tickets) throws InterruptedException {
+        try {
+            manager.addTickToReservedHedgehogs(tickets);
+
+            SimUtils.sleepInsideTask();
+
+        } finally {
+            manager.releaseHedgehogs(tickets);
+        }
+        return tickets.length;
+    }
+
+    private static int removeAllTicks(DenManager manager, int[] tickets) throws InterruptedException {
+        try {
+            manager.removeAllTicksFromReservedHedgehogs(tickets);
+
+            SimUtils.sleepInsideTask();
+
+        } finally {
+            manager.releaseHedgehogs(tickets);
+        }
+        return tickets.length;
+    }
+
 }
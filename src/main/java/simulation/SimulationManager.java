@@ -1,16 +1,29 @@
 package simulation;
 
+import config.ColonyParameters;
+import config.ConfigLoader;
 import config.ConfigParameters;
+import config.ExecutionMode;
+import config.LiveWorkload;
+import config.SimRandom;
+import config.WorkloadSettings;
+import manager.ColonySnapshot;
 import manager.DenManager;
+import manager.StatsSnapshot;
 import model.threads.*;
-import simulation.tools.ExtinctionMonitor;
+import simulation.discrete.DiscreteEventSimulation;
+import simulation.tools.ActorRoster;
+import simulation.tools.ConfigFileWatcher;
+import simulation.tools.InvariantVerifier;
 import simulation.tools.LiveStatsDisplay;
+import simulation.tools.MetricsSampler;
 import simulation.tools.SimUtils;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Scanner;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -22,55 +35,203 @@ public class SimulationManager {
 
     private static final Logger logger = LogManager.getLogger(SimulationManager.class);
 
-    public static void runSimulation() throws InterruptedException {
+    public static void runSimulation(String[] args) throws InterruptedException, IOException {
+        Path configFile = ConfigLoader.load(args);
         validateConfigParameters();
+        LiveWorkload.reset();
 
         logger.info("Simulation started.");
         long startTime = System.currentTimeMillis();
+        if (ConfigParameters.ENABLE_SEEDED_RANDOMNESS) {
+            logger.info("Seeded randomness enabled with seed " + ConfigParameters.RANDOM_SEED + ".");
+        }
+        SimRandom.bind(SimRandom.newStream());
 
         DenManager manager = DenManager.getInstance();
 
         ScheduledExecutorService liveStatsExecutor = startLiveStatsExecutor();
+        Thread configWatcherThread = startConfigWatcher(configFile);
+        if (!ConfigParameters.EVENT_JOURNAL_FILE.isEmpty()) {
+            manager.openEventJournal(Path.of(ConfigParameters.EVENT_JOURNAL_FILE));
+        }
 
-        initializePopulation(manager);
-        performTickOutbreak();
-
-        List<Thread> threads = startEventThreads();
-        Thread extinctionMonitorThread = startExtinctionMonitor();
-
-        letTheSimulationRun();
-
-        shutdownEventThreads(threads);
-        shutdownExtinctionMonitor(extinctionMonitorThread);
-        shutdownLiveStatsExecutor(liveStatsExecutor);
+        boolean restored = !ConfigParameters.RESTORE_CHECKPOINT_FILE.isEmpty();
+        if (restored) {
+            restorePopulation(manager);
+        } else {
+            initializePopulation(manager);
+        }
+        watchPopulationAlert(manager);
+        // A restored colony has been through its outbreak already.
+        boolean withOutbreak = ConfigParameters.ENABLE_TICK_OUTBREAK && !restored;
+        ScheduledExecutorService checkpointExecutor = startCheckpointExecutor(manager);
+        MetricsSampler metricsSampler = ConfigParameters.METRICS_FILE.isEmpty() ? null
+                : new MetricsSampler(manager, Path.of(ConfigParameters.METRICS_FILE), ConfigParameters.METRICS_RING_CAPACITY);
+        ScheduledExecutorService metricsExecutor = startMetricsExecutor(metricsSampler);
+        InvariantVerifier invariantVerifier = ConfigParameters.INVARIANT_CHECK_BUDGET_PERCENT == 0 ? null
+                : new InvariantVerifier(manager, ConfigParameters.INVARIANT_CHECK_BUDGET_PERCENT,
+                        ConfigParameters.INVARIANT_CHECK_SLICE, ConfigParameters.INVARIANT_CHECK_MIN_INTERVAL_MS);
+        Thread invariantVerifierThread = startInvariantVerifier(invariantVerifier);
+        long simulatedTimeMs = -1;
+        long actorStopMs = -1;
+        if (ConfigParameters.EXECUTION_MODE == ExecutionMode.DISCRETE_EVENT) {
+            simulatedTimeMs = runDiscreteEventSimulation(manager, withOutbreak);
+            shutdownConfigWatcher(configWatcherThread);
+        } else {
+            actorStopMs = runThreadedSimulation(manager, withOutbreak, configWatcherThread);
+        }
+        long teardownStart = System.nanoTime();
+        shutdownInParallel(
+                () -> shutdownMetricsExecutor(metricsExecutor, metricsSampler),
+                () -> shutdownInvariantVerifier(invariantVerifierThread, invariantVerifier),
+                () -> shutdownCheckpointExecutor(checkpointExecutor),
+                () -> shutdownLiveStatsExecutor(liveStatsExecutor),
+                () -> manager.getNarrativeLog().close());
+        logger.info("Background services stopped in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - teardownStart) + " ms.");
+        Path checkpointFile = writeFinalCheckpoint(manager);
+        long journaledEventCount = manager.closeEventJournal();
 
         long endTime = System.currentTimeMillis();
-        boolean tickBalanceConsistent = checkTickBalance(manager);
-        boolean populationBalanceConsistent = checkPopulationBalance(manager);
+        ColonySnapshot finalSnapshot = manager.readColonySnapshot();
+        boolean tickBalanceConsistent = checkTickBalance(manager, finalSnapshot.stats());
+        boolean populationBalanceConsistent = checkPopulationBalance(manager, finalSnapshot.stats());
+        boolean aggregatesConsistent = !ConfigParameters.ENABLE_AGGREGATE_CROSS_CHECK || manager.crossCheckAggregates();
         logger.info("Simulation complete.");
 
         promptForFinalStats();
-        SimUtils.printFinalStats(startTime, endTime, tickBalanceConsistent, populationBalanceConsistent);
+        SimUtils.printFinalStats(finalSnapshot, startTime, endTime, tickBalanceConsistent, populationBalanceConsistent);
+        if (simulatedTimeMs >= 0) {
+            System.out.println("Simulated colony time: " + simulatedTimeMs + " ms");
+        }
+        if (actorStopMs >= 0) {
+            System.out.println("Event actors stopped in " + actorStopMs + " ms");
+        }
+        if (ConfigParameters.ENABLE_AGGREGATE_CROSS_CHECK) {
+            System.out.println(aggregatesConsistent ? "Colony aggregates match a full scan ✅" : "Colony aggregates drifted from the den ⚠️");
+        }
+        if (checkpointFile != null) {
+            System.out.println("Colony checkpoint written to " + checkpointFile);
+        }
+        if (metricsSampler != null) {
+            SimUtils.printThroughput(metricsSampler);
+        }
+        if (invariantVerifier != null) {
+            SimUtils.printInvariantChecks(invariantVerifier);
+        }
+        if (ConfigParameters.GENEALOGY_REPORT_LINEAGES > 0) {
+            SimUtils.printGenealogy(manager.getGenealogy(), ConfigParameters.GENEALOGY_REPORT_LINEAGES);
+        }
+        if (!ConfigParameters.EVENT_JOURNAL_FILE.isEmpty()) {
+            System.out.println("Event journal: " + journaledEventCount + " events written to " + ConfigParameters.EVENT_JOURNAL_FILE);
+        }
+    }
+
+    /**
+     * Stops the config watcher before the actors, so no workload change can start new ones on the way out.
+     * @return how long the event actors took to stop, in milliseconds
+     */
+    private static long runThreadedSimulation(DenManager manager, boolean withOutbreak, Thread configWatcherThread) throws InterruptedException {
+        if (withOutbreak) {
+            performTickOutbreak();
+        }
+
+        Consumer<WorkloadSettings> resizer = startEventThreads();
+
+        letTheSimulationRun(manager);
+
+        shutdownConfigWatcher(configWatcherThread);
+        LiveWorkload.removeListener(resizer);
+        return shutdownEventThreads();
+    }
+
+    private static long runDiscreteEventSimulation(DenManager manager, boolean withOutbreak) {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(manager, eventActorsPerType(), withOutbreak);
+        simulation.run();
+        return simulation.getSimulatedTimeMs();
     }
 
-    private static void letTheSimulationRun() {
+    /**
+     * Waits until MAX_SIMULATION_DURATION_SEC has passed or the colony has died out, whichever comes first.
+     * The den completes its extinction future as the last hedgehog dies, so nothing polls the population.
+     */
+    private static void letTheSimulationRun(DenManager manager) {
+        CompletableFuture<Boolean> end = manager.getLifecycle().extinction()
+                .thenApply(ignored -> true)
+                .completeOnTimeout(false, ConfigParameters.MAX_SIMULATION_DURATION_SEC, TimeUnit.SECONDS);
         try {
-            TimeUnit.SECONDS.sleep(ConfigParameters.MAX_SIMULATION_DURATION_SEC);
+            if (end.get()) {
+                logger.info("EXTINCTION EVENT! No hedgehogs left. Ending simulation.");
+            }
         } catch (InterruptedException e) {
             logger.info("Simulation interrupted. Proceeding to shutdown.");
+        } catch (ExecutionException e) {
+            logger.error("Critical logic error: the colony's end could not be awaited.", e);
+            throw new IllegalStateException("Simulation end future failed.", e);
         }
     }
 
-    private static Thread startExtinctionMonitor() {
-        Thread extinctionMonitorThread = new Thread(new ExtinctionMonitor(Thread.currentThread()));
-        extinctionMonitorThread.start();
-        return extinctionMonitorThread;
+    /**
+     * Logs each time the population falls below POPULATION_ALERT_THRESHOLD and when it climbs back, if set.
+     */
+    private static void watchPopulationAlert(DenManager manager) {
+        if (ConfigParameters.POPULATION_ALERT_THRESHOLD == 0) {
+            return;
+        }
+        manager.getLifecycle().watchPopulation(ConfigParameters.POPULATION_ALERT_THRESHOLD, (threshold, rising, population) -> {
+            if (rising) {
+                logger.info("Population recovered to " + population + " hedgehogs.");
+            } else {
+                logger.warn("Population fell below " + threshold + " hedgehogs.");
+            }
+        });
     }
 
-    private static void performTickOutbreak() throws InterruptedException {
-        if (!ConfigParameters.ENABLE_TICK_OUTBREAK) {
+    @FunctionalInterface
+    private interface ShutdownStep {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Runs independent teardown steps side by side, so the end of a run waits for the slowest rather than for all in turn.
+     */
+    private static void shutdownInParallel(ShutdownStep... steps) throws InterruptedException {
+        Thread[] threads = new Thread[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            ShutdownStep step = steps[i];
+            threads[i] = Thread.ofVirtual().name("shutdown-" + i).start(() -> {
+                try {
+                    step.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Picks up workload changes from the configuration file while the simulation runs, if one was given.
+     */
+    private static Thread startConfigWatcher(Path configFile) throws IOException {
+        if (configFile == null) {
+            return null;
+        }
+        Thread configWatcherThread = new Thread(new ConfigFileWatcher(configFile));
+        configWatcherThread.start();
+        return configWatcherThread;
+    }
+
+    private static void shutdownConfigWatcher(Thread configWatcherThread) throws InterruptedException {
+        if (configWatcherThread == null) {
             return;
         }
+        configWatcherThread.interrupt();
+        configWatcherThread.join();
+    }
+
+    private static void performTickOutbreak() throws InterruptedException {
         TickOutbreakThreadBurst outbreak = new TickOutbreakThreadBurst();
         outbreak.startOutbreak();
         outbreak.waitForOutbreakToFinish();
@@ -83,9 +244,46 @@ public class SimulationManager {
         return liveStatsExecutor;
     }
 
-    private static void shutdownExtinctionMonitor(Thread extinctionMonitorThread) throws InterruptedException {
-        extinctionMonitorThread.interrupt();
-        extinctionMonitorThread.join();
+    /**
+     * Samples the counters into a time series every METRICS_SAMPLE_INTERVAL_MS, if enabled.
+     */
+    private static ScheduledExecutorService startMetricsExecutor(MetricsSampler sampler) {
+        if (sampler == null) {
+            return null;
+        }
+        ScheduledExecutorService metricsExecutor = Executors.newSingleThreadScheduledExecutor();
+        metricsExecutor.scheduleAtFixedRate(sampler,
+                ConfigParameters.METRICS_SAMPLE_INTERVAL_MS, ConfigParameters.METRICS_SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        return metricsExecutor;
+    }
+
+    private static void shutdownMetricsExecutor(ScheduledExecutorService executor, MetricsSampler sampler) throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+        sampler.finish();
+    }
+
+    /**
+     * Checks the colony's invariants while it runs, within INVARIANT_CHECK_BUDGET_PERCENT of wall-clock time, if enabled.
+     */
+    private static Thread startInvariantVerifier(InvariantVerifier verifier) {
+        if (verifier == null) {
+            return null;
+        }
+        return Thread.ofPlatform().daemon().name("invariant-verifier").start(verifier);
+    }
+
+    // One last check once the actors have stopped, so the final state is covered too.
+    private static void shutdownInvariantVerifier(Thread verifierThread, InvariantVerifier verifier) throws InterruptedException {
+        if (verifierThread == null) {
+            return;
+        }
+        verifierThread.interrupt();
+        verifierThread.join();
+        verifier.check();
     }
 
     private static void initializePopulation(DenManager manager) {
@@ -95,51 +293,90 @@ public class SimulationManager {
         logger.info("Initial hedgehog population created: " + ConfigParameters.INITIAL_HEDGEHOG_COUNT);
     }
 
-    private static List<Thread> startEventThreads() {
-        List<Thread> threads = new ArrayList<>();
-
-        int roundedHogCount = (int) (10 * Math.round(ConfigParameters.INITIAL_HEDGEHOG_COUNT / 10.0));
-        int threadsPerType = (roundedHogCount / 10) * ConfigParameters.NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS;
-        logger.info("Creating " + threadsPerType + " threads per event type based on " + ConfigParameters.INITIAL_HEDGEHOG_COUNT + " initial hedgehogs.");
+    private static void restorePopulation(DenManager manager) throws IOException {
+        long restoreStart = System.nanoTime();
+        int restoredCount = manager.restoreCheckpoint(Path.of(ConfigParameters.RESTORE_CHECKPOINT_FILE));
+        logger.info("Restored " + restoredCount + " hedgehogs from " + ConfigParameters.RESTORE_CHECKPOINT_FILE
+                + " in " + (System.nanoTime() - restoreStart) / 1_000_000 + " ms.");
+    }
 
-        for (int i = 0; i < threadsPerType; i++) {
-            if (ConfigParameters.ENABLE_CASUAL_TICK_THREADS) {
-                threads.add(new Thread(new TickCasualThread()));
-            }
-            if (ConfigParameters.ENABLE_EPIDEMIOLOGIST_THREADS) {
-                threads.add(new Thread(new EpidemiologistThread()));
-            }
-            if (ConfigParameters.ENABLE_HUNGRY_BUM_THREADS) {
-                threads.add(new Thread(new HungryBumThread()));
-            }
-            if (ConfigParameters.ENABLE_MATING_THREADS) {
-                threads.add(new Thread(new MatingThread()));
-            }
-            if (ConfigParameters.ENABLE_FAIRY_THREADS) {
-                threads.add(new Thread(new FairyThread()));
-            }
+    /**
+     * Checkpoints the running colony every CHECKPOINT_INTERVAL_SEC, if enabled.
+     */
+    private static ScheduledExecutorService startCheckpointExecutor(DenManager manager) {
+        if (ConfigParameters.CHECKPOINT_INTERVAL_SEC == 0) {
+            return null;
         }
-        threads.forEach(Thread::start);
-        return threads;
+        Path checkpointFile = Path.of(ConfigParameters.CHECKPOINT_FILE);
+        ScheduledExecutorService checkpointExecutor = Executors.newSingleThreadScheduledExecutor();
+        checkpointExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                manager.writeCheckpoint(checkpointFile);
+            } catch (IOException e) {
+                logger.error("Checkpoint could not be written to " + checkpointFile + ": " + e.getMessage());
+            }
+        }, ConfigParameters.CHECKPOINT_INTERVAL_SEC, ConfigParameters.CHECKPOINT_INTERVAL_SEC, TimeUnit.SECONDS);
+        return checkpointExecutor;
     }
 
-    private static void shutdownEventThreads(List<Thread> threads) throws InterruptedException {
-        for (Thread thread : threads) {
-            thread.interrupt();
+    private static void shutdownCheckpointExecutor(ScheduledExecutorService executor) throws InterruptedException {
+        if (executor == null) {
+            return;
         }
-        for (Thread thread : threads) {
-            thread.join();
+        executor.shutdown();
+        // A checkpoint being written is allowed to finish.
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private static Path writeFinalCheckpoint(DenManager manager) throws IOException {
+        if (ConfigParameters.CHECKPOINT_FILE.isEmpty()) {
+            return null;
         }
+        Path checkpointFile = Path.of(ConfigParameters.CHECKPOINT_FILE);
+        manager.writeCheckpoint(checkpointFile);
+        return checkpointFile;
+    }
+
+    /**
+     * Starts the event threads and keeps their number per type in line with live workload updates.
+     * @return the listener resizing the actors, to remove before they are stopped
+     */
+    private static Consumer<WorkloadSettings> startEventThreads() {
+        ActorRoster roster = ActorRoster.getInstance();
+        DenManager manager = DenManager.getInstance();
+
+        int threadsPerType = eventActorsPerType();
+        logger.info("Creating " + threadsPerType + " threads per event type based on " + ConfigParameters.INITIAL_HEDGEHOG_COUNT + " initial hedgehogs.");
+        roster.resize(threadsPerType);
+        Consumer<WorkloadSettings> resizer = settings -> roster.resize(manager.getParameters()
+                .with("NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS", settings.eventThreadsPerTypePer10Hedgehogs())
+                .eventActorsPerType());
+        LiveWorkload.addListener(resizer);
+        logger.info("Started " + threadsPerType + " event actors per type (" + ConfigParameters.EXECUTION_MODE + ").");
+        return resizer;
+    }
+
+    private static int eventActorsPerType() {
+        return DenManager.getInstance().getParameters().eventActorsPerType();
+    }
+
+    private static long shutdownEventThreads() throws InterruptedException {
+        long start = System.nanoTime();
+        int stopped = ActorRoster.getInstance().stopAll();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Stopped " + stopped + " event actors in " + elapsedMs + " ms.");
+        return elapsedMs;
     }
 
     private static void shutdownLiveStatsExecutor(ScheduledExecutorService executor) throws InterruptedException {
-        TimeUnit.MILLISECONDS.sleep(ConfigParameters.LIVE_STATS_REFRESH_FREQUENCY_MS + 1);
         executor.shutdown();
         if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
             logger.warn("Live Stats Executor did not terminate in time. Forcing shutdown.");
             executor.shutdownNow();
             executor.awaitTermination(1, TimeUnit.SECONDS);
         }
+        // One last refresh shows the final counts without waiting out a refresh period.
+        new LiveStatsDisplay().run();
     }
 
     private static void promptForFinalStats() {
@@ -147,18 +384,16 @@ public class SimulationManager {
         new Scanner(System.in).nextLine();
     }
 
-    private static boolean checkTickBalance(DenManager manager) {
-        boolean tickBalanceConsistent = manager.getStats().getTicksAddedCount()
-                == manager.getTotalTicksOnHedgehogs() + manager.getStats().getTicksRemovedCount();
+    private static boolean checkTickBalance(DenManager manager, StatsSnapshot stats) {
+        boolean tickBalanceConsistent = stats.expectedTicksPresent() == manager.getTotalTicksOnHedgehogs();
         if (!tickBalanceConsistent) {
             logger.error("Actual tick count is not as expected. Critical error in simulation logic.");
         }
         return tickBalanceConsistent;
     }
 
-    private static boolean checkPopulationBalance(DenManager manager) {
-        boolean populationBalanceConsistent = manager.getStats().getHedgehogsBorn() - manager.getStats().getHedgehogsDied()
-                == manager.getHedgehogCount();
+    private static boolean checkPopulationBalance(DenManager manager, StatsSnapshot stats) {
+        boolean populationBalanceConsistent = stats.expectedPopulation() == manager.getHedgehogCount();
         if (!populationBalanceConsistent) {
             logger.error("Actual hedgehog count is not as expected. Critical error in simulation logic.");
         }
@@ -166,62 +401,66 @@ public class SimulationManager {
     }
 
     private static void validateConfigParameters() {
-        if (ConfigParameters.MAX_SIMULATION_DURATION_SEC < 0) {
-            throw new IllegalArgumentException("MAX_SIMULATION_DURATION cannot be negative.");
+        // Colony-scoped parameters validate themselves.
+        ColonyParameters.defaults();
+        if (ConfigParameters.OUTBREAK_THREADS_PER_HEDGEHOG_FACTOR < 0) {
+            throw new IllegalArgumentException("OUTBREAK_THREADS_PER_HEDGEHOG_FACTOR cannot be negative.");
         }
-        if (ConfigParameters.INITIAL_HEDGEHOG_COUNT < 0) {
-            throw new IllegalArgumentException("INITIAL_HEDGEHOG_COUNT cannot be negative.");
+        if (ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST < 0) {
+            throw new IllegalArgumentException("MIN_TICKS_FOR_EPIDEMIOLOGIST cannot be negative.");
         }
-        if (ConfigParameters.NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS < 0) {
-            throw new IllegalArgumentException("NUMBER_OF_EVENT_THREADS_PER_TYPE_PER_10_HEDGEHOGS cannot be negative.");
+        if (ConfigParameters.DEN_SHARD_COUNT < 1) {
+            throw new IllegalArgumentException("DEN_SHARD_COUNT must be at least 1.");
         }
-        if (ConfigParameters.FEMALE_BORN_PROBABILITY < 0 || ConfigParameters.FEMALE_BORN_PROBABILITY > 1) {
-            throw new IllegalArgumentException("FEMALE_BORN_PROBABILITY must be between 0 and 1.");
+        if (ConfigParameters.DEN_BATCH_SIZE < 1) {
+            throw new IllegalArgumentException("DEN_BATCH_SIZE must be at least 1.");
         }
-        if (ConfigParameters.PROBABILITY_DIE_AT_WAR < 0 || ConfigParameters.PROBABILITY_SEASONED_WARRIOR_LEVEL_UP < 0) {
-            throw new IllegalArgumentException("PROBABILITY_DIE_AT_WAR and PROBABILITY_SEASONED_WARRIOR_LEVEL_UP cannot be negative.");
+        if (ConfigParameters.RESERVATION_TIMEOUT_MS < 1) {
+            throw new IllegalArgumentException("RESERVATION_TIMEOUT_MS must be at least 1.");
         }
-        if (ConfigParameters.PROBABILITY_DIE_AT_WAR + ConfigParameters.PROBABILITY_SEASONED_WARRIOR_LEVEL_UP > 1) {
-            throw new IllegalArgumentException("PROBABILITY_DIE_AT_WAR + PROBABILITY_SEASONED_WARRIOR_LEVEL_UP must not exceed 1.");
+        if (ConfigParameters.NARRATIVE_LOG_QUEUE_CAPACITY < 1) {
+            throw new IllegalArgumentException("NARRATIVE_LOG_QUEUE_CAPACITY must be at least 1.");
         }
-        if (ConfigParameters.SEASONED_WARRIOR_DEATH_REDUCTION_PER_LEVEL < 0 || ConfigParameters.SEASONED_WARRIOR_DEATH_REDUCTION_PER_LEVEL >= 1) {
-            throw new IllegalArgumentException("SEASONED_WARRIOR_DEATH_REDUCTION_PER_LEVEL must be in [0, 1).");
+        if (ConfigParameters.NARRATIVE_LOG_SAMPLE_RATE < 1) {
+            throw new IllegalArgumentException("NARRATIVE_LOG_SAMPLE_RATE must be at least 1.");
         }
-        if (ConfigParameters.OUTBREAK_THREADS_PER_HEDGEHOG_FACTOR < 0) {
-            throw new IllegalArgumentException("OUTBREAK_THREADS_PER_HEDGEHOG_FACTOR cannot be negative.");
+        // Workload parameters validate themselves too, also when changed during the run.
+        WorkloadSettings.fromConfig();
+        if (ConfigParameters.CHECKPOINT_INTERVAL_SEC < 0) {
+            throw new IllegalArgumentException("CHECKPOINT_INTERVAL_SEC cannot be negative.");
         }
-        if (ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST < 0) {
-            throw new IllegalArgumentException("MIN_TICKS_FOR_EPIDEMIOLOGIST cannot be negative.");
+        if (ConfigParameters.CHECKPOINT_INTERVAL_SEC > 0 && ConfigParameters.CHECKPOINT_FILE.isEmpty()) {
+            throw new IllegalArgumentException("CHECKPOINT_INTERVAL_SEC needs a CHECKPOINT_FILE.");
         }
-        if (ConfigParameters.THREAD_DELAY_JITTER_PERCENT < 0 || ConfigParameters.THREAD_DELAY_JITTER_PERCENT > 1) {
-            throw new IllegalArgumentException("THREAD_DELAY_JITTER_PERCENT must be between 0 and 1.");
+        if (ConfigParameters.CHECKPOINT_MMAP_THRESHOLD_BYTES < 0) {
+            throw new IllegalArgumentException("CHECKPOINT_MMAP_THRESHOLD_BYTES cannot be negative.");
         }
-        if (ConfigParameters.MIN_SLEEP_INSIDE_TASK_MS < 0 || ConfigParameters.MAX_SLEEP_INSIDE_TASK_MS < 0) {
-            throw new IllegalArgumentException("Sleep durations cannot be negative.");
+        if (ConfigParameters.CONFIG_RELOAD_CHECK_FREQUENCY_MS < 1) {
+            throw new IllegalArgumentException("CONFIG_RELOAD_CHECK_FREQUENCY_MS must be at least 1.");
         }
-        if (ConfigParameters.MIN_SLEEP_INSIDE_TASK_MS > ConfigParameters.MAX_SLEEP_INSIDE_TASK_MS) {
-            throw new IllegalArgumentException("MIN_SLEEP_INSIDE_TASK_MS cannot exceed MAX_SLEEP_INSIDE_TASK_MS.");
+        if (ConfigParameters.POPULATION_ALERT_THRESHOLD < 0) {
+            throw new IllegalArgumentException("POPULATION_ALERT_THRESHOLD cannot be negative.");
         }
-        if (ConfigParameters.CASUAL_TICK_AVG_DELAY_MS < 0) {
-            throw new IllegalArgumentException("CASUAL_TICK_AVG_DELAY_MS cannot be negative.");
+        if (ConfigParameters.LIVE_STATS_REFRESH_FREQUENCY_MS < 0) {
+            throw new IllegalArgumentException("LIVE_STATS_REFRESH_FREQUENCY_MS cannot be negative.");
         }
-        if (ConfigParameters.EPIDEMIOLOGIST_AVG_DELAY_MS < 0) {
-            throw new IllegalArgumentException("EPIDEMIOLOGIST_AVG_DELAY_MS cannot be negative.");
+        if (ConfigParameters.METRICS_SAMPLE_INTERVAL_MS < 1) {
+            throw new IllegalArgumentException("METRICS_SAMPLE_INTERVAL_MS must be at least 1.");
         }
-        if (ConfigParameters.HUNGRY_BUM_AVG_DELAY_MS < 0) {
-            throw new IllegalArgumentException("HUNGRY_BUM_AVG_DELAY_MS cannot be negative.");
+        if (ConfigParameters.INVARIANT_CHECK_BUDGET_PERCENT < 0 || ConfigParameters.INVARIANT_CHECK_BUDGET_PERCENT >= 100) {
+            throw new IllegalArgumentException("INVARIANT_CHECK_BUDGET_PERCENT must be at least 0 and below 100.");
         }
-        if (ConfigParameters.MATING_AVG_DELAY_MS < 0) {
-            throw new IllegalArgumentException("MATING_AVG_DELAY_MS cannot be negative.");
+        if (ConfigParameters.INVARIANT_CHECK_SLICE < 1) {
+            throw new IllegalArgumentException("INVARIANT_CHECK_SLICE must be at least 1.");
         }
-        if (ConfigParameters.FAIRY_AVG_DELAY_MS < 0) {
-            throw new IllegalArgumentException("FAIRY_AVG_DELAY_MS cannot be negative.");
+        if (ConfigParameters.INVARIANT_CHECK_MIN_INTERVAL_MS < 1) {
+            throw new IllegalArgumentException("INVARIANT_CHECK_MIN_INTERVAL_MS must be at least 1.");
         }
-        if (ConfigParameters.POPULATION_MONITOR_CHECK_FREQUENCY_MS < 0) {
-            throw new IllegalArgumentException("POPULATION_MONITOR_CHECK_FREQUENCY_MS cannot be negative.");
+        if (ConfigParameters.GENEALOGY_REPORT_LINEAGES < 0) {
+            throw new IllegalArgumentException("GENEALOGY_REPORT_LINEAGES cannot be negative.");
         }
-        if (ConfigParameters.LIVE_STATS_REFRESH_FREQUENCY_MS < 0) {
-            throw new IllegalArgumentException("LIVE_STATS_REFRESH_FREQUENCY_MS cannot be negative.");
+        if (ConfigParameters.METRICS_RING_CAPACITY < 1) {
+            throw new IllegalArgumentException("METRICS_RING_CAPACITY must be at least 1.");
         }
     }
 }
@@ -0,0 +1,109 @@
+package simulation.discrete;
+
+import manager.ReservationCategory;
+import model.Hedgehog;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Single-threaded event scheduler running on a simulated clock.
+ * Events fire in time order (ties in scheduling order), and the clock jumps straight to the next event,
+ * so idle colony time costs nothing. Actors that find no free hedgehog park here in a queue per category,
+ * and each hedgehog coming free, released or newly added, reschedules the one parked actor it suits,
+ * picked like the den's hand-over to parked reservers.
+ */
+public class DiscreteEventEngine {
+    private static final ReservationCategory[] CATEGORIES = ReservationCategory.values();
+
+    private final PriorityQueue<ScheduledEvent> events = new PriorityQueue<>();
+    // Oldest first in each queue.
+    private final Map<ReservationCategory, ArrayDeque<Waiter>> waiters = new EnumMap<>(ReservationCategory.class);
+    private long now = 0;
+    private long sequence = 0;
+    private long arrivals = 0;
+
+    private record ScheduledEvent(long time, long sequence, Runnable action) implements Comparable<ScheduledEvent> {
+        @Override
+        public int compareTo(ScheduledEvent other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private record Waiter(long arrival, Runnable retry) {
+    }
+
+    public DiscreteEventEngine() {
+        for (ReservationCategory category : CATEGORIES) {
+            waiters.put(category, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Current simulated time in milliseconds since the engine started.
+     */
+    public long now() {
+        return now;
+    }
+
+    public void schedule(long delayMs, Runnable action) {
+        events.add(new ScheduledEvent(now + Math.max(0, delayMs), sequence++, action));
+    }
+
+    /**
+     * Parks an actor until a hedgehog of the category comes free.
+     */
+    public void awaitHedgehog(ReservationCategory category, Runnable retry) {
+        waiters.get(category).addLast(new Waiter(arrivals++, retry));
+    }
+
+    /**
+     * Reschedules the longest-parked actor the hedgehog suits at the current time, to reserve it.
+     * Actors that can only use this kind of hedgehog go first, otherwise a mating pair waiting on a male
+     * queues behind every casual actor. Looks at the head of each category's queue only.
+     */
+    public void signalFree(Hedgehog hedgehog) {
+        ReservationCategory chosen = null;
+        long chosenArrival = Long.MAX_VALUE;
+        boolean chosenSpecific = false;
+        for (ReservationCategory category : CATEGORIES) {
+            Waiter head = waiters.get(category).peekFirst();
+            if (head == null || !category.accepts(hedgehog.getSex(), hedgehog.getTickCount())) {
+                continue;
+            }
+            boolean specific = category.isSpecific();
+            if (specific && !chosenSpecific || specific == chosenSpecific && head.arrival() < chosenArrival) {
+                chosen = category;
+                chosenArrival = head.arrival();
+                chosenSpecific = specific;
+            }
+        }
+        if (chosen != null) {
+            schedule(0, waiters.get(chosen).pollFirst().retry());
+        }
+    }
+
+    /**
+     * Runs events until the queue is empty, the next event lies beyond endTimeMs, or stopCondition holds.
+     * The clock is left at endTimeMs when the run was cut off by time.
+     */
+    public void runUntil(long endTimeMs, BooleanSupplier stopCondition) {
+        while (!events.isEmpty() && !stopCondition.getAsBoolean()) {
+            if (events.peek().time() > endTimeMs) {
+                now = endTimeMs;
+                return;
+            }
+            ScheduledEvent event = events.poll();
+            now = event.time();
+            event.action().run();
+        }
+    }
+
+    public boolean isIdle() {
+        return events.isEmpty();
+    }
+}
@@ -0,0 +1,270 @@
+package simulation.discrete;
+
+import config.ActorType;
+import config.ConfigParameters;
+import config.LiveWorkload;
+import config.SimRandom;
+import manager.ColonyLifecycle;
+import manager.DenManager;
+import manager.Reservation;
+import manager.ReservationCategory;
+import manager.WarOutcome;
+import model.Hedgehog;
+
+import java.util.random.RandomGenerator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs the colony on a {@link DiscreteEventEngine} instead of actor threads.
+ * Each actor mirrors its thread counterpart in model.threads step by step, with every sleep turned into
+ * a scheduled event and every blocking reservation into a non-blocking try plus parking on the engine.
+ * All rules are still applied by {@link DenManager}, so counters and balance checks are the same.
+ * The colony's MAX_SIMULATION_DURATION_SEC is measured on the simulated clock in this mode.
+ */
+public class DiscreteEventSimulation {
+    private final DenManager manager;
+    private final DiscreteEventEngine engine = new DiscreteEventEngine();
+    private final int actorsPerType;
+    private final boolean withOutbreak;
+    private int actorCount = 0;
+    private static final Logger logger = LogManager.getLogger(DiscreteEventSimulation.class);
+
+    public DiscreteEventSimulation(DenManager manager, int actorsPerType, boolean withOutbreak) {
+        this.manager = manager;
+        this.actorsPerType = actorsPerType;
+        this.withOutbreak = withOutbreak;
+        // Newborns come free like released hedgehogs do, the den would hand them to a parked reserver too.
+        manager.getLifecycle().watchBirths(engine::signalFree);
+    }
+
+    /**
+     * Plays the tick outbreak to completion (if requested), then runs the event actors until the simulated
+     * duration is over or the colony dies out.
+     */
+    public void run() {
+        if (withOutbreak) {
+            int outbreakActors = (int) Math.round(manager.getHedgehogCount() * ConfigParameters.OUTBREAK_THREADS_PER_HEDGEHOG_FACTOR);
+            logger.info("Starting a simulated tick outbreak with " + outbreakActors + " actors.");
+            for (int i = 0; i < outbreakActors; i++) {
+                new TickActor(false).start();
+            }
+            engine.runUntil(Long.MAX_VALUE, () -> false);
+            logger.info("Simulated tick outbreak finished at " + engine.now() + " ms.");
+            actorCount = 0;
+        }
+
+        long endTime = engine.now() + manager.getParameters().maxSimulationDurationSec() * 1000L;
+        for (int i = 0; i < actorsPerType; i++) {
+            if (ConfigParameters.ENABLE_CASUAL_TICK_THREADS) {
+                new TickActor(true).start();
+            }
+            if (ConfigParameters.ENABLE_EPIDEMIOLOGIST_THREADS) {
+                new EpidemiologistActor().start();
+            }
+            if (ConfigParameters.ENABLE_HUNGRY_BUM_THREADS) {
+                new HungryBumActor().start();
+            }
+            if (ConfigParameters.ENABLE_MATING_THREADS) {
+                new MatingActor().start();
+            }
+            if (ConfigParameters.ENABLE_FAIRY_THREADS) {
+                new FairyActor().start();
+            }
+        }
+        logger.info("Started " + actorCount + " simulated event actors.");
+
+        ColonyLifecycle lifecycle = manager.getLifecycle();
+        engine.runUntil(endTime, lifecycle::isExtinct);
+        if (lifecycle.isExtinct()) {
+            logger.info("EXTINCTION EVENT! No hedgehogs left. Ending simulation.");
+        }
+        logger.info("Simulated " + engine.now() + " ms of colony life with " + actorCount + " event actors.");
+    }
+
+    public long getSimulatedTimeMs() {
+        return engine.now();
+    }
+
+    /**
+     * Every step of an actor runs with the actor's own random stream bound,
+     * so its decisions (and DenManager's on its behalf) are reproducible in seeded mode.
+     */
+    private abstract class Actor {
+        private final ActorType type;
+        private final RandomGenerator random = SimRandom.newStream();
+
+        Actor(ActorType type) {
+            this.type = type;
+        }
+
+        void start() {
+            actorCount++;
+            engine.schedule(0, inOwnStream(this::act));
+        }
+
+        abstract void act();
+
+        void actAgainLater() {
+            engine.schedule(LiveWorkload.current().nextDelayMs(type), inOwnStream(this::act));
+        }
+
+        void afterTask(Runnable action) {
+            engine.schedule(LiveWorkload.current().nextSleepInsideTaskMs(), inOwnStream(action));
+        }
+
+        void waitForHedgehog(ReservationCategory category, Runnable retry) {
+            manager.getStats().incrementConditionWait();
+            engine.awaitHedgehog(category, inOwnStream(retry));
+        }
+
+        private Runnable inOwnStream(Runnable step) {
+            return () -> {
+                SimRandom.bind(random);
+                step.run();
+            };
+        }
+
+        void release(int ticket) {
+            Hedgehog released = manager.getReservedHedgehog(ticket);
+            manager.releaseHedgehog(ticket);
+            engine.signalFree(released);
+        }
+    }
+
+    /**
+     * Casual tick, or a one-shot outbreak tick when not repeating.
+     */
+    private class TickActor extends Actor {
+        private final boolean repeating;
+
+        TickActor(boolean repeating) {
+            super(ActorType.CASUAL_TICK);
+            this.repeating = repeating;
+        }
+
+        @Override
+        void act() {
+            Reservation reservation = manager.tryReserveAnyHedgehog();
+            if (!reservation.isReserved()) {
+                waitForHedgehog(ReservationCategory.ANY, this::act);
+                return;
+            }
+            int ticket = reservation.ticket();
+            manager.addTickToReservedHedgehog(ticket);
+            afterTask(() -> {
+                release(ticket);
+                if (repeating) {
+                    actAgainLater();
+                }
+            });
+        }
+    }
+
+    private class EpidemiologistActor extends Actor {
+        EpidemiologistActor() {
+            super(ActorType.EPIDEMIOLOGIST);
+        }
+
+        @Override
+        void act() {
+            Reservation reservation = manager.tryReserveHedgehogAboveTickThreshold();
+            if (!reservation.isReserved()) {
+                waitForHedgehog(ReservationCategory.ABOVE_TICK_THRESHOLD, this::act);
+                return;
+            }
+            int ticket = reservation.ticket();
+            manager.removeAllTicksFromReservedHedgehog(ticket);
+            afterTask(() -> {
+                release(ticket);
+                actAgainLater();
+            });
+        }
+    }
+
+    private class HungryBumActor extends Actor {
+        HungryBumActor() {
+            super(ActorType.HUNGRY_BUM);
+        }
+
+        @Override
+        void act() {
+            Reservation reservation = manager.tryReserveAnyHedgehog();
+            if (!reservation.isReserved()) {
+                waitForHedgehog(ReservationCategory.ANY, this::act);
+                return;
+            }
+            int ticket = reservation.ticket();
+            afterTask(() -> {
+                manager.killThatHog(ticket, "devoured by a bum");
+                actAgainLater();
+            });
+        }
+    }
+
+    private class MatingActor extends Actor {
+        MatingActor() {
+            super(ActorType.MATING);
+        }
+
+        @Override
+        void act() {
+            if (manager.getFemaleHedgehogCount() == 0) {
+                actAgainLater();
+                return;
+            }
+            Reservation femaleReservation = manager.tryReserveFemaleHedgehog();
+            if (!femaleReservation.isReserved()) {
+                waitForHedgehog(ReservationCategory.FEMALE, this::act);
+                return;
+            }
+            int femaleTicket = femaleReservation.ticket();
+            findMale(femaleTicket);
+        }
+
+        // Keeps holding the female while waiting, as the mating thread does.
+        private void findMale(int femaleTicket) {
+            if (manager.getMaleHedgehogCount() == 0) {
+                release(femaleTicket);
+                actAgainLater();
+                return;
+            }
+            Reservation maleReservation = manager.tryReserveMaleHedgehog();
+            if (!maleReservation.isReserved()) {
+                waitForHedgehog(ReservationCategory.MALE, () -> findMale(femaleTicket));
+                return;
+            }
+            int maleTicket = maleReservation.ticket();
+            afterTask(() -> {
+                manager.reproduce(femaleTicket, maleTicket);
+                release(femaleTicket);
+                release(maleTicket);
+                actAgainLater();
+            });
+        }
+    }
+
+    private class FairyActor extends Actor {
+        FairyActor() {
+            super(ActorType.FAIRY);
+        }
+
+        @Override
+        void act() {
+            Reservation reservation = manager.tryReserveHedgehogForFairy();
+            if (!reservation.isReserved()) {
+                waitForHedgehog(ReservationCategory.FAIRY, this::act);
+                return;
+            }
+            int ticket = reservation.ticket();
+            afterTask(() -> {
+                WarOutcome outcome = manager.sendReservedHedgehogToWar(ticket);
+                if (outcome != WarOutcome.DIED) {
+                    release(ticket);
+                }
+                actAgainLater();
+            });
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package simulation.replay;
+
+import config.ConfigLoader;
+import config.ConfigParameters;
+import manager.JournalReplay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Replays an event journal written with {@link ConfigParameters#EVENT_JOURNAL_FILE} and reports the colony
+ * it leads to, together with the first event that does not follow from the ones before it.
+ * Arguments: the journal (default EVENT_JOURNAL_FILE) and optionally a checkpoint written at the end of the
+ * same run (default CHECKPOINT_FILE, if set), which the replayed colony is compared with.
+ * --config=path and NAME=value arguments are applied first, as for the simulation.
+ */
+public class JournalReplayTool {
+
+    public static void main(String[] args) {
+        try {
+            String[] configArgs = Arrays.stream(args)
+                    .filter(arg -> arg.startsWith(ConfigLoader.CONFIG_FILE_ARGUMENT) || arg.contains("="))
+                    .toArray(String[]::new);
+            String[] files = Arrays.stream(args)
+                    .filter(arg -> !arg.startsWith(ConfigLoader.CONFIG_FILE_ARGUMENT) && !arg.contains("="))
+                    .toArray(String[]::new);
+            ConfigLoader.load(configArgs);
+            String journal = files.length > 0 ? files[0] : ConfigParameters.EVENT_JOURNAL_FILE;
+            String checkpoint = files.length > 1 ? files[1] : ConfigParameters.CHECKPOINT_FILE;
+            if (journal.isEmpty()) {
+                System.out.println("No event journal given and EVENT_JOURNAL_FILE is not set.");
+                return;
+            }
+            replay(Path.of(journal), checkpoint.isEmpty() ? null : Path.of(checkpoint));
+        } catch (IOException e) {
+            System.out.println("Event journal could not be replayed: " + e.getMessage());
+        }
+    }
+
+    private static void replay(Path journal, Path checkpoint) throws IOException {
+        long startTime = System.currentTimeMillis();
+        JournalReplay replay = JournalReplay.replay(journal);
+        String checkpointDifference = checkpoint != null ? replay.compareWithCheckpoint(checkpoint) : null;
+        long endTime = System.currentTimeMillis();
+
+        System.out.println("\n=== Event Journal Replay ===");
+        System.out.println("Journal: " + journal + (replay.isClosedCleanly() ? "" : " (not closed, replaying what reached the file)"));
+        System.out.println("Events replayed: " + replay.getEventCount()
+                + (replay.getMissingEventCount() > 0 ? " (" + replay.getMissingEventCount() + " missing)" : ""));
+        System.out.println("Hedgehogs born: " + replay.getBirths() + ", died: " + replay.getDeaths());
+        for (Map.Entry<String, Long> entry : replay.getDeathsByReason().entrySet()) {
+            System.out.println("  died " + entry.getKey() + ": " + entry.getValue());
+        }
+        System.out.println("Final hedgehog population: " + replay.getPopulation()
+                + " (" + replay.getMaleCount() + " ♂ / " + replay.getFemaleCount() + " ♀)");
+        System.out.println("Ticks present: " + replay.getTotalTicks());
+        if (replay.getDivergenceCount() == 0) {
+            System.out.println("Every event follows from the ones before it ✅");
+        } else {
+            System.out.println("Events that do not follow from the ones before them: " + replay.getDivergenceCount() + " ⚠️");
+            System.out.println("First: " + replay.getFirstDivergence());
+        }
+        if (checkpoint != null) {
+            if (checkpointDifference == null) {
+                System.out.println("Replayed colony matches checkpoint " + checkpoint + " ✅");
+            } else {
+                System.out.println("Replayed colony differs from checkpoint " + checkpoint + " ⚠️");
+                System.out.println(checkpointDifference);
+            }
+        }
+        System.out.println("Replay time: " + (endTime - startTime) + " ms");
+    }
+}
@@ -0,0 +1,64 @@
+package simulation.sweep;
+
+import config.ColonyParameters;
+import config.ConfigParameters;
+import config.SimRandom;
+import manager.DenManager;
+import manager.StatsSnapshot;
+import simulation.discrete.DiscreteEventSimulation;
+
+import java.util.concurrent.Callable;
+
+/**
+ * One colony of a parameter sweep, played to the end on the calling thread.
+ * The colony gets its own isolated, unnarrated {@link DenManager} and runs on a
+ * {@link DiscreteEventSimulation}, as thread actors always work on the singleton.
+ */
+class ColonyRun implements Callable<SweepResult> {
+    private final int runIndex;
+    private final int repetition;
+    private final Long seed;
+    private final ColonyParameters parameters;
+
+    ColonyRun(int runIndex, int repetition, Long seed, ColonyParameters parameters) {
+        this.runIndex = runIndex;
+        this.repetition = repetition;
+        this.seed = seed;
+        this.parameters = parameters;
+    }
+
+    @Override
+    public SweepResult call() {
+        long startTime = System.currentTimeMillis();
+        SimRandom.bindColonySeed(seed);
+        try {
+            SimRandom.bind(SimRandom.newStream());
+            DenManager manager = DenManager.newIsolatedInstance(parameters, false);
+            for (int i = 0; i < parameters.initialHedgehogCount(); i++) {
+                manager.createHedgehog();
+            }
+            DiscreteEventSimulation simulation = new DiscreteEventSimulation(manager, parameters.eventActorsPerType(),
+                    ConfigParameters.ENABLE_TICK_OUTBREAK);
+            simulation.run();
+
+            StatsSnapshot stats = manager.getStats().snapshot();
+            long totalTicks = manager.getTotalTicksOnHedgehogs();
+            int population = manager.getHedgehogCount();
+            return new SweepResult(runIndex, repetition, seed, parameters, stats,
+                    population,
+                    manager.getAggregates().getMaleCount(),
+                    manager.getAggregates().getFemaleCount(),
+                    totalTicks,
+                    manager.getAggregates().getInfestedHedgehogCount(),
+                    manager.getAggregates().getSeasonedWarriorCount(),
+                    simulation.getSimulatedTimeMs(),
+                    System.currentTimeMillis() - startTime,
+                    stats.expectedTicksPresent() == totalTicks,
+                    stats.expectedPopulation() == population);
+        } finally {
+            // Pool threads are reused by later colonies.
+            SimRandom.bind(null);
+            SimRandom.bindColonySeed(null);
+        }
+    }
+}
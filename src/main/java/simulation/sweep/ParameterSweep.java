@@ -0,0 +1,121 @@
+package simulation.sweep;
+
+import config.ColonyParameters;
+import config.ConfigLoader;
+import config.ConfigParameters;
+import config.LiveWorkload;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs one independent colony per grid point and repetition, side by side in this JVM, and writes
+ * their final stats to sweep.csv and sweep.json in {@link ConfigParameters#SWEEP_REPORT_DIR}.
+ * Colonies run on a fixed pool with one worker per core, each on the simulated clock.
+ * The grid comes from the arguments (joined with ';') or {@link ConfigParameters#SWEEP_GRID};
+ * everything not on the grid keeps its ConfigParameters value, optionally loaded with --config=path.
+ */
+public class ParameterSweep {
+    private static final Logger logger = LogManager.getLogger(ParameterSweep.class);
+
+    public static void main(String[] args) {
+        try {
+            String[] configArgs = Arrays.stream(args)
+                    .filter(arg -> arg.startsWith(ConfigLoader.CONFIG_FILE_ARGUMENT))
+                    .toArray(String[]::new);
+            String[] axes = Arrays.stream(args)
+                    .filter(arg -> !arg.startsWith(ConfigLoader.CONFIG_FILE_ARGUMENT))
+                    .toArray(String[]::new);
+            ConfigLoader.load(configArgs);
+            LiveWorkload.reset();
+            String spec = axes.length > 0 ? String.join(";", axes) : ConfigParameters.SWEEP_GRID;
+            runSweep(SweepGrid.parse(spec));
+        } catch (InterruptedException e) {
+            System.out.println("Sweep interrupted externally. Exiting...");
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("Sweep configuration or report could not be accessed: " + e.getMessage());
+        }
+    }
+
+    public static List<SweepResult> runSweep(SweepGrid grid) throws InterruptedException, IOException {
+        if (ConfigParameters.SWEEP_REPETITIONS < 1) {
+            throw new IllegalArgumentException("SWEEP_REPETITIONS must be at least 1.");
+        }
+        List<ColonyRun> runs = planRuns(grid.points(ColonyParameters.defaults()));
+        int workerCount = Math.min(Runtime.getRuntime().availableProcessors(), runs.size());
+        logger.info("Sweeping " + grid.getAxisNames() + " over " + runs.size() + " colonies on " + workerCount + " workers.");
+
+        long startTime = System.currentTimeMillis();
+        List<SweepResult> results = runAll(runs, workerCount);
+        long endTime = System.currentTimeMillis();
+
+        Path reportDir = Path.of(ConfigParameters.SWEEP_REPORT_DIR);
+        SweepReport report = new SweepReport(results);
+        report.writeCsv(reportDir.resolve("sweep.csv"));
+        report.writeJson(reportDir.resolve("sweep.json"));
+        printSummary(results, startTime, endTime, reportDir);
+        return results;
+    }
+
+    /**
+     * Seeds are drawn in run order from RANDOM_SEED, so a seeded sweep repeats colony by colony.
+     */
+    private static List<ColonyRun> planRuns(List<ColonyParameters> points) {
+        SplittableRandom seeds = new SplittableRandom(ConfigParameters.RANDOM_SEED);
+        List<ColonyRun> runs = new ArrayList<>(points.size() * ConfigParameters.SWEEP_REPETITIONS);
+        for (ColonyParameters point : points) {
+            for (int repetition = 0; repetition < ConfigParameters.SWEEP_REPETITIONS; repetition++) {
+                Long seed = ConfigParameters.ENABLE_SEEDED_RANDOMNESS ? seeds.nextLong() : null;
+                runs.add(new ColonyRun(runs.size(), repetition, seed, point));
+            }
+        }
+        return runs;
+    }
+
+    private static List<SweepResult> runAll(List<ColonyRun> runs, int workerCount) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount,
+                Thread.ofPlatform().name("sweep-worker-", 1).factory());
+        try {
+            List<SweepResult> results = new ArrayList<>(runs.size());
+            for (Future<SweepResult> future : workers.invokeAll(runs)) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    logger.error("Critical logic error: A sweep colony failed.", e.getCause());
+                    throw new IllegalStateException("Sweep colony failed.", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static void printSummary(List<SweepResult> results, long startTime, long endTime, Path reportDir) {
+        long extinct = results.stream().filter(SweepResult::isExtinct).count();
+        long inconsistent = results.stream()
+                .filter(result -> !result.tickBalanceConsistent() || !result.populationBalanceConsistent())
+                .count();
+        System.out.println("\n=== Parameter Sweep ===");
+        System.out.println("Colonies run: " + results.size() + " (" + extinct + " died out)");
+        if (inconsistent == 0) {
+            System.out.println("All colonies balanced ✅");
+        } else {
+            System.out.println("Colonies with balance inconsistencies: " + inconsistent + " ⚠️");
+        }
+        System.out.println("Report written to " + reportDir.resolve("sweep.csv") + " and sweep.json");
+        System.out.println("Total runtime: " + (endTime - startTime) + " ms");
+    }
+}
@@ -0,0 +1,71 @@
+package simulation.sweep;
+
+import config.ColonyParameters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Axes of a parameter sweep, each a colony parameter with the values to try.
+ * Written as "NAME=v1,v2,...;NAME=..." with names as in {@link config.ConfigParameters}.
+ */
+public class SweepGrid {
+    private final List<Axis> axes;
+
+    private record Axis(String name, double[] values) {
+    }
+
+    private SweepGrid(List<Axis> axes) {
+        this.axes = axes;
+    }
+
+    public static SweepGrid parse(String spec) {
+        List<Axis> axes = new ArrayList<>();
+        for (String axisSpec : spec.split(";")) {
+            if (axisSpec.isBlank()) {
+                continue;
+            }
+            String[] nameAndValues = axisSpec.split("=", 2);
+            if (nameAndValues.length != 2 || nameAndValues[1].isBlank()) {
+                throw new IllegalArgumentException("Sweep axis must look like NAME=v1,v2,...: " + axisSpec);
+            }
+            double[] values;
+            try {
+                values = Arrays.stream(nameAndValues[1].split(","))
+                        .map(String::trim)
+                        .mapToDouble(Double::parseDouble)
+                        .toArray();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Sweep axis has a value that is not a number: " + axisSpec);
+            }
+            axes.add(new Axis(nameAndValues[0].trim(), values));
+        }
+        if (axes.isEmpty()) {
+            throw new IllegalArgumentException("Sweep grid has no axes.");
+        }
+        return new SweepGrid(axes);
+    }
+
+    /**
+     * Every combination of axis values applied to the base parameters, the last axis varying fastest.
+     * Invalid combinations are rejected here, before any colony runs.
+     */
+    public List<ColonyParameters> points(ColonyParameters base) {
+        List<ColonyParameters> points = List.of(base);
+        for (Axis axis : axes) {
+            List<ColonyParameters> expanded = new ArrayList<>(points.size() * axis.values().length);
+            for (ColonyParameters point : points) {
+                for (double value : axis.values()) {
+                    expanded.add(point.with(axis.name(), value));
+                }
+            }
+            points = expanded;
+        }
+        return points;
+    }
+
+    public List<String> getAxisNames() {
+        return axes.stream().map(Axis::name).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package simulation.sweep;
+
+import config.ColonyParameters;
+import manager.StatsSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Writes the results of a parameter sweep as one CSV row or JSON object per colony, in run order.
+ */
+class SweepReport {
+    private final List<SweepResult> results;
+
+    SweepReport(List<SweepResult> results) {
+        this.results = results;
+    }
+
+    void writeCsv(Path file) throws IOException {
+        List<String> lines = new ArrayList<>(results.size() + 1);
+        lines.add(String.join(",", columns(results.getFirst()).keySet()));
+        for (SweepResult result : results) {
+            lines.add(String.join(",", columns(result).values()));
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(file, lines);
+    }
+
+    void writeJson(Path file) throws IOException {
+        StringJoiner runs = new StringJoiner(",\n", "[\n", "\n]\n");
+        for (SweepResult result : results) {
+            StringJoiner fields = new StringJoiner(", ", "  {", "}");
+            columns(result).forEach((name, value) -> fields.add("\"" + name + "\": " + (value.isEmpty() ? "null" : value)));
+            runs.add(fields.toString());
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, runs.toString());
+    }
+
+    /**
+     * Column names and values of one result. Every value is a plain number or boolean, or empty for none.
+     */
+    private static Map<String, String> columns(SweepResult result) {
+        ColonyParameters parameters = result.parameters();
+        StatsSnapshot stats = result.stats();
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("run", String.valueOf(result.runIndex()));
+        columns.put("repetition", String.valueOf(result.repetition()));
+        columns.put("seed", result.seed() == null ? "" : String.valueOf(result.seed()));
+        columns.put("initialHedgehogCount", String.valueOf(parameters.initialHedgehogCount()));
+        columns.put("eventThreadsPerTypePer10Hedgehogs", String.valueOf(parameters.eventThreadsPerTypePer10Hedgehogs()));
+        columns.put("maxSimulationDurationSec", String.valueOf(parameters.maxSimulationDurationSec()));
+        columns.put("femaleBornProbability", String.valueOf(parameters.femaleBornProbability()));
+        columns.put("probabilityDieAtWar", String.valueOf(parameters.probabilityDieAtWar()));
+        columns.put("probabilitySeasonedWarriorLevelUp", String.valueOf(parameters.probabilitySeasonedWarriorLevelUp()));
+        columns.put("seasonedWarriorDeathReductionPerLevel", String.valueOf(parameters.seasonedWarriorDeathReductionPerLevel()));
+        columns.put("hedgehogsBorn", String.valueOf(stats.hedgehogsBorn()));
+        columns.put("maleBorn", String.valueOf(stats.maleBornCount()));
+        columns.put("femaleBorn", String.valueOf(stats.femaleBornCount()));
+        columns.put("hedgehogsDied", String.valueOf(stats.hedgehogsDied()));
+        columns.put("hedgehogsWentToWar", String.valueOf(stats.hedgehogsWentToWar()));
+        columns.put("hedgehogsDiedInWar", String.valueOf(stats.hedgehogsDiedInWar()));
+        columns.put("warriorLevelUps", String.valueOf(stats.hedgehogsWarriorLevelUps()));
+        columns.put("ticksAdded", String.valueOf(stats.ticksAddedCount()));
+        columns.put("ticksRemoved", String.valueOf(stats.ticksRemovedCount()));
+        columns.put("finalPopulation", String.valueOf(result.finalPopulation()));
+        columns.put("males", String.valueOf(result.maleCount()));
+        columns.put("females", String.valueOf(result.femaleCount()));
+        columns.put("ticksPresent", String.valueOf(result.totalTicks()));
+        columns.put("infestedHedgehogs", String.valueOf(result.infestedHedgehogCount()));
+        columns.put("seasonedWarriors", String.valueOf(result.seasonedWarriorCount()));
+        columns.put("extinct", String.valueOf(result.isExtinct()));
+        columns.put("simulatedTimeMs", String.valueOf(result.simulatedTimeMs()));
+        columns.put("wallTimeMs", String.valueOf(result.wallTimeMs()));
+        columns.put("tickBalanceConsistent", String.valueOf(result.tickBalanceConsistent()));
+        columns.put("populationBalanceConsistent", String.valueOf(result.populationBalanceConsistent()));
+        return columns;
+    }
+}
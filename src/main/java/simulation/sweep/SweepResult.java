@@ -0,0 +1,29 @@
+package simulation.sweep;
+
+import config.ColonyParameters;
+import manager.StatsSnapshot;
+
+/**
+ * Final state of one colony of a parameter sweep.
+ * @param seed the colony seed, or null when seeded randomness is off
+ */
+public record SweepResult(int runIndex,
+                          int repetition,
+                          Long seed,
+                          ColonyParameters parameters,
+                          StatsSnapshot stats,
+                          int finalPopulation,
+                          int maleCount,
+                          int femaleCount,
+                          long totalTicks,
+                          int infestedHedgehogCount,
+                          int seasonedWarriorCount,
+                          long simulatedTimeMs,
+                          long wallTimeMs,
+                          boolean tickBalanceConsistent,
+                          boolean populationBalanceConsistent) {
+
+    public boolean isExtinct() {
+        return finalPopulation == 0;
+    }
+}
@@ -0,0 +1,139 @@
+package simulation.tools;
+
+import config.ActorType;
+import model.threads.*;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps the number of running event threads per type at a target that may change during the run.
+ * Surplus threads are not interrupted, as that could strand a reservation; instead the first actors of
+ * that type to come around to their next visit retire, see {@link #shouldRetire(ActorType)}.
+ * Once {@link #stopAll()} has run, the roster stays empty: a late resize starts nobody.
+ */
+public class ActorRoster {
+    private final Map<ActorType, List<Thread>> threadsByType = new EnumMap<>(ActorType.class);
+    // Actors of each type asked to retire that have not yet done so.
+    private final Map<ActorType, AtomicInteger> pendingRetirements = new EnumMap<>(ActorType.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by the lock.
+    private boolean stopped = false;
+    private static final Logger logger = LogManager.getLogger(ActorRoster.class);
+
+    private ActorRoster() {
+        for (ActorType type : ActorType.values()) {
+            threadsByType.put(type, new ArrayList<>());
+            pendingRetirements.put(type, new AtomicInteger(0));
+        }
+    }
+
+    private static class Holder {
+        private static final ActorRoster INSTANCE = new ActorRoster();
+    }
+
+    public static ActorRoster getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Starts or retires threads until every enabled type has the given number of active actors.
+     * Does nothing once the actors have been stopped.
+     */
+    public void resize(int actorsPerType) {
+        lock.lock();
+        try {
+            if (stopped) {
+                logger.info("Event actors already stopped, ignoring resize to " + actorsPerType + " per type.");
+                return;
+            }
+            for (ActorType type : ActorType.values()) {
+                if (!type.isEnabled()) {
+                    continue;
+                }
+                List<Thread> threads = threadsByType.get(type);
+                AtomicInteger pending = pendingRetirements.get(type);
+                int active = threads.size() - pending.get();
+                if (actorsPerType > active) {
+                    int missing = actorsPerType - active;
+                    // Actors still on their way out are kept instead of replaced.
+                    int kept = Math.min(missing, pending.get());
+                    pending.addAndGet(-kept);
+                    for (int i = kept; i < missing; i++) {
+                        Thread thread = SimUtils.newActorThread(newActor(type));
+                        threads.add(thread);
+                        thread.start();
+                    }
+                } else if (actorsPerType < active) {
+                    pending.addAndGet(active - actorsPerType);
+                }
+            }
+            logger.info("Event actors per type set to " + actorsPerType + ".");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called by an actor between visits, while holding no reservation.
+     * @return true if the actor should stop, as its type has more actors than the target
+     */
+    public boolean shouldRetire(ActorType type) {
+        AtomicInteger pending = pendingRetirements.get(type);
+        if (pending.get() <= 0) {
+            return false;
+        }
+        lock.lock();
+        try {
+            if (pending.get() <= 0) {
+                return false;
+            }
+            pending.decrementAndGet();
+            threadsByType.get(type).remove(Thread.currentThread());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Interrupts every actor and waits for all of them to finish. No actor is started afterwards.
+     * @return the number of threads stopped
+     */
+    public int stopAll() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        lock.lock();
+        try {
+            stopped = true;
+            threadsByType.values().forEach(threads::addAll);
+            threadsByType.values().forEach(List::clear);
+            pendingRetirements.values().forEach(pending -> pending.set(0));
+        } finally {
+            lock.unlock();
+        }
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return threads.size();
+    }
+
+    private static Runnable newActor(ActorType type) {
+        return switch (type) {
+            case CASUAL_TICK -> new TickCasualThread();
+            case EPIDEMIOLOGIST -> new EpidemiologistThread();
+            case HUNGRY_BUM -> new HungryBumThread();
+            case MATING -> new MatingThread();
+            case FAIRY -> new FairyThread();
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package simulation.tools;
+
+import config.ConfigLoader;
+import config.ConfigParameters;
+import config.LiveWorkload;
+import config.WorkloadSettings;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the configuration file while the simulation runs and applies changed workload parameters
+ * through {@link LiveWorkload}. Only keys whose value in the file differs from the previous read count as changed,
+ * and keys set on the command line keep their value, as they did at startup. Invalid changes are rejected
+ * as a whole and looked at again with the next change to the file; changes to parameters that are only read
+ * at startup are reported and ignored. Workload parameters removed from the file keep their current value.
+ */
+public class ConfigFileWatcher implements Runnable {
+
+    private final Path configFile;
+    private FileTime lastModified;
+    // The file as last read, at startup or by the last accepted reload.
+    private Map<String, String> lastValues;
+    private static final Logger logger = LogManager.getLogger(ConfigFileWatcher.class);
+
+    public ConfigFileWatcher(Path configFile) throws IOException {
+        this.configFile = configFile;
+        this.lastModified = Files.getLastModifiedTime(configFile);
+        this.lastValues = ConfigLoader.readFile(configFile);
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(ConfigParameters.CONFIG_RELOAD_CHECK_FREQUENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            try {
+                FileTime modified = Files.getLastModifiedTime(configFile);
+                if (!modified.equals(lastModified)) {
+                    lastModified = modified;
+                    reload();
+                }
+            } catch (IOException e) {
+                logger.warn("Could not read configuration file " + configFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void reload() throws IOException {
+        Map<String, String> values = ConfigLoader.readFile(configFile);
+        Map<String, String> liveValues = new HashMap<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String name = entry.getKey();
+            if (entry.getValue().equals(lastValues.get(name))) {
+                continue;
+            }
+            if (!isKnown(name)) {
+                logger.warn(name + " is not a known parameter, ignoring it.");
+            } else if (ConfigLoader.isSetOnCommandLine(name)) {
+                logger.warn(name + " is set on the command line, ignoring its change in the file.");
+            } else if (WorkloadSettings.NAMES.contains(name)) {
+                liveValues.put(name, entry.getValue());
+            } else {
+                logger.warn(name + " is only read at startup, ignoring its change.");
+            }
+        }
+
+        WorkloadSettings current = LiveWorkload.current();
+        try {
+            WorkloadSettings updated = current.with(liveValues);
+            if (!updated.equals(current)) {
+                LiveWorkload.update(updated);
+            }
+        } catch (IllegalArgumentException e) {
+            logger.error("Rejected configuration change, keeping the current workload: " + e.getMessage());
+            return;
+        }
+        lastValues = values;
+    }
+
+    private static boolean isKnown(String name) {
+        try {
+            ConfigLoader.get(name);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
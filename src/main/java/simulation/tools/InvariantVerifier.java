@@ -0,0 +1,107 @@
+package simulation.tools;
+
+import manager.DenManager;
+import manager.InvariantCheck;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the colony's invariants over and over while the simulation runs, see {@link DenManager#checkInvariants(int, int)},
+ * so a broken balance is caught near the moment it broke instead of in the final report.
+ * Runs on a thread of its own and keeps to a budget: after each check it sleeps long enough for checking
+ * to take at most the given share of wall-clock time, so a slow check on a large colony just spaces the checks out.
+ * The first violation is logged with the interval it happened in, between the last check that passed and the one that failed.
+ */
+public class InvariantVerifier implements Runnable {
+    private final DenManager manager;
+    private final double budgetPercent;
+    private final int slice;
+    private final long minIntervalNanos;
+    private final long startNanos = System.nanoTime();
+    private long lastPassedNanos = startNanos;
+    private int position = 0;
+    private long checkCount = 0;
+    private long violationCount = 0;
+    private long checkNanos = 0;
+    private long maxPauseNanos = 0;
+    private String firstViolation;
+    private static final Logger logger = LogManager.getLogger(InvariantVerifier.class);
+
+    public InvariantVerifier(DenManager manager, double budgetPercent, int slice, int minIntervalMs) {
+        this.manager = manager;
+        this.budgetPercent = budgetPercent;
+        this.slice = slice;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMs);
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long spent = check();
+            long sleepNanos = Math.max(minIntervalNanos, (long) (spent * (100 - budgetPercent) / budgetPercent));
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Runs one check, e.g. a last one once the actors have stopped.
+     * @return how long the check took, in nanoseconds
+     */
+    public long check() {
+        long start = System.nanoTime();
+        InvariantCheck result = manager.checkInvariants(position, slice);
+        long end = System.nanoTime();
+        position = result.nextPosition();
+        checkCount++;
+        checkNanos += end - start;
+        maxPauseNanos = Math.max(maxPauseNanos, result.pauseNanos());
+        if (result.passed()) {
+            lastPassedNanos = start;
+        } else if (violationCount++ == 0) {
+            firstViolation = "between " + millisSinceStart(lastPassedNanos) + " and " + millisSinceStart(start)
+                    + " ms into the run: " + result.violation();
+            logger.error("Critical logic error: Colony invariant broken " + firstViolation);
+        }
+        return end - start;
+    }
+
+    public long getCheckCount() {
+        return checkCount;
+    }
+
+    public long getViolationCount() {
+        return violationCount;
+    }
+
+    /**
+     * @return the first violation and the interval it happened in, null if every check passed
+     */
+    public String getFirstViolation() {
+        return firstViolation;
+    }
+
+    /**
+     * @return the share of wall-clock time spent checking so far, in percent
+     */
+    public double getOverheadPercent() {
+        return 100.0 * checkNanos / Math.max(System.nanoTime() - startNanos, 1);
+    }
+
+    /**
+     * @return the longest changes to the colony were held off by a check, in nanoseconds
+     */
+    public long getMaxPauseNanos() {
+        return maxPauseNanos;
+    }
+
+    private long millisSinceStart(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos - startNanos);
+    }
+}
@@ -1,10 +1,12 @@
 package simulation.tools;
 
+import manager.ColonySnapshot;
 import manager.DenManager;
-import manager.SimulationStats;
+import manager.StatsSnapshot;
 
 /**
  * Displays live stats. Has no impact on simulation logic.
+ * All figures come from one {@link ColonySnapshot}, so they always add up, and reading it normally does not hold actors off.
  * Intended for periodic execution via {@link java.util.concurrent.ScheduledExecutorService}.
  * Uses a one-line carriage return ('\r') approach due to IntelliJ Run Console limitations.
  * Note: Console output may appear fragmented if other threads print to System.out simultaneously.
@@ -13,14 +15,18 @@ public class LiveStatsDisplay implements Runnable {
 
     @Override
     public void run() {
-        DenManager manager = DenManager.getInstance();
-        SimulationStats stats = manager.getStats();
+        ColonySnapshot snapshot = DenManager.getInstance().readColonySnapshot();
+        StatsSnapshot stats = snapshot.stats();
 
-        System.out.print("\rHedgehogs born: " + stats.getHedgehogsBorn()
-                + "  Hedgehogs died: " + stats.getHedgehogsDied()
-                + "  Ticks added: " + stats.getTicksAddedCount()
-                + "  Ticks removed: " + stats.getTicksRemovedCount()
-                + "  Lock clashes: " + stats.getLockContentionCount()
-                + "  Condition waits: " + stats.getConditionWaitCount());
+        System.out.print("\rHedgehogs born: " + stats.hedgehogsBorn()
+                + "  Hedgehogs died: " + stats.hedgehogsDied()
+                + "  Ticks added: " + stats.ticksAddedCount()
+                + "  Ticks removed: " + stats.ticksRemovedCount()
+                + "  Ticks present: " + snapshot.totalTicks()
+                + "  Infested: " + snapshot.infestedHedgehogCount()
+                + "  Alive: " + snapshot.maleCount() + " ♂ / " + snapshot.femaleCount() + " ♀"
+                + "  Warriors: " + snapshot.seasonedWarriorCount()
+                + "  Lock clashes: " + stats.lockContentionCount()
+                + "  Condition waits: " + stats.conditionWaitCount());
     }
 }
@@ -0,0 +1,38 @@
+package simulation.tools;
+
+import manager.StatsSnapshot;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Counters whose per-second rate {@link MetricsSampler} derives between samples.
+ */
+public enum MetricRate {
+    TICKS_ADDED("Ticks added", "ticks_per_s", StatsSnapshot::ticksAddedCount),
+    BIRTHS("Births", "births_per_s", StatsSnapshot::hedgehogsBorn),
+    DEATHS("Deaths", "deaths_per_s", StatsSnapshot::hedgehogsDied),
+    LOCK_CLASHES("Lock clashes", "lock_clashes_per_s", StatsSnapshot::lockContentionCount),
+    CONDITION_WAITS("Condition waits", "condition_waits_per_s", StatsSnapshot::conditionWaitCount);
+
+    private final String label;
+    private final String column;
+    private final ToLongFunction<StatsSnapshot> counter;
+
+    MetricRate(String label, String column, ToLongFunction<StatsSnapshot> counter) {
+        this.label = label;
+        this.column = column;
+        this.counter = counter;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    String getColumn() {
+        return column;
+    }
+
+    long countIn(StatsSnapshot stats) {
+        return counter.applyAsLong(stats);
+    }
+}
@@ -0,0 +1,83 @@
+package simulation.tools;
+
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size ring of samples between {@link MetricsSampler} and its writer thread.
+ * The sampler never waits: when the writer falls behind, the oldest unwritten sample is overwritten and counted as lost.
+ */
+class MetricsRing {
+    private final MetricsSample[] samples;
+    private long head = 0;
+    private long tail = 0;
+    private long lostCount = 0;
+    private boolean closed = false;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    MetricsRing(int capacity) {
+        samples = new MetricsSample[capacity];
+    }
+
+    void put(MetricsSample sample) {
+        lock.lock();
+        try {
+            if (tail - head == samples.length) {
+                head++;
+                lostCount++;
+            }
+            samples[(int) (tail++ % samples.length)] = sample;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves up to maxCount samples into the batch, waiting while the ring is empty and open.
+     * @return false once the ring is closed and everything has been taken
+     */
+    boolean drainTo(List<MetricsSample> batch, int maxCount) throws InterruptedException {
+        lock.lock();
+        try {
+            while (head == tail && !closed) {
+                notEmpty.await();
+            }
+            if (head == tail) {
+                return false;
+            }
+            while (head < tail && batch.size() < maxCount) {
+                int index = (int) (head++ % samples.length);
+                batch.add(samples[index]);
+                samples[index] = null;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lets the writer finish once it has taken the remaining samples.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getLostCount() {
+        lock.lock();
+        try {
+            return lostCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
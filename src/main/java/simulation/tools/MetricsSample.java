@@ -0,0 +1,9 @@
+package simulation.tools;
+
+import manager.StatsSnapshot;
+
+/**
+ * The counters at one sampling instant, with their rates since the previous sample, indexed by {@link MetricRate}.
+ */
+record MetricsSample(long elapsedMs, StatsSnapshot stats, int population, long ticksPresent, double[] ratesPerSecond) {
+}
@@ -0,0 +1,194 @@
+package simulation.tools;
+
+import manager.ColonySnapshot;
+import manager.DenManager;
+import manager.StatsSnapshot;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records the simulation counters and their per-second rates as a time series.
+ * Intended for periodic execution via {@link java.util.concurrent.ScheduledExecutorService}, like {@link LiveStatsDisplay}.
+ * Samples read a {@link ColonySnapshot}, so actors are never held up; they go through a {@link MetricsRing}
+ * to a background thread that streams them to a CSV file. Rates are per wall-clock second,
+ * also in DISCRETE_EVENT mode. Peaks are tracked as samples come in; for the steady state, the mean rate once
+ * the first quarter of the samples is over, the sampler keeps at most HISTORY_BUCKETS buckets of rates,
+ * averaging neighbouring buckets into one whenever they fill up, so a long run keeps its memory bounded.
+ * A median would read zero for small colonies, where most samples see no event of a kind.
+ */
+public class MetricsSampler implements Runnable {
+    private static final MetricRate[] RATES = MetricRate.values();
+    private static final int WRITER_BATCH_SIZE = 64;
+    private static final int HISTORY_BUCKETS = 1024;
+
+    private final DenManager manager;
+    private final Path file;
+    private final MetricsRing ring;
+    private final Thread writerThread;
+    private final long startNanos = System.nanoTime();
+    private long previousNanos = startNanos;
+    private StatsSnapshot previous;
+    // Mean rates of samplesPerBucket consecutive samples each, oldest first.
+    private final double[][] rateHistory = new double[RATES.length][HISTORY_BUCKETS];
+    private int bucketCount = 0;
+    private int samplesPerBucket = 1;
+    private final double[] pendingRateSums = new double[RATES.length];
+    private int pendingCount = 0;
+    private final double[] peakRates = new double[RATES.length];
+    private int sampleCount = 0;
+    private volatile IOException writeFailure;
+    private static final Logger logger = LogManager.getLogger(MetricsSampler.class);
+
+    public MetricsSampler(DenManager manager, Path file, int ringCapacity) throws IOException {
+        this.manager = manager;
+        this.file = file;
+        this.ring = new MetricsRing(ringCapacity);
+        this.previous = manager.readColonySnapshot().stats();
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        BufferedWriter writer = Files.newBufferedWriter(file);
+        writerThread = Thread.ofPlatform().daemon().name("metrics-writer").start(() -> writeForever(writer));
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        ColonySnapshot snapshot = manager.readColonySnapshot();
+        StatsSnapshot stats = snapshot.stats();
+        double seconds = Math.max(now - previousNanos, 1) / 1e9;
+        double[] rates = new double[RATES.length];
+        for (MetricRate rate : RATES) {
+            rates[rate.ordinal()] = (rate.countIn(stats) - rate.countIn(previous)) / seconds;
+        }
+        previous = stats;
+        previousNanos = now;
+        record(rates);
+        ring.put(new MetricsSample((now - startNanos) / 1_000_000, stats,
+                snapshot.population(), snapshot.totalTicks(), rates));
+    }
+
+    /**
+     * Takes a last sample and waits until every sample is written. Call once sampling has stopped.
+     */
+    public void finish() throws InterruptedException {
+        run();
+        ring.close();
+        writerThread.join();
+        if (writeFailure != null) {
+            logger.error("Metrics could not be written to " + file + ": " + writeFailure.getMessage());
+        } else if (ring.getLostCount() > 0) {
+            logger.warn(ring.getLostCount() + " metrics samples were overwritten before they could be written to " + file + ".");
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public double getPeakRate(MetricRate rate) {
+        return peakRates[rate.ordinal()];
+    }
+
+    /**
+     * Exact while the samples fit in the history, afterwards the warm-up is cut at a bucket boundary.
+     */
+    public double getSteadyStateRate(MetricRate rate) {
+        int warmUp = bucketCount / 4;
+        long samples = (long) (bucketCount - warmUp) * samplesPerBucket + pendingCount;
+        if (samples == 0) {
+            return 0;
+        }
+        double sum = pendingRateSums[rate.ordinal()];
+        for (int i = warmUp; i < bucketCount; i++) {
+            sum += rateHistory[rate.ordinal()][i] * samplesPerBucket;
+        }
+        return sum / samples;
+    }
+
+    private void record(double[] rates) {
+        sampleCount++;
+        for (int i = 0; i < rates.length; i++) {
+            peakRates[i] = Math.max(peakRates[i], rates[i]);
+            pendingRateSums[i] += rates[i];
+        }
+        pendingCount++;
+        if (pendingCount == samplesPerBucket && bucketCount == HISTORY_BUCKETS) {
+            mergeBuckets();
+        }
+        if (pendingCount == samplesPerBucket) {
+            for (int i = 0; i < rates.length; i++) {
+                rateHistory[i][bucketCount] = pendingRateSums[i] / samplesPerBucket;
+                pendingRateSums[i] = 0;
+            }
+            bucketCount++;
+            pendingCount = 0;
+        }
+    }
+
+    // Halves the history by averaging each pair of neighbouring buckets.
+    private void mergeBuckets() {
+        for (double[] history : rateHistory) {
+            for (int i = 0; i < HISTORY_BUCKETS / 2; i++) {
+                history[i] = (history[2 * i] + history[2 * i + 1]) / 2;
+            }
+        }
+        bucketCount = HISTORY_BUCKETS / 2;
+        samplesPerBucket *= 2;
+    }
+
+    private void writeForever(BufferedWriter writer) {
+        List<MetricsSample> batch = new ArrayList<>(WRITER_BATCH_SIZE);
+        try (writer) {
+            writer.write(header());
+            writer.newLine();
+            while (ring.drainTo(batch, WRITER_BATCH_SIZE)) {
+                for (MetricsSample sample : batch) {
+                    writer.write(format(sample));
+                    writer.newLine();
+                }
+                // Keeps the file usable for graphing while the simulation still runs.
+                writer.flush();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            writeFailure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String header() {
+        StringBuilder header = new StringBuilder("elapsed_ms,ticks_added,ticks_removed,ticks_present,"
+                + "hedgehogs_born,hedgehogs_died,population,went_to_war,lock_clashes,condition_waits");
+        for (MetricRate rate : RATES) {
+            header.append(',').append(rate.getColumn());
+        }
+        return header.toString();
+    }
+
+    private static String format(MetricsSample sample) {
+        StatsSnapshot stats = sample.stats();
+        StringBuilder line = new StringBuilder();
+        line.append(sample.elapsedMs()).append(',').append(stats.ticksAddedCount()).append(',').append(stats.ticksRemovedCount())
+                .append(',').append(sample.ticksPresent()).append(',').append(stats.hedgehogsBorn()).append(',')
+                .append(stats.hedgehogsDied()).append(',').append(sample.population()).append(',')
+                .append(stats.hedgehogsWentToWar()).append(',').append(stats.lockContentionCount()).append(',')
+                .append(stats.conditionWaitCount());
+        for (double rate : sample.ratesPerSecond()) {
+            line.append(',').append(String.format(Locale.ROOT, "%.1f", rate));
+        }
+        return line.toString();
+    }
+}
@@ -1,10 +1,18 @@
 package simulation.tools;
 
 import config.ConfigParameters;
+import config.LiveWorkload;
+import manager.ColonyAggregates;
+import manager.ColonySnapshot;
 import manager.DenManager;
-import manager.SimulationStats;
+import manager.DenOperation;
+import manager.Genealogy;
+import manager.GenealogySnapshot;
+import manager.LatencyHistogram;
+import manager.LockPhase;
+import manager.LockProfile;
+import manager.StatsSnapshot;
 
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -12,21 +20,22 @@ import java.util.concurrent.TimeUnit;
  */
 public class SimUtils {
 
-    public static void printFinalStats(long startTime, long endTime, boolean tickBalanceConsistent, boolean populationBalanceConsistent) {
+    public static void printFinalStats(ColonySnapshot snapshot, long startTime, long endTime, boolean tickBalanceConsistent, boolean populationBalanceConsistent) {
         DenManager manager = DenManager.getInstance();
-        SimulationStats stats = manager.getStats();
-
-        int ticksAdded = stats.getTicksAddedCount();
-        int ticksRemoved = stats.getTicksRemovedCount();
-        int totalTicksPresent = manager.getTotalTicksOnHedgehogs();
-        int hedgehogsBorn = stats.getHedgehogsBorn();
-        int maleBornCount = stats.getMaleBornCount();
-        int femaleBornCount = stats.getFemaleBornCount();
-        int hedgehogsDied = stats.getHedgehogsDied();
-        int currentHedgehogCount = manager.getHedgehogCount();
-        int hedgehogsWentToWar = stats.getHedgehogsWentToWar();
-        int hedgehogsDiedInWar = stats.getHedgehogsDiedInWar();
-        int hedgehogsReturnedSeasoned = stats.getHedgehogsWarriorLevelUps();
+        ColonyAggregates aggregates = manager.getAggregates();
+        StatsSnapshot stats = snapshot.stats();
+
+        long ticksAdded = stats.ticksAddedCount();
+        long ticksRemoved = stats.ticksRemovedCount();
+        long totalTicksPresent = snapshot.totalTicks();
+        long hedgehogsBorn = stats.hedgehogsBorn();
+        long maleBornCount = stats.maleBornCount();
+        long femaleBornCount = stats.femaleBornCount();
+        long hedgehogsDied = stats.hedgehogsDied();
+        int currentHedgehogCount = snapshot.population();
+        long hedgehogsWentToWar = stats.hedgehogsWentToWar();
+        long hedgehogsDiedInWar = stats.hedgehogsDiedInWar();
+        long hedgehogsReturnedSeasoned = stats.hedgehogsWarriorLevelUps();
 
         System.out.println("\n=== Final Simulation Stats ===");
         System.out.println("Hedgehogs born: " + hedgehogsBorn + " (" + maleBornCount + " ♂ / " + femaleBornCount + " ♀)");
@@ -45,17 +54,127 @@ public class SimUtils {
         } else {
             System.out.println("Tick balance inconsistency detected ⚠️");
         }
+        System.out.println("Hedgehogs with at least " + ConfigParameters.MIN_TICKS_FOR_EPIDEMIOLOGIST + " ticks: " + snapshot.infestedHedgehogCount());
         System.out.println("Hedgehogs sent to war: " + hedgehogsWentToWar + " (" + hedgehogsDiedInWar + " ☠️ / " + hedgehogsReturnedSeasoned + " 🏅)");
-        System.out.println("Total lock contention events: " + stats.getLockContentionCount());
-        System.out.println("Total condition waits: " + stats.getConditionWaitCount());
+        System.out.println("Living seasoned warriors: " + snapshot.seasonedWarriorCount() + warriorLevelBreakdown(aggregates));
+        System.out.println("Total lock contention events: " + stats.lockContentionCount());
+        System.out.println("Total condition waits: " + stats.conditionWaitCount());
+        if (ConfigParameters.ENABLE_BOUNDED_RESERVATIONS) {
+            System.out.println("Reservations given up after " + ConfigParameters.RESERVATION_TIMEOUT_MS + " ms: " + stats.reservationTimeoutCount());
+        }
+        if (manager.getPausedSnapshotCount() > 0) {
+            System.out.println("Consistent reads that had to hold actors off: " + manager.getPausedSnapshotCount());
+        }
+        if (manager.getNarrativeLog().getDroppedCount() > 0) {
+            System.out.println("Narrative log events dropped: " + manager.getNarrativeLog().getDroppedCount());
+        }
         System.out.println("Total simulation duration: " + (endTime - startTime) + " ms");
+        printLockProfile(manager.getLockProfile());
+    }
+
+    private static void printLockProfile(LockProfile profile) {
+        if (!profile.isEnabled()) {
+            return;
+        }
+        boolean headerPrinted = false;
+        for (DenOperation operation : DenOperation.values()) {
+            StringBuilder line = new StringBuilder();
+            for (LockPhase phase : LockPhase.values()) {
+                LatencyHistogram histogram = profile.getHistogram(operation, phase);
+                if (histogram.getCount() > 0) {
+                    line.append("  ").append(phase.name().toLowerCase().replace('_', ' ')).append(": ").append(formatLatencies(histogram));
+                }
+            }
+            if (!line.isEmpty()) {
+                if (!headerPrinted) {
+                    System.out.println("\n=== Den Lock Latency (µs, p50 / p99 / p99.9 / max) ===");
+                    headerPrinted = true;
+                }
+                System.out.println(operation.name() + line);
+            }
+        }
+    }
+
+    /**
+     * Peak and steady-state rates of the sampled time series, see {@link MetricsSampler}.
+     */
+    public static void printThroughput(MetricsSampler sampler) {
+        System.out.println("\n=== Throughput (per second, peak / steady state) ===");
+        for (MetricRate rate : MetricRate.values()) {
+            System.out.println(rate.getLabel() + ": " + String.format("%.1f / %.1f",
+                    sampler.getPeakRate(rate), sampler.getSteadyStateRate(rate)));
+        }
+        System.out.println(sampler.getSampleCount() + " samples written to " + sampler.getFile());
+    }
+
+    public static void printInvariantChecks(InvariantVerifier verifier) {
+        System.out.println("\n=== Online Invariant Checks ===");
+        System.out.println("Checks run: " + verifier.getCheckCount() + String.format(" (%.2f%% of wall-clock time, longest pause %d µs)",
+                verifier.getOverheadPercent(), verifier.getMaxPauseNanos() / 1_000));
+        if (verifier.getFirstViolation() == null) {
+            System.out.println("Every check passed ✅");
+        } else {
+            System.out.println("Checks that found a broken invariant: " + verifier.getViolationCount() + " ⚠️");
+            System.out.println("First broken " + verifier.getFirstViolation());
+        }
+    }
+
+    /**
+     * Generations and the founders whose lineages dominate the living colony, worked out over a {@link GenealogySnapshot}.
+     */
+    public static void printGenealogy(Genealogy genealogy, int lineageCount) {
+        long start = System.nanoTime();
+        GenealogySnapshot snapshot = genealogy.snapshot();
+        int founderCount = snapshot.getFounders().length;
+        int foundersWithLivingLine = snapshot.countFoundersWithLivingDescendants();
+        GenealogySnapshot.Lineage[] lineages = snapshot.getDominantLineages(lineageCount);
+        int living = snapshot.getLivingCount();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.println("\n=== Genealogy ===");
+        System.out.println("Hedgehogs recorded: " + genealogy.getRecordCount() + " (" + founderCount + " founders)");
+        System.out.println("Deepest generation: " + genealogy.getMaxGeneration()
+                + String.format(", mean generation of the living: %.2f", snapshot.getMeanLivingGeneration()));
+        System.out.println("Founders with living descendants: " + foundersWithLivingLine);
+        for (GenealogySnapshot.Lineage lineage : lineages) {
+            int founder = lineage.founder();
+            int count = lineage.livingDescendants();
+            System.out.println("  Founder #" + founder + (snapshot.isAlive(founder) ? "" : " ☠️") + ": " + count
+                    + String.format(" living descendants (%.1f%% of the living)", 100.0 * count / living));
+        }
+        System.out.println("Lineages worked out in " + elapsedMs + " ms");
+    }
+
+    private static String formatLatencies(LatencyHistogram histogram) {
+        return String.format("%.1f / %.1f / %.1f / %.1f",
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMax() / 1000.0);
+    }
+
+    private static String warriorLevelBreakdown(ColonyAggregates aggregates) {
+        StringBuilder breakdown = new StringBuilder();
+        for (int level = 1; level <= ColonyAggregates.MAX_TRACKED_WARRIOR_LEVEL; level++) {
+            int count = aggregates.getSeasonedWarriorCount(level);
+            if (count > 0) {
+                breakdown.append(breakdown.isEmpty() ? " (" : ", ").append("level ").append(level)
+                        .append(level == ColonyAggregates.MAX_TRACKED_WARRIOR_LEVEL ? "+" : "").append(": ").append(count);
+            }
+        }
+        return breakdown.isEmpty() ? "" : breakdown.append(")").toString();
+    }
+
+    /**
+     * Creates an unstarted thread for a simulation actor according to {@link ConfigParameters#EXECUTION_MODE}.
+     */
+    public static Thread newActorThread(Runnable actor) {
+        return switch (ConfigParameters.EXECUTION_MODE) {
+            case PLATFORM_THREADS -> Thread.ofPlatform().unstarted(actor);
+            case VIRTUAL_THREADS -> Thread.ofVirtual().unstarted(actor);
+            case DISCRETE_EVENT -> throw new IllegalStateException("Discrete-event mode does not run actor threads.");
+        };
     }
 
     public static void sleepInsideTask() throws InterruptedException {
-        int sleepTime = ThreadLocalRandom.current().nextInt(
-                ConfigParameters.MIN_SLEEP_INSIDE_TASK_MS,
-                ConfigParameters.MAX_SLEEP_INSIDE_TASK_MS + 1
-        );
-        TimeUnit.MILLISECONDS.sleep(sleepTime);
+        TimeUnit.MILLISECONDS.sleep(LiveWorkload.current().nextSleepInsideTaskMs());
     }
 }
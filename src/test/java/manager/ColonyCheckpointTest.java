@@ -0,0 +1,104 @@
+package manager;
+
+import config.HedgehogNameManager;
+import model.Hedgehog;
+import model.Sex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ColonyCheckpointTest {
+    private static final HedgehogNameManager.State NAME_STATE = new HedgehogNameManager.State(7, 3, 11, 5, 13, 2);
+    private static final StatsSnapshot STATS = new StatsSnapshot(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsThroughBufferedIo() throws IOException {
+        roundTrip(Long.MAX_VALUE, false);
+    }
+
+    @Test
+    void roundTripsThroughMemoryMapping() throws IOException {
+        roundTrip(0, true);
+    }
+
+    @Test
+    void rejectsACorruptFile() throws IOException {
+        Path file = directory.resolve("colony.ckpt");
+        checkpointOf(hedgehogs(10)).write(file, Long.MAX_VALUE);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> ColonyCheckpoint.read(file, Long.MAX_VALUE));
+    }
+
+    @Test
+    void rejectsATruncatedFile() throws IOException {
+        Path file = directory.resolve("colony.ckpt");
+        checkpointOf(hedgehogs(10)).write(file, Long.MAX_VALUE);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThrows(IOException.class, () -> ColonyCheckpoint.read(file, Long.MAX_VALUE));
+    }
+
+    private void roundTrip(long memoryMappingThresholdBytes, boolean expectMemoryMapped) throws IOException {
+        // More hedgehogs than the expected size, so the columns have to grow.
+        List<Hedgehog> written = hedgehogs(1000);
+        ColonyCheckpoint checkpoint = checkpointOf(written);
+        Path file = directory.resolve("colony.ckpt");
+
+        assertEquals(expectMemoryMapped, checkpoint.write(file, memoryMappingThresholdBytes));
+        assertEquals(checkpoint.byteSize(), Files.size(file));
+        assertFalse(Files.exists(directory.resolve("colony.ckpt.tmp")));
+
+        ColonyCheckpoint read = ColonyCheckpoint.read(file, memoryMappingThresholdBytes);
+        assertEquals(written.size(), read.size());
+        assertEquals(written.size() * 2 + 1, read.getNextHedgehogId());
+        assertEquals(NAME_STATE, read.getNameState());
+        assertEquals(STATS, read.getStats());
+        List<Hedgehog> restored = new ArrayList<>();
+        read.forEachHedgehog(restored::add);
+        for (int i = 0; i < written.size(); i++) {
+            assertSameHedgehog(written.get(i), restored.get(i));
+        }
+    }
+
+    private static ColonyCheckpoint checkpointOf(List<Hedgehog> hedgehogs) {
+        ColonyCheckpoint checkpoint = new ColonyCheckpoint(hedgehogs.size() / 4, hedgehogs.size() * 2 + 1, NAME_STATE, STATS);
+        hedgehogs.forEach(checkpoint::add);
+        return checkpoint;
+    }
+
+    private static List<Hedgehog> hedgehogs(int count) {
+        List<Hedgehog> hedgehogs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            hedgehogs.add(new Hedgehog(i * 2 + 1, 1000L * i + 17, i % 3 == 0 ? Sex.FEMALE : Sex.MALE,
+                    i % 7, i % 5, i % 4));
+        }
+        return hedgehogs;
+    }
+
+    static void assertSameHedgehog(Hedgehog expected, Hedgehog actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getNameCode(), actual.getNameCode(), "name of #" + expected.getId());
+        assertEquals(expected.getSex(), actual.getSex(), "sex of #" + expected.getId());
+        assertEquals(expected.getTickCount(), actual.getTickCount(), "ticks of #" + expected.getId());
+        assertEquals(expected.getOffspringCount(), actual.getOffspringCount(), "offspring of #" + expected.getId());
+        assertEquals(expected.getSeasonedWarriorLevel(), actual.getSeasonedWarriorLevel(),
+                "warrior level of #" + expected.getId());
+    }
+}
@@ -0,0 +1,129 @@
+package manager;
+
+import model.Hedgehog;
+import model.Sex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads reserve, change and release a small population at once; afterwards every hedgehog must be free
+ * again, no hedgehog may have been held by two threads at a time, and the ticks must add up.
+ */
+class DenBackendBalanceTest {
+    private static final int POPULATION = 8;
+    private static final int THREAD_COUNT = 16;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+    // Categories a reserver can block on without a deadlock: someone free always suits them eventually.
+    private static final ReservationCategory[] CATEGORIES = {
+            ReservationCategory.ANY, ReservationCategory.FEMALE, ReservationCategory.MALE, ReservationCategory.FAIRY};
+
+    @Test
+    void lockFreeBackendStaysBalanced() throws Exception {
+        checkBalance(new LockFreeDenBackend(new SimulationStats(), new LockProfile(false)));
+    }
+
+    @Test
+    void singleShardBackendStaysBalanced() throws Exception {
+        checkBalance(new ShardedDenBackend(1, new SimulationStats(), new LockProfile(false)));
+    }
+
+    @Test
+    void shardedBackendStaysBalanced() throws Exception {
+        checkBalance(new ShardedDenBackend(3, new SimulationStats(), new LockProfile(false)));
+    }
+
+    private static void checkBalance(DenBackend backend) throws Exception {
+        for (int id = 1; id <= POPULATION; id++) {
+            backend.addHedgehog(new Hedgehog(id, id, id % 2 == 0 ? Sex.FEMALE : Sex.MALE));
+        }
+        AtomicIntegerArray holders = new AtomicIntegerArray(POPULATION + 1);
+        AtomicLong ticks = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            int holder = t + 1;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(holder);
+                try {
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        ReservationCategory category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                        int[] tickets = switch (random.nextInt(3)) {
+                            case 0 -> new int[]{backend.reserve(category)};
+                            case 1 -> backend.reserveBatch(category, 3);
+                            default -> {
+                                int ticket = backend.reserve(category, TimeUnit.MILLISECONDS.toNanos(1));
+                                yield ticket == -1 ? new int[0] : new int[]{ticket};
+                            }
+                        };
+                        for (int ticket : tickets) {
+                            hold(holders, ticket, holder);
+                        }
+                        for (int ticket : tickets) {
+                            if (random.nextInt(8) == 0) {
+                                ticks.addAndGet(-backend.removeAllTicks(ticket).getTickCount());
+                            } else {
+                                backend.addTick(ticket);
+                                ticks.incrementAndGet();
+                            }
+                            holders.set(ticket, 0);
+                        }
+                        if (tickets.length > 1) {
+                            backend.releaseBatch(tickets);
+                        } else if (tickets.length == 1) {
+                            backend.release(tickets[0]);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(60));
+            assertFalse(thread.isAlive(), "A reserver is stuck waiting.");
+        }
+        assertNull(failure.get(), () -> "A reserver failed: " + failure.get());
+
+        List<String> violations = new ArrayList<>();
+        int position = 0;
+        do {
+            position = backend.checkReservations(position, 3, violations::add);
+        } while (position != 0);
+        assertTrue(violations.isEmpty(), violations::toString);
+        assertEquals(POPULATION, backend.getHedgehogCount());
+        assertEquals(ticks.get(), backend.getTotalTicks());
+        long[] visitedTicks = {0};
+        backend.forEachHedgehog(hedgehog -> visitedTicks[0] += hedgehog.getTickCount());
+        assertEquals(ticks.get(), visitedTicks[0]);
+        // Everyone is free again: the whole population can be reserved without waiting.
+        List<Integer> everyone = new ArrayList<>();
+        for (int ticket = backend.tryReserve(ReservationCategory.ANY); ticket != -1;
+             ticket = backend.tryReserve(ReservationCategory.ANY)) {
+            everyone.add(ticket);
+        }
+        assertEquals(POPULATION, everyone.size());
+        everyone.forEach(backend::release);
+    }
+
+    private static void hold(AtomicIntegerArray holders, int ticket, int holder) {
+        int previous = holders.getAndSet(ticket, holder);
+        if (previous != 0) {
+            throw new AssertionError("Hedgehog #" + ticket + " handed to reserver " + holder
+                    + " while reserver " + previous + " still held it.");
+        }
+    }
+}
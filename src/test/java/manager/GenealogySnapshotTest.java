@@ -0,0 +1,127 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cross-checks the descendant queries against a brute-force walk of every root's descendants.
+ */
+class GenealogySnapshotTest {
+
+    @Test
+    void countsMatchABruteForceWalk() {
+        for (long seed = 1; seed <= 5; seed++) {
+            Genealogy genealogy = randomGenealogy(new Random(seed), 300, 5_000);
+            GenealogySnapshot snapshot = genealogy.snapshot();
+            int[] roots = randomRoots(new Random(seed), snapshot, 150);
+            List<List<Integer>> children = childrenOf(snapshot);
+            int[] expected = Arrays.stream(roots).map(root -> bruteForceCount(snapshot, children, root)).toArray();
+            assertArrayEquals(expected, snapshot.countLivingDescendants(roots), "seed " + seed);
+        }
+    }
+
+    @Test
+    void dominantLineagesMatchABruteForceRanking() {
+        for (long seed = 1; seed <= 5; seed++) {
+            // Many founders, as after a restore, where every hedgehog comes back as one.
+            Genealogy genealogy = randomGenealogy(new Random(seed), 2_000, 6_000);
+            GenealogySnapshot snapshot = genealogy.snapshot();
+            List<List<Integer>> children = childrenOf(snapshot);
+            List<GenealogySnapshot.Lineage> all = new ArrayList<>();
+            for (int founder : snapshot.getFounders()) {
+                int count = bruteForceCount(snapshot, children, founder);
+                if (count > 0) {
+                    all.add(new GenealogySnapshot.Lineage(founder, count));
+                }
+            }
+            all.sort(Comparator.comparingInt(GenealogySnapshot.Lineage::livingDescendants).reversed()
+                    .thenComparingInt(GenealogySnapshot.Lineage::founder));
+
+            assertEquals(all.size(), snapshot.countFoundersWithLivingDescendants(), "seed " + seed);
+            for (int count : new int[]{0, 1, 5, 100, all.size() + 1}) {
+                GenealogySnapshot.Lineage[] dominant = snapshot.getDominantLineages(count);
+                assertEquals(Math.min(count, all.size()), dominant.length, "seed " + seed);
+                for (int i = 0; i < dominant.length; i++) {
+                    // Founders with equal counts may come in any order, the counts may not.
+                    assertEquals(all.get(i).livingDescendants(), dominant[i].livingDescendants(), "seed " + seed);
+                    assertEquals(bruteForceCount(snapshot, children, dominant[i].founder()), dominant[i].livingDescendants());
+                }
+            }
+        }
+    }
+
+    /**
+     * Founders first, then births to random living parents, favouring recent ones so lines of ancestry
+     * rejoin through inbreeding, with deaths along the way.
+     */
+    private static Genealogy randomGenealogy(Random random, int founderCount, int birthCount) {
+        Genealogy genealogy = new Genealogy();
+        List<Integer> living = new ArrayList<>();
+        int nextId = 1;
+        for (int i = 0; i < founderCount; i++) {
+            genealogy.onBorn(nextId);
+            living.add(nextId++);
+        }
+        for (int i = 0; i < birthCount; i++) {
+            int window = Math.min(living.size(), 50);
+            int mother = living.get(living.size() - 1 - random.nextInt(window));
+            int father = living.get(random.nextInt(living.size()));
+            if (mother == father) {
+                continue;
+            }
+            genealogy.onBorn(nextId, mother, father);
+            living.add(nextId++);
+            if (random.nextInt(3) > 0) {
+                genealogy.onDied(living.remove(random.nextInt(living.size())));
+            }
+        }
+        return genealogy;
+    }
+
+    private static int[] randomRoots(Random random, GenealogySnapshot snapshot, int count) {
+        int[] roots = new int[count];
+        for (int i = 0; i < count; i++) {
+            // Repeated roots are allowed and must each get their own count.
+            roots[i] = 1 + random.nextInt(snapshot.getIdLimit() - 1);
+        }
+        return roots;
+    }
+
+    private static List<List<Integer>> childrenOf(GenealogySnapshot snapshot) {
+        List<List<Integer>> children = new ArrayList<>();
+        for (int id = 0; id < snapshot.getIdLimit(); id++) {
+            children.add(new ArrayList<>());
+        }
+        for (int id = 1; id < snapshot.getIdLimit(); id++) {
+            if (snapshot.getGeneration(id) > 0) {
+                children.get(snapshot.getMother(id)).add(id);
+                children.get(snapshot.getFather(id)).add(id);
+            }
+        }
+        return children;
+    }
+
+    private static int bruteForceCount(GenealogySnapshot snapshot, List<List<Integer>> children, int root) {
+        boolean[] seen = new boolean[snapshot.getIdLimit()];
+        ArrayDeque<Integer> pending = new ArrayDeque<>(children.get(root));
+        int count = 0;
+        while (!pending.isEmpty()) {
+            int id = pending.poll();
+            if (!seen[id]) {
+                seen[id] = true;
+                count += snapshot.isAlive(id) ? 1 : 0;
+                pending.addAll(children.get(id));
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,133 @@
+package manager;
+
+import config.ConfigParameters;
+import config.HedgehogNameManager;
+import model.Hedgehog;
+import model.Sex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalReplayTest {
+    private static final int REGION_BYTES = 4 * EventJournal.RECORD_BYTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEveryKindOfEvent() throws IOException {
+        Path file = directory.resolve("colony.journal");
+        EventJournal journal = EventJournal.open(file, REGION_BYTES);
+        Hedgehog mother = new Hedgehog(1, 101, Sex.FEMALE);
+        Hedgehog warrior = new Hedgehog(2, 102, Sex.MALE);
+        Hedgehog unlucky = new Hedgehog(3, 103, Sex.MALE);
+        journal.born(mother);
+        journal.born(warrior);
+        journal.born(unlucky);
+        journal.tickAdded(1, 1);
+        journal.tickAdded(1, 2);
+        journal.offspring(1, 1);
+        journal.ticksRemoved(new Hedgehog(1, 101, Sex.FEMALE, 2, 1, 0));
+        journal.warriorLevelUp(2, 1);
+        journal.returnedFromWar(2);
+        journal.tickAdded(3, 1);
+        journal.died(new Hedgehog(3, 103, Sex.MALE, 1, 0, 0), "fell in battle");
+        journal.restored(new Hedgehog(4, 104, Sex.MALE, 3, 2, 1));
+        long written = journal.close();
+
+        JournalReplay replay = JournalReplay.replay(file);
+        assertTrue(replay.isClosedCleanly());
+        assertEquals(written, replay.getEventCount());
+        assertEquals(0, replay.getMissingEventCount());
+        assertEquals(0, replay.getDivergenceCount(), replay.getFirstDivergence());
+        assertEquals(3, replay.getPopulation());
+        assertEquals(1, replay.getFemaleCount());
+        assertEquals(2, replay.getMaleCount());
+        assertEquals(3, replay.getTotalTicks());
+        assertEquals(3, replay.getBirths());
+        assertEquals(1, replay.getDeaths());
+        assertEquals(Map.of("fell in battle", 1L), replay.getDeathsByReason());
+
+        Path matching = directory.resolve("matching.ckpt");
+        checkpointOf(new Hedgehog(1, 101, Sex.FEMALE, 0, 1, 0),
+                new Hedgehog(2, 102, Sex.MALE, 0, 0, 1),
+                new Hedgehog(4, 104, Sex.MALE, 3, 2, 1)).write(matching, ConfigParameters.CHECKPOINT_MMAP_THRESHOLD_BYTES);
+        assertNull(replay.compareWithCheckpoint(matching));
+
+        Path differing = directory.resolve("differing.ckpt");
+        checkpointOf(new Hedgehog(1, 101, Sex.FEMALE, 0, 1, 0),
+                new Hedgehog(2, 102, Sex.MALE, 5, 0, 1),
+                new Hedgehog(4, 104, Sex.MALE, 3, 2, 1)).write(differing, ConfigParameters.CHECKPOINT_MMAP_THRESHOLD_BYTES);
+        assertNotNull(replay.compareWithCheckpoint(differing));
+    }
+
+    @Test
+    void reportsAnEventThatDoesNotFollow() throws IOException {
+        Path file = directory.resolve("colony.journal");
+        EventJournal journal = EventJournal.open(file, REGION_BYTES);
+        journal.born(new Hedgehog(1, 101, Sex.FEMALE));
+        journal.tickAdded(1, 1);
+        journal.tickAdded(1, 3);
+        journal.tickAdded(2, 1);
+        journal.close();
+
+        JournalReplay replay = JournalReplay.replay(file);
+        assertEquals(2, replay.getDivergenceCount());
+        assertTrue(replay.getFirstDivergence().startsWith("Event 3:"), replay.getFirstDivergence());
+        // The recorded value is taken, so the replay follows what the den did.
+        assertEquals(3, replay.getTotalTicks());
+    }
+
+    @Test
+    void mergesRegionsWrittenByConcurrentThreads() throws Exception {
+        Path file = directory.resolve("colony.journal");
+        EventJournal journal = EventJournal.open(file, REGION_BYTES);
+        int threadCount = 4;
+        int hedgehogsPerThread = 200;
+        int ticksPerHedgehog = 3;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int firstId = 1 + t * hedgehogsPerThread;
+            Thread thread = new Thread(() -> {
+                for (int id = firstId; id < firstId + hedgehogsPerThread; id++) {
+                    journal.born(new Hedgehog(id, id, id % 2 == 0 ? Sex.FEMALE : Sex.MALE));
+                    for (int tick = 1; tick <= ticksPerHedgehog; tick++) {
+                        journal.tickAdded(id, tick);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long written = journal.close();
+
+        JournalReplay replay = JournalReplay.replay(file);
+        assertEquals((long) threadCount * hedgehogsPerThread * (1 + ticksPerHedgehog), written);
+        assertEquals(written, replay.getEventCount());
+        assertEquals(0, replay.getDivergenceCount(), replay.getFirstDivergence());
+        assertEquals(threadCount * hedgehogsPerThread, replay.getPopulation());
+        assertEquals((long) threadCount * hedgehogsPerThread * ticksPerHedgehog, replay.getTotalTicks());
+    }
+
+    private static ColonyCheckpoint checkpointOf(Hedgehog... hedgehogs) {
+        ColonyCheckpoint checkpoint = new ColonyCheckpoint(hedgehogs.length, 5,
+                new HedgehogNameManager().getState(), new SimulationStats().snapshot());
+        for (Hedgehog hedgehog : hedgehogs) {
+            checkpoint.add(hedgehog);
+        }
+        return checkpoint;
+    }
+}
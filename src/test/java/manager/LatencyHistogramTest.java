@@ -0,0 +1,61 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void percentilesStayWithinABucketOfTheValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+            long exact = (long) Math.ceil(100_000 * percentile / 100.0);
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(reported >= exact && reported <= exact + exact / 8, percentile + ": " + reported);
+        }
+        assertEquals(100_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void smallValuesAreExactAndEmptyIsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        histogram.record(-5);
+        histogram.record(7);
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(7, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void concurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threadCount = 8;
+        int recordsPerThread = 100_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            long value = 1000 + t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < recordsPerThread; i++) {
+                    histogram.record(value);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals((long) threadCount * recordsPerThread, histogram.getCount());
+        assertEquals(1000 + threadCount - 1, histogram.getMax());
+    }
+}
@@ -0,0 +1,101 @@
+package manager;
+
+import model.Hedgehog;
+import model.Sex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PopulationStoreTest {
+
+    @Test
+    void removalMovesTheLastHedgehogIntoTheHole() {
+        PopulationStore store = new PopulationStore();
+        store.add(new Hedgehog(1, 11, Sex.MALE, 1, 0, 0));
+        store.add(new Hedgehog(2, 12, Sex.FEMALE, 2, 0, 0));
+        store.add(new Hedgehog(3, 13, Sex.MALE, 3, 1, 2));
+        store.setReserved(2, true);
+
+        assertEquals(2, store.removeAt(0));
+        assertEquals(2, store.size());
+        assertEquals(-1, store.slotOf(1));
+        assertEquals(0, store.slotOf(3));
+        assertTrue(store.isReserved(0));
+        ColonyCheckpointTest.assertSameHedgehog(new Hedgehog(3, 13, Sex.MALE, 3, 1, 2), store.snapshot(0));
+
+        assertEquals(-1, store.removeAt(1));
+        assertEquals(-1, store.slotOf(2));
+        assertEquals(0, store.slotOf(3));
+        assertEquals(3, store.getTotalTicks());
+    }
+
+    @Test
+    void rejectsAnIdStoredTwice() {
+        PopulationStore store = new PopulationStore();
+        store.add(new Hedgehog(1, 11, Sex.MALE));
+        assertThrows(IllegalStateException.class, () -> store.add(new Hedgehog(1, 11, Sex.MALE)));
+    }
+
+    @Test
+    void removalKeepsCollidingIdsReachable() {
+        // A shard hands out ids at a fixed stride, so long probe runs form; remove from their middle.
+        PopulationStore store = new PopulationStore();
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 4; id <= 4 * 200; id += 4) {
+            store.add(new Hedgehog(id, id, Sex.FEMALE));
+            ids.add(id);
+        }
+        for (int i = 0; i < ids.size(); i += 3) {
+            int id = ids.get(i);
+            store.removeAt(store.slotOf(id));
+            assertEquals(-1, store.slotOf(id));
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            int slot = store.slotOf(ids.get(i));
+            if (i % 3 == 0) {
+                assertEquals(-1, slot);
+            } else {
+                assertEquals((int) ids.get(i), store.getId(slot));
+            }
+        }
+    }
+
+    @Test
+    void matchesAReferenceThroughGrowthAndShrinking() {
+        Random random = new Random(1);
+        PopulationStore store = new PopulationStore();
+        List<Integer> living = new ArrayList<>();
+        int nextId = 3;
+        for (int step = 0; step < 400_000; step++) {
+            // Alternate phases of growth and decline, so the index is resized both ways.
+            boolean growing = step % 100_000 < 50_000;
+            if (living.isEmpty() || random.nextInt(100) < (growing ? 60 : 40)) {
+                store.add(new Hedgehog(nextId, nextId, random.nextBoolean() ? Sex.FEMALE : Sex.MALE));
+                living.add(nextId);
+                nextId += 3;
+            } else {
+                int id = living.remove(random.nextInt(living.size()));
+                int slot = store.slotOf(id);
+                assertEquals(id, store.getId(slot));
+                store.removeAt(slot);
+                assertEquals(-1, store.slotOf(id));
+            }
+            if (step % 10_000 == 0) {
+                assertEquals(living.size(), store.size());
+                for (int id : living) {
+                    int slot = store.slotOf(id);
+                    assertTrue(slot >= 0 && slot < store.size());
+                    assertEquals(id, store.getId(slot));
+                    assertFalse(store.isReserved(slot));
+                }
+            }
+        }
+    }
+}